@@ -0,0 +1,141 @@
+package com.skincare.application.benchmark;
+
+import com.skincare.application.model.Blog;
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.Role;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.Specialist;
+import com.skincare.application.model.Tag;
+import com.skincare.application.model.User;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+// Deterministic entity graphs shared by the benchmarks; nothing here touches a database
+final class BenchmarkData {
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 9, 30);
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id, Role.ERole... roles) {
+        Set<Role> roleSet = new HashSet<>();
+        for (Role.ERole role : roles) {
+            roleSet.add(Role.builder().id((long) role.ordinal() + 1).name(role).build());
+        }
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z9QYhqj5w6hG6jHk4PMTqHnS")
+                .email("user" + id + "@example.com")
+                .fullName("Nguyen Van " + id)
+                .phoneNumber("09" + (10000000 + id))
+                .address(id + " Le Loi, District 1, Ho Chi Minh City")
+                .roles(roleSet)
+                .createdAt(NOW)
+                .build();
+    }
+
+    static List<Service> services(int count) {
+        List<Service> services = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            services.add(Service.builder()
+                    .id(id)
+                    .name("Service " + id)
+                    .description("Facial treatment " + id + " with cleansing, exfoliation and a hydrating mask.")
+                    .price(BigDecimal.valueOf(250_000 + id * 1_000))
+                    .durationMinutes(30 + (int) (id % 4) * 15)
+                    .imageUrl("/uploads/media/ab/" + id + ".jpg")
+                    .createdAt(NOW)
+                    .build());
+        }
+        return services;
+    }
+
+    static Specialist specialist(long id, List<Service> services, int serviceCount, Random random) {
+        Set<Service> offered = new HashSet<>();
+        while (offered.size() < serviceCount) {
+            offered.add(services.get(random.nextInt(services.size())));
+        }
+        return Specialist.builder()
+                .id(id)
+                .user(user(1000 + id, Role.ERole.ROLE_SPECIALIST))
+                .specialization("Dermatology")
+                .bio("Certified skin therapist with a focus on acne and sensitive skin.")
+                .experience((3 + id % 10) + " years")
+                .certifications("CIDESCO, ITEC")
+                .ratingAverage(4.0 + (id % 10) / 10.0)
+                .ratingCount((int) (id * 7 % 200))
+                .services(offered)
+                .build();
+    }
+
+    static Booking booking(long id, Customer customer, Specialist specialist) {
+        return Booking.builder()
+                .id(id)
+                .customer(customer)
+                .specialist(specialist)
+                .bookingDateTime(NOW.plusHours(id))
+                .status(Booking.BookingStatus.CONFIRMED)
+                .totalAmount(BigDecimal.valueOf(750_000))
+                .paymentStatus(Booking.PaymentStatus.PENDING)
+                .paymentMethod("CASH")
+                .notes("First visit")
+                .createdAt(NOW)
+                .build();
+    }
+
+    static List<BookingDetail> bookingDetails(Booking booking, List<Service> services, int count) {
+        List<BookingDetail> details = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Service service = services.get((int) ((booking.getId() + i) % services.size()));
+            details.add(BookingDetail.builder()
+                    .id(booking.getId() * 10 + i)
+                    .booking(booking)
+                    .service(service)
+                    .price(service.getPrice())
+                    .status(BookingDetail.Status.PENDING)
+                    .startTime(booking.getBookingDateTime().plusMinutes(45L * i))
+                    .endTime(booking.getBookingDateTime().plusMinutes(45L * (i + 1)))
+                    .build());
+        }
+        return details;
+    }
+
+    static Blog blog(long id, User author, int tagCount) {
+        Set<Tag> tags = new HashSet<>();
+        for (long t = 1; t <= tagCount; t++) {
+            tags.add(Tag.builder().id(t).name("tag-" + t).build());
+        }
+        return Blog.builder()
+                .id(id)
+                .title("Five steps to a calmer skin barrier, part " + id)
+                .content("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(40))
+                .featuredImage("/uploads/media/cd/" + id + ".jpg")
+                .isPublished(true)
+                .viewCount((int) (id * 13))
+                .author(author)
+                .tags(tags)
+                .createdAt(NOW)
+                .publishedAt(NOW)
+                .build();
+    }
+
+    // Repository stand-in answering every call through one function of the arguments
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Function<Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> method.getDeclaringClass() == Object.class
+                        ? method.invoke(answer, args)
+                        : answer.apply(args));
+    }
+}
@@ -0,0 +1,80 @@
+package com.skincare.application.benchmark;
+
+import com.skincare.application.dto.BlogDto;
+import com.skincare.application.dto.BookingDto;
+import com.skincare.application.dto.SpecialistDto;
+import com.skincare.application.dto.converter.BlogDtoConverter;
+import com.skincare.application.dto.converter.BookingDtoConverter;
+import com.skincare.application.dto.converter.SpecialistDtoConverter;
+import com.skincare.application.model.Blog;
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.Role;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.Specialist;
+import com.skincare.application.repository.BookingDetailRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversion as done per row by the controllers' list endpoints. The
+ * booking detail lookup is stubbed, so the numbers are the in-memory cost only; the
+ * per-row query is what the SQL tracing reports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class DtoConverterBenchmark {
+    private SpecialistDtoConverter specialistConverter;
+    private BookingDtoConverter bookingConverter;
+    private BlogDtoConverter blogConverter;
+
+    private Specialist specialist;
+    private Booking booking;
+    private Blog blog;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Service> services = BenchmarkData.services(50);
+        specialist = BenchmarkData.specialist(1, services, 5, random);
+
+        Customer customer = Customer.builder()
+                .id(1L)
+                .user(BenchmarkData.user(1, Role.ERole.ROLE_CUSTOMER))
+                .skinType("Combination")
+                .build();
+        booking = BenchmarkData.booking(1, customer, specialist);
+        List<BookingDetail> details = BenchmarkData.bookingDetails(booking, services, 3);
+
+        blog = BenchmarkData.blog(1, BenchmarkData.user(2, Role.ERole.ROLE_STAFF), 5);
+
+        specialistConverter = new SpecialistDtoConverter();
+        bookingConverter = new BookingDtoConverter();
+        ReflectionTestUtils.setField(bookingConverter, "bookingDetailRepository",
+                BenchmarkData.stub(BookingDetailRepository.class, args -> details));
+        blogConverter = new BlogDtoConverter();
+    }
+
+    @Benchmark
+    public SpecialistDto specialistToDto() {
+        return specialistConverter.convert(specialist);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return bookingConverter.convert(booking);
+    }
+
+    @Benchmark
+    public BlogDto blogToDto() {
+        return blogConverter.convert(blog);
+    }
+}
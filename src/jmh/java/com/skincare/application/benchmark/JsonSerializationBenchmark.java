@@ -0,0 +1,135 @@
+package com.skincare.application.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.skincare.application.dto.BookingDetailDto;
+import com.skincare.application.dto.BookingDto;
+import com.skincare.application.dto.CustomerDto;
+import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.dto.SpecialistDto;
+import com.skincare.application.dto.UserDto;
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response body writing for the largest list endpoints, with the same mapper setup Spring Boot uses
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+    @Param({"1000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<ServiceDto> services;
+    private List<SpecialistDto> specialists;
+    private List<BookingDto> bookings;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writer();
+
+        services = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            services.add(serviceDto(id));
+        }
+
+        specialists = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            SpecialistDto dto = new SpecialistDto();
+            dto.setId(id);
+            dto.setUser(userDto(1000 + id));
+            dto.setSpecialization("Dermatology");
+            dto.setBio("Certified skin therapist with a focus on acne and sensitive skin.");
+            dto.setExperience("5 years");
+            dto.setCertifications("CIDESCO, ITEC");
+            dto.setRatingAverage(4.5);
+            dto.setRatingCount(120);
+            dto.setServices(List.of(services.get((int) (id % size)), services.get((int) ((id + 1) % size))));
+            specialists.add(dto);
+        }
+
+        bookings = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            CustomerDto customer = new CustomerDto();
+            customer.setId(id);
+            customer.setUser(userDto(id));
+            customer.setSkinType("Combination");
+
+            BookingDto dto = new BookingDto();
+            dto.setId(id);
+            dto.setCustomer(customer);
+            dto.setSpecialist(specialists.get((int) (id % size)));
+            dto.setBookingDateTime(BenchmarkData.NOW.plusHours(id));
+            dto.setStatus(Booking.BookingStatus.CONFIRMED);
+            dto.setTotalAmount(BigDecimal.valueOf(750_000));
+            dto.setPaymentStatus(Booking.PaymentStatus.PENDING);
+            dto.setPaymentMethod("CASH");
+            dto.setNotes("First visit");
+            List<BookingDetailDto> details = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                BookingDetailDto detail = new BookingDetailDto();
+                detail.setId(id * 10 + i);
+                detail.setBookingId(id);
+                detail.setService(services.get((int) ((id + i) % size)));
+                detail.setPrice(BigDecimal.valueOf(250_000));
+                detail.setStatus(BookingDetail.Status.PENDING);
+                detail.setStartTime(BenchmarkData.NOW.plusMinutes(45L * i));
+                detail.setEndTime(BenchmarkData.NOW.plusMinutes(45L * (i + 1)));
+                details.add(detail);
+            }
+            dto.setBookingDetails(details);
+            bookings.add(dto);
+        }
+    }
+
+    @Benchmark
+    public byte[] services() throws JsonProcessingException {
+        return writer.writeValueAsBytes(services);
+    }
+
+    @Benchmark
+    public byte[] specialists() throws JsonProcessingException {
+        return writer.writeValueAsBytes(specialists);
+    }
+
+    @Benchmark
+    public byte[] bookings() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookings);
+    }
+
+    private static ServiceDto serviceDto(long id) {
+        ServiceDto dto = new ServiceDto();
+        dto.setId(id);
+        dto.setName("Service " + id);
+        dto.setDescription("Facial treatment " + id + " with cleansing, exfoliation and a hydrating mask.");
+        dto.setPrice(BigDecimal.valueOf(250_000 + id * 1_000));
+        dto.setDurationMinutes(60);
+        dto.setIsActive(true);
+        dto.setImageUrl("/uploads/media/ab/" + id + ".jpg");
+        dto.setCategories(Collections.emptyList());
+        return dto;
+    }
+
+    private static UserDto userDto(long id) {
+        UserDto dto = new UserDto();
+        dto.setId(id);
+        dto.setUsername("user" + id);
+        dto.setEmail("user" + id + "@example.com");
+        dto.setFullName("Nguyen Van " + id);
+        dto.setPhoneNumber("09" + (10000000 + id));
+        dto.setIsActive(true);
+        return dto;
+    }
+}
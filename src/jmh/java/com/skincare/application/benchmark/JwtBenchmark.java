@@ -0,0 +1,74 @@
+package com.skincare.application.benchmark;
+
+import com.skincare.application.model.Role;
+import com.skincare.application.model.User;
+import com.skincare.application.repository.UserRepository;
+import com.skincare.application.security.jwt.AuthTokenFilter;
+import com.skincare.application.security.jwt.JwtUtils;
+import com.skincare.application.security.services.UserDetailsImpl;
+import com.skincare.application.security.services.UserDetailsServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Token work done on every authenticated request: parse/verify, and the whole AuthTokenFilter pass
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    private JwtUtils jwtUtils;
+    private AuthTokenFilter authTokenFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "skincareServiceSecretKey");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+
+        User user = BenchmarkData.user(1, Role.ERole.ROLE_CUSTOMER);
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository",
+                BenchmarkData.stub(UserRepository.class, args -> Optional.of(user)));
+
+        authTokenFilter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authTokenFilter, "userDetailsService", userDetailsService);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String usernameFromToken() {
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+
+    // Header parse, two signature checks, user lookup (stubbed) and security context setup
+    @Benchmark
+    public Object authTokenFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+        request.addHeader("Authorization", "Bearer " + token);
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,89 @@
+package com.skincare.application.benchmark;
+
+import com.skincare.application.dto.ServiceRecommendationDto;
+import com.skincare.application.model.CustomerQuizResult;
+import com.skincare.application.model.QuizOption;
+import com.skincare.application.model.QuizQuestion;
+import com.skincare.application.model.Service;
+import com.skincare.application.service.quiz.QuizRecommendationService;
+import com.skincare.application.service.quiz.ScoredService;
+import com.skincare.application.service.quiz.ServiceScoreAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Scores one quiz submission: 50 answers, each recommending a handful of 500 services
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class QuizRecommendationBenchmark {
+    @Param({"50"})
+    private int answers;
+
+    @Param({"500"})
+    private int services;
+
+    @Param({"10"})
+    private int topK;
+
+    private long[][] serviceIds;
+    private int[][] weights;
+    private List<CustomerQuizResult> results;
+    private QuizRecommendationService recommendationService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        serviceIds = new long[answers][];
+        weights = new int[answers][];
+        for (int a = 0; a < answers; a++) {
+            int count = 4 + random.nextInt(9);
+            serviceIds[a] = new long[count];
+            weights[a] = new int[count];
+            for (int i = 0; i < count; i++) {
+                serviceIds[a][i] = 1 + random.nextInt(services);
+                weights[a][i] = 1 + random.nextInt(5);
+            }
+        }
+
+        // Same submission as entities, as QuizController hands it to the service
+        List<Service> catalog = BenchmarkData.services(services);
+        results = new ArrayList<>(answers);
+        for (int a = 0; a < answers; a++) {
+            QuizQuestion question = QuizQuestion.builder().id((long) a + 1).question("Question " + a).build();
+            question.getRecommendedServices().add(catalog.get(a % services));
+            QuizOption option = QuizOption.builder().id((long) a + 1).question(question).optionText("Option").build();
+            for (int i = 0; i < serviceIds[a].length; i++) {
+                Service service = catalog.get((int) serviceIds[a][i] - 1);
+                option.getRecommendedServices().add(service);
+                option.getServiceWeights().put(service.getId(), weights[a][i]);
+            }
+            results.add(CustomerQuizResult.builder().question(question).selectedOption(option).build());
+        }
+        recommendationService = new QuizRecommendationService();
+    }
+
+    @Benchmark
+    public List<ScoredService> scoreSubmission() {
+        ServiceScoreAccumulator accumulator = new ServiceScoreAccumulator(answers * 4);
+        for (int a = 0; a < answers; a++) {
+            long[] ids = serviceIds[a];
+            int[] answerWeights = weights[a];
+            for (int i = 0; i < ids.length; i++) {
+                accumulator.add(ids[i], answerWeights[i]);
+            }
+        }
+        return accumulator.topK(topK);
+    }
+
+    // Whole service call: entity traversal, scoring and DTO building for the top services
+    @Benchmark
+    public List<ServiceRecommendationDto> recommend() {
+        return recommendationService.recommend(results, topK);
+    }
+}
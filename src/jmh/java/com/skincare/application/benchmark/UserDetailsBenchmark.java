@@ -0,0 +1,28 @@
+package com.skincare.application.benchmark;
+
+import com.skincare.application.model.Role;
+import com.skincare.application.model.User;
+import com.skincare.application.security.services.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Principal construction done after every successful token check
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class UserDetailsBenchmark {
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkData.user(1, Role.ERole.ROLE_CUSTOMER, Role.ERole.ROLE_STAFF);
+    }
+
+    @Benchmark
+    public UserDetailsImpl build() {
+        return UserDetailsImpl.build(user);
+    }
+}
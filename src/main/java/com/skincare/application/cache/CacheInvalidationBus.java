@@ -0,0 +1,74 @@
+package com.skincare.application.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps in-process caches coherent across nodes. Writes to cached data are sent
+ * through the transport; events from other nodes are republished here as
+ * {@link InvalidationEvent} application events, on which the caches evict or
+ * refresh. A node's own writes are not echoed back: they already updated its
+ * caches. Events are counted as cache.invalidation.events.
+ */
+public class CacheInvalidationBus implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId;
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    public CacheInvalidationBus(String nodeId, InvalidationTransport transport, ApplicationEventPublisher eventPublisher) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        transport.subscribe(this::receive);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.invalidation.events", sent, LongAdder::sum)
+                .description("Cache invalidations sent to other nodes")
+                .tag("direction", "sent")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.events", received, LongAdder::sum)
+                .description("Cache invalidations received from other nodes")
+                .tag("direction", "received")
+                .register(registry);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Call inside the writing transaction; a null entityId invalidates every entity of the type
+    public void publish(String entityType, Long entityId, Long version) {
+        transport.send(new InvalidationEvent(entityType, entityId, version, nodeId));
+        sent.increment();
+    }
+
+    private void receive(InvalidationEvent event) {
+        if (nodeId.equals(event.getOrigin())) {
+            return;
+        }
+        received.increment();
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            // One failing cache must not keep the others stale
+            logger.warn("Cache invalidation {} failed: {}", event, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.skincare.application.cache;
+
+import com.skincare.application.datasource.CacheRefillWindow;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Cross-node cache coherence. cache.invalidation.transport selects how events
+ * travel: local (default) within this JVM only, jdbc through the shared database
+ * for deployments with more than one node.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    // A fresh id per start unless configured: a restarted node must not drop events as its own
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(@Value("${cache.invalidation.node-id:}") String nodeId,
+                                                     InvalidationTransport transport,
+                                                     ApplicationEventPublisher eventPublisher) {
+        return new CacheInvalidationBus(nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId,
+                transport, eventPublisher);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "local", matchIfMissing = true)
+    public InMemoryInvalidationTransport inMemoryInvalidationTransport() {
+        return new InMemoryInvalidationTransport();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.invalidation.transport", havingValue = "jdbc")
+    public JdbcInvalidationTransport jdbcInvalidationTransport(JdbcTemplate jdbcTemplate,
+                                                               @Value("${cache.invalidation.batch-size:500}") int batchSize,
+                                                               @Value("${cache.invalidation.gap-timeout:30s}") Duration gapTimeout,
+                                                               @Value("${cache.invalidation.retention:10m}") Duration retention) {
+        return new JdbcInvalidationTransport(jdbcTemplate, batchSize, gapTimeout, retention);
+    }
+
+    // Hooks the write listener into Hibernate; the bus has to exist before the EntityManagerFactory
+    @Bean
+    public HibernatePropertiesCustomizer cacheInvalidationCustomizer(CacheInvalidationBus bus,
+                                                                     ObjectProvider<CacheRefillWindow> cacheRefillWindow) {
+        IntegratorProvider integrators = () -> Collections.singletonList(
+                new CacheInvalidationIntegrator(bus, cacheRefillWindow.getIfAvailable()));
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, integrators);
+    }
+}
@@ -0,0 +1,133 @@
+package com.skincare.application.cache;
+
+import com.skincare.application.datasource.CacheRefillWindow;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Publishes every flushed write to an entity or collection that lives in the
+ * second-level cache. Runs during the flush, so the event is sent inside the
+ * writing transaction. With replica routing, the write also opens the cache refill
+ * window, which keeps the reads that refill the cache on the primary.
+ */
+public class CacheInvalidationIntegrator implements Integrator, PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+    private final CacheInvalidationBus bus;
+    // Null without replica routing
+    private final CacheRefillWindow cacheRefillWindow;
+
+    public CacheInvalidationIntegrator(CacheInvalidationBus bus, CacheRefillWindow cacheRefillWindow) {
+        this.bus = bus;
+        this.cacheRefillWindow = cacheRefillWindow;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        publish(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        publish(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        publish(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void publish(EntityPersister persister, Object id, Object entity) {
+        if (persister.canWriteToCache()) {
+            bus.publish(persister.getEntityName(), toLong(id), version(persister, entity));
+            openRefillWindow();
+        }
+    }
+
+    // A collection change is announced as a change of its owner, whose cached collections the receivers evict
+    private void publish(AbstractCollectionEvent event) {
+        // A new collection has no role yet; its entry knows the persister it was written with
+        CollectionEntry entry = event.getSession().getPersistenceContextInternal().getCollectionEntry(event.getCollection());
+        CollectionPersister collection = entry.getCurrentPersister() != null
+                ? entry.getCurrentPersister() : entry.getLoadedPersister();
+        if (collection != null && collection.hasCache()) {
+            EntityPersister owner = collection.getOwnerEntityPersister();
+            bus.publish(owner.getEntityName(), toLong(event.getAffectedOwnerIdOrNull()),
+                    version(owner, event.getAffectedOwnerOrNull()));
+            openRefillWindow();
+        }
+    }
+
+    private void openRefillWindow() {
+        if (cacheRefillWindow != null) {
+            cacheRefillWindow.openAfterCommit();
+        }
+    }
+
+    private static Long version(EntityPersister persister, Object entity) {
+        if (entity == null || !persister.isVersioned()) {
+            return null;
+        }
+        return toLong(persister.getVersion(entity));
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+}
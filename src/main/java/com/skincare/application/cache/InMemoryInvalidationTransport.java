@@ -0,0 +1,42 @@
+package com.skincare.application.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events to the buses of the same JVM once the writing transaction has
+ * committed. Enough for a single node; tests share one instance between several
+ * buses to stand in for a cluster.
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+    private final List<Consumer<InvalidationEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(InvalidationEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(event);
+                }
+            });
+            return;
+        }
+        deliver(event);
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void deliver(InvalidationEvent event) {
+        for (Consumer<InvalidationEvent> subscriber : subscribers) {
+            subscriber.accept(event);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.skincare.application.cache;
+
+import lombok.Value;
+
+// A write to a cached entity on some node. A null entityId stands for every entity of the type.
+@Value
+public class InvalidationEvent {
+    String entityType;
+    Long entityId;
+    Long version;
+    String origin;
+}
@@ -0,0 +1,15 @@
+package com.skincare.application.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation events between the nodes of a deployment.
+ */
+public interface InvalidationTransport {
+    // Called inside the writing transaction when there is one: the event must not reach
+    // other nodes before the change is committed, and must not reach them at all after a rollback
+    void send(InvalidationEvent event);
+
+    // Every event sent by any node, this one included, is passed to the subscriber once
+    void subscribe(Consumer<InvalidationEvent> subscriber);
+}
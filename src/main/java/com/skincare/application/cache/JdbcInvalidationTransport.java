@@ -0,0 +1,165 @@
+package com.skincare.application.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sends events through the cache_invalidations table, so nodes need nothing but
+ * the shared database. The row is inserted in the writer's transaction; every node
+ * polls for new rows and delivers them, which bounds the delay to one poll interval
+ * after the commit. Delays are measured on the database clock as
+ * cache.invalidation.delay.
+ *
+ * Auto-increment ids become visible in commit order, not id order: a lower id may
+ * show up after a higher one has been read. Skipped ids are looked up again until
+ * they appear or the gap timeout passes (the transaction rolled back).
+ */
+public class JdbcInvalidationTransport implements InvalidationTransport, MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInvalidationTransport.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cache_invalidations (entity_type, entity_id, entity_version, origin) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT id, entity_type, entity_id, entity_version, origin, " +
+            "TIMESTAMPDIFF(MICROSECOND, created_at, NOW(3)) AS delay_micros FROM cache_invalidations ";
+    private static final String PURGE_SQL =
+            "DELETE FROM cache_invalidations WHERE created_at < NOW(3) - INTERVAL ? SECOND";
+    private static final int MAX_TRACKED_GAPS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long gapTimeoutNanos;
+    private final long retentionSeconds;
+    private final List<Consumer<InvalidationEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    // Skipped ids and when they were first missed; only touched by the polling thread
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    private long highestSeen;
+
+    private volatile Timer delay;
+
+    public JdbcInvalidationTransport(JdbcTemplate jdbcTemplate, int batchSize, Duration gapTimeout, Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.retentionSeconds = retention.getSeconds();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        delay = Timer.builder("cache.invalidation.delay")
+                .description("Time from an invalidation being written to the poll that delivered it")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Events written before startup are of no interest: this node's caches start empty
+    @PostConstruct
+    public void init() {
+        highestSeen = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+    }
+
+    @Override
+    public void send(InvalidationEvent event) {
+        jdbcTemplate.update(INSERT_SQL, event.getEntityType(), event.getEntityId(), event.getVersion(), event.getOrigin());
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-interval:500}")
+    public synchronized void poll() {
+        List<Row> rows;
+        do {
+            rows = jdbcTemplate.query(SELECT_SQL + "WHERE id > ? ORDER BY id LIMIT ?", ROW_MAPPER, highestSeen, batchSize);
+            long now = System.nanoTime();
+            for (Row row : rows) {
+                for (long missing = highestSeen + 1; missing < row.id && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                highestSeen = row.id;
+                deliver(row);
+            }
+        } while (rows.size() == batchSize);
+
+        if (!gaps.isEmpty()) {
+            recheckGaps();
+        }
+    }
+
+    // Rows are only needed until every node has polled them
+    @Scheduled(fixedDelayString = "${cache.invalidation.purge-interval:60000}")
+    public void purge() {
+        int purged = jdbcTemplate.update(PURGE_SQL, retentionSeconds);
+        if (purged > 0) {
+            logger.debug("Purged {} cache invalidations older than {}s", purged, retentionSeconds);
+        }
+    }
+
+    private void recheckGaps() {
+        String placeholders = String.join(", ", Collections.nCopies(gaps.size(), "?"));
+        List<Row> late = jdbcTemplate.query(SELECT_SQL + "WHERE id IN (" + placeholders + ")",
+                ROW_MAPPER, gaps.keySet().toArray());
+        for (Row row : late) {
+            gaps.remove(row.id);
+            deliver(row);
+        }
+
+        long now = System.nanoTime();
+        for (Iterator<Long> missedAt = gaps.values().iterator(); missedAt.hasNext(); ) {
+            if (now - missedAt.next() > gapTimeoutNanos) {
+                missedAt.remove();
+            }
+        }
+    }
+
+    private void deliver(Row row) {
+        Timer timer = delay;
+        if (timer != null && row.delayMicros >= 0) {
+            timer.record(row.delayMicros, TimeUnit.MICROSECONDS);
+        }
+        for (Consumer<InvalidationEvent> subscriber : subscribers) {
+            subscriber.accept(row.event);
+        }
+    }
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getLong("id"),
+            new InvalidationEvent(
+                    rs.getString("entity_type"),
+                    rs.getObject("entity_id", Long.class),
+                    rs.getObject("entity_version", Long.class),
+                    rs.getString("origin")),
+            rs.getLong("delay_micros"));
+
+    private static final class Row {
+        private final long id;
+        private final InvalidationEvent event;
+        private final long delayMicros;
+
+        private Row(long id, InvalidationEvent event, long delayMicros) {
+            this.id = id;
+            this.event = event;
+            this.delayMicros = delayMicros;
+        }
+    }
+}
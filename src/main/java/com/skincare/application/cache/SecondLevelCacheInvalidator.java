@@ -0,0 +1,86 @@
+package com.skincare.application.cache;
+
+import com.skincare.application.datasource.CacheRefillWindow;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evicts what another node changed from this node's second-level cache: the
+ * entity, the cached collections it owns and all cached query results, which
+ * may have included it. With replica routing, the refills read the primary for a
+ * while (see CacheRefillWindow).
+ */
+@Component
+public class SecondLevelCacheInvalidator {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired(required = false)
+    private CacheRefillWindow cacheRefillWindow;
+
+    private Cache cache;
+
+    private final Set<String> cachedEntities = new HashSet<>();
+
+    // Cached collection roles by owning entity name
+    private final Map<String, List<String>> collectionRoles = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        cache = sessionFactory.getCache();
+        for (EntityPersister entity : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (entity.canWriteToCache()) {
+                cachedEntities.add(entity.getEntityName());
+            }
+        }
+        for (CollectionPersister collection : sessionFactory.getMetamodel().collectionPersisters().values()) {
+            if (collection.hasCache()) {
+                EntityPersister owner = collection.getOwnerEntityPersister();
+                collectionRoles.computeIfAbsent(owner.getEntityName(), name -> new ArrayList<>()).add(collection.getRole());
+            }
+        }
+    }
+
+    @EventListener
+    public void onInvalidation(InvalidationEvent event) {
+        String entityName = event.getEntityType();
+        Long id = event.getEntityId();
+        if (!cachedEntities.contains(entityName) && !collectionRoles.containsKey(entityName)) {
+            return;
+        }
+        if (cacheRefillWindow != null) {
+            cacheRefillWindow.open();
+        }
+
+        if (cachedEntities.contains(entityName)) {
+            if (id != null) {
+                cache.evictEntityData(entityName, id);
+            } else {
+                cache.evictEntityData(entityName);
+            }
+        }
+        for (String role : collectionRoles.getOrDefault(entityName, List.of())) {
+            if (id != null) {
+                cache.evictCollectionData(role, id);
+            } else {
+                cache.evictCollectionData(role);
+            }
+        }
+        cache.evictQueryRegions();
+    }
+}
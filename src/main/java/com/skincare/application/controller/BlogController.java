@@ -1,7 +1,10 @@
 
 package com.skincare.application.controller;
 
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
 import com.skincare.application.dto.BlogDto;
+import com.skincare.application.dto.MessageResponse;
+import com.skincare.application.dto.converter.BlogDtoConverter;
 import com.skincare.application.model.Blog;
 import com.skincare.application.model.Tag;
 import com.skincare.application.model.User;
@@ -10,14 +13,20 @@ import com.skincare.application.repository.TagRepository;
 import com.skincare.application.repository.UserRepository;
 import com.skincare.application.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -33,6 +42,9 @@ public class BlogController {
     @Autowired
     private TagRepository tagRepository;
 
+    @Autowired
+    private BlogDtoConverter blogDtoConverter;
+
     // Lấy tất cả bài viết
     @GetMapping
     public ResponseEntity<List<BlogDto>> getAllBlogs(
@@ -55,7 +67,7 @@ public class BlogController {
         }
 
         List<BlogDto> blogDtos = blogs.stream()
-                .map(this::convertToDto)
+                .map(blogDtoConverter::convert)
                 .collect(Collectors.toList());
 
         return ResponseEntity.ok(blogDtos);
@@ -68,10 +80,10 @@ public class BlogController {
         if (blog.isPresent()) {
             // Tăng lượt xem khi lấy chi tiết blog
             Blog blogEntity = blog.get();
+            blogRepository.incrementViewCount(id);
             blogEntity.setViewCount(blogEntity.getViewCount() + 1);
-            blogRepository.save(blogEntity);
             
-            return ResponseEntity.ok(convertToDto(blogEntity));
+            return ResponseEntity.ok(blogDtoConverter.convert(blogEntity));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -79,10 +91,11 @@ public class BlogController {
 
     // Lấy danh sách blog mới nhất
     @GetMapping("/latest")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<BlogDto>> getLatestBlogs() {
-        List<Blog> latestBlogs = blogRepository.findTop5ByIsPublishedTrueOrderByPublishedAtDesc();
+        List<Blog> latestBlogs = blogRepository.findLatestPublished(PageRequest.of(0, 5));
         List<BlogDto> blogDtos = latestBlogs.stream()
-                .map(this::convertToDto)
+                .map(blogDtoConverter::convert)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(blogDtos);
     }
@@ -107,19 +120,24 @@ public class BlogController {
         blog.setIsPublished(false);
         
         Blog savedBlog = blogRepository.save(blog);
-        return ResponseEntity.ok(convertToDto(savedBlog));
+        return ResponseEntity.ok(blogDtoConverter.convert(savedBlog));
     }
 
     // Cập nhật blog
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<BlogDto> updateBlog(@PathVariable Long id, @RequestBody BlogDto blogDto) {
         Optional<Blog> existingBlog = blogRepository.findById(id);
         if (existingBlog.isPresent()) {
             Blog blog = existingBlog.get();
+            // Bài viết đã được người khác sửa sau phiên bản client đang giữ
+            if (blogDto.getVersion() != null && !blogDto.getVersion().equals(blog.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Blog.class, id);
+            }
             updateBlogFromDto(blog, blogDto);
-            Blog updatedBlog = blogRepository.save(blog);
-            return ResponseEntity.ok(convertToDto(updatedBlog));
+            Blog updatedBlog = blogRepository.saveAndFlush(blog);
+            return ResponseEntity.ok(blogDtoConverter.convert(updatedBlog));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -128,6 +146,7 @@ public class BlogController {
     // Xuất bản blog
     @PutMapping("/{id}/publish")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<BlogDto> publishBlog(@PathVariable Long id) {
         Optional<Blog> existingBlog = blogRepository.findById(id);
         if (existingBlog.isPresent()) {
@@ -135,7 +154,7 @@ public class BlogController {
             blog.setIsPublished(true);
             blog.setPublishedAt(LocalDateTime.now());
             Blog updatedBlog = blogRepository.save(blog);
-            return ResponseEntity.ok(convertToDto(updatedBlog));
+            return ResponseEntity.ok(blogDtoConverter.convert(updatedBlog));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -144,13 +163,14 @@ public class BlogController {
     // Hủy xuất bản blog
     @PutMapping("/{id}/unpublish")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<BlogDto> unpublishBlog(@PathVariable Long id) {
         Optional<Blog> existingBlog = blogRepository.findById(id);
         if (existingBlog.isPresent()) {
             Blog blog = existingBlog.get();
             blog.setIsPublished(false);
             Blog updatedBlog = blogRepository.save(blog);
-            return ResponseEntity.ok(convertToDto(updatedBlog));
+            return ResponseEntity.ok(blogDtoConverter.convert(updatedBlog));
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -169,38 +189,20 @@ public class BlogController {
         }
     }
 
-    // Chuyển đổi Blog Entity sang DTO
-    private BlogDto convertToDto(Blog blog) {
-        BlogDto dto = new BlogDto();
-        dto.setId(blog.getId());
-        dto.setTitle(blog.getTitle());
-        dto.setContent(blog.getContent());
-        dto.setFeaturedImage(blog.getFeaturedImage());
-        dto.setIsPublished(blog.getIsPublished());
-        dto.setViewCount(blog.getViewCount());
-        dto.setCreatedAt(blog.getCreatedAt());
-        dto.setPublishedAt(blog.getPublishedAt());
-        
-        if (blog.getAuthor() != null) {
-            dto.setAuthor(new com.skincare.application.dto.UserDto(
-                blog.getAuthor().getId(),
-                blog.getAuthor().getUsername(),
-                blog.getAuthor().getEmail(),
-                blog.getAuthor().getFullName()));
-        }
-        
-        if (blog.getTags() != null) {
-            dto.setTags(blog.getTags().stream()
-                .map(tag -> {
-                    com.skincare.application.dto.TagDto tagDto = new com.skincare.application.dto.TagDto();
-                    tagDto.setId(tag.getId());
-                    tagDto.setName(tag.getName());
-                    return tagDto;
-                })
-                .collect(Collectors.toList()));
+    // Xung đột khi sửa đồng thời: trả về 409 kèm trạng thái hiện tại của bài viết
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        if (Blog.class.getName().equals(e.getPersistentClassName()) && e.getIdentifier() instanceof Long) {
+            Long id = (Long) e.getIdentifier();
+            Optional<BlogDto> current = ReplicaRoutingDataSource.onPrimary(
+                    () -> blogRepository.findById(id).map(blogDtoConverter::convert));
+            if (current.isPresent()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(current.get());
+            }
         }
-        
-        return dto;
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("Error: The blog was changed by someone else, reload and try again"));
     }
 
     // Cập nhật Entity từ DTO
@@ -211,11 +213,14 @@ public class BlogController {
         
         // Xử lý tags nếu có
         if (dto.getTags() != null && !dto.getTags().isEmpty()) {
+            Set<Tag> tags = new HashSet<>();
+            dto.getTags().forEach(tagDto -> tagRepository.findById(tagDto.getId()).ifPresent(tags::add));
+            // Tags nằm ở bảng nối: cập nhật updatedAt để change feed gửi lại bài viết
+            if (!tags.equals(blog.getTags())) {
+                blog.setUpdatedAt(LocalDateTime.now());
+            }
             blog.getTags().clear();
-            dto.getTags().forEach(tagDto -> {
-                Optional<Tag> existingTag = tagRepository.findById(tagDto.getId());
-                existingTag.ifPresent(tag -> blog.getTags().add(tag));
-            });
+            blog.getTags().addAll(tags);
         }
     }
 }
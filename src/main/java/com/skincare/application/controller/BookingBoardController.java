@@ -0,0 +1,24 @@
+package com.skincare.application.controller;
+
+import com.skincare.application.service.board.BookingBoardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/bookings/board")
+public class BookingBoardController {
+    @Autowired
+    private BookingBoardService bookingBoardService;
+
+    // Live booking changes for staff screens: load GET /api/bookings once, then apply these
+    // CREATED, STATUS_CHANGED and ASSIGNED events; reload the list on RESYNC
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return bookingBoardService.subscribe(lastEventId);
+    }
+}
@@ -1,23 +1,41 @@
 
 package com.skincare.application.controller;
 
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
 import com.skincare.application.dto.BookingDetailDto;
 import com.skincare.application.dto.BookingDto;
+import com.skincare.application.dto.MessageResponse;
+import com.skincare.application.dto.converter.BookingDtoConverter;
+import com.skincare.application.exception.BookingArchivedException;
+import com.skincare.application.exception.BookingNotAllowedException;
 import com.skincare.application.exception.ResourceNotFoundException;
+import com.skincare.application.exception.SlotUnavailableException;
 import com.skincare.application.model.*;
 import com.skincare.application.repository.*;
+import com.skincare.application.service.BookingRulesService;
+import com.skincare.application.service.BookingSlotService;
+import com.skincare.application.service.SpecialistAssignmentService;
+import com.skincare.application.service.board.BookingChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -41,44 +59,63 @@ public class BookingController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BookingSlotService bookingSlotService;
+
+    @Autowired
+    private SpecialistAssignmentService specialistAssignmentService;
+
+    @Autowired
+    private BookingRulesService bookingRulesService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingDtoConverter bookingDtoConverter;
+
+    @Value("${booking.assignment.max-attempts:3}")
+    private int assignmentAttempts;
+
     // Get all bookings (for admins and staff)
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public List<BookingDto> getAllBookings(
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) LocalDateTime startDate,
-            @RequestParam(required = false) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         
         List<Booking> bookings;
         
         if (status != null && startDate != null && endDate != null) {
             // Filter by status and date range
-            bookings = bookingRepository.findByStatusAndBookingTimeBetween(
+            bookings = bookingRepository.findBookingsByStatusAndDateRange(
                     Booking.BookingStatus.valueOf(status), startDate, endDate);
         } else if (status != null) {
             // Filter by status only
             bookings = bookingRepository.findByStatus(Booking.BookingStatus.valueOf(status));
         } else if (startDate != null && endDate != null) {
             // Filter by date range only
-            bookings = bookingRepository.findByBookingTimeBetween(startDate, endDate);
+            bookings = bookingRepository.findBookingsBetweenDates(startDate, endDate);
         } else {
             // No filters
             bookings = bookingRepository.findAll();
         }
         
-        return bookings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return bookingDtoConverter.convertAll(bookings);
     }
 
     // Get booking by id
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF', 'SPECIALIST') or @bookingAuthorizationService.isOwner(#id)")
     public ResponseEntity<BookingDto> getBookingById(@PathVariable Long id) {
-        Booking booking = bookingRepository.findById(id)
+        Booking booking = bookingRepository.findSummaryById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
         
-        return ResponseEntity.ok(convertToDto(booking));
+        return ResponseEntity.ok(bookingDtoConverter.convert(booking));
     }
 
     // Get current customer's bookings
@@ -96,9 +133,7 @@ public class BookingController {
         
         List<Booking> bookings = bookingRepository.findByCustomer(customer);
         
-        return bookings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return bookingDtoConverter.convertAll(bookings);
     }
 
     // Get specialist's bookings
@@ -116,15 +151,37 @@ public class BookingController {
         
         List<Booking> bookings = bookingRepository.findBySpecialist(specialist);
         
-        return bookings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return bookingDtoConverter.convertAll(bookings);
     }
 
     // Create booking (customer)
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<BookingDto> createBooking(@Valid @RequestBody BookingDto bookingDto) {
+        bookingRulesService.checkNewBooking(bookingDto.getBookingDateTime(),
+                bookingDto.getBookingDetails() != null ? bookingDto.getBookingDetails().size() : 0);
+
+        // An automatic assignment that lost its specialist to a concurrent booking rolls the whole
+        // booking back; made again, it sees that claim and gets someone else. A specialist the
+        // customer chose is taken, which is answered with 409
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> create(bookingDto));
+            } catch (SlotUnavailableException e) {
+                if (specialistIdOf(bookingDto) != null || attempt >= assignmentAttempts) {
+                    throw e;
+                }
+            } catch (PessimisticLockingFailureException e) {
+                // Claims of overlapping slots can deadlock; the loser is rolled back without a verdict
+                // on the slot, and made again it waits for the winner's commit and gets one
+                if (attempt >= assignmentAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private ResponseEntity<BookingDto> create(BookingDto bookingDto) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         
@@ -136,124 +193,180 @@ public class BookingController {
         
         Booking booking = new Booking();
         booking.setCustomer(customer);
-        booking.setBookingTime(bookingDto.getBookingTime());
+        booking.setBookingDateTime(bookingDto.getBookingDateTime());
         booking.setNotes(bookingDto.getNotes());
         booking.setStatus(Booking.BookingStatus.PENDING);
         
         // Set specialist if provided
-        if (bookingDto.getSpecialistId() != null) {
-            Specialist specialist = specialistRepository.findById(bookingDto.getSpecialistId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Specialist not found with id: " + bookingDto.getSpecialistId()));
+        Long specialistId = specialistIdOf(bookingDto);
+        if (specialistId != null) {
+            Specialist specialist = specialistRepository.findById(specialistId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Specialist not found with id: " + specialistId));
             booking.setSpecialist(specialist);
         }
         
         Booking savedBooking = bookingRepository.save(booking);
         
         // Create booking details for services
+        int durationMinutes = 0;
+        List<Long> serviceIds = new ArrayList<>();
         if (bookingDto.getBookingDetails() != null) {
             for (BookingDetailDto detailDto : bookingDto.getBookingDetails()) {
                 BookingDetail detail = new BookingDetail();
                 detail.setBooking(savedBooking);
                 
-                Service service = serviceRepository.findById(detailDto.getServiceId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + detailDto.getServiceId()));
+                Long serviceId = detailDto.getService() != null ? detailDto.getService().getId() : null;
+                Service service = Optional.ofNullable(serviceId).flatMap(serviceRepository::findById)
+                        .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + serviceId));
                 detail.setService(service);
                 detail.setPrice(service.getPrice());
-                detail.setDuration(service.getDurationMinutes());
                 
                 bookingDetailRepository.save(detail);
+                serviceIds.add(service.getId());
+                durationMinutes += service.getDurationMinutes() != null ? service.getDurationMinutes() : 0;
             }
         }
         
+        // Last write of the transaction: a competing request for the slot only waits for our commit.
+        // Without a specialist the booking gets the first free one who offers its services
+        if (savedBooking.getSpecialist() != null) {
+            bookingSlotService.claim(savedBooking, durationMinutes);
+        } else {
+            specialistAssignmentService.assign(savedBooking, serviceIds, durationMinutes);
+        }
+        
         // Reload booking with details
-        savedBooking = bookingRepository.findById(savedBooking.getId()).orElseThrow();
+        savedBooking = bookingRepository.findSummaryById(savedBooking.getId()).orElseThrow();
+        eventPublisher.publishEvent(BookingChangedEvent.of(BookingChangedEvent.Change.CREATED, savedBooking));
         
-        return ResponseEntity.ok(convertToDto(savedBooking));
+        return ResponseEntity.ok(bookingDtoConverter.convert(savedBooking));
     }
 
     // Update booking status (staff, specialist)
     @PutMapping("/{id}/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF', 'SPECIALIST')")
+    @Transactional
     public ResponseEntity<BookingDto> updateBookingStatus(
             @PathVariable Long id,
-            @RequestParam Booking.BookingStatus status) {
+            @RequestParam Booking.BookingStatus status,
+            @RequestParam(required = false) Long version) {
         
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
+        Booking booking = findForChange(id);
+        checkVersion(booking, version);
         
+        boolean wasCancelled = booking.getStatus() == Booking.BookingStatus.CANCELLED;
         booking.setStatus(status);
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = bookingRepository.saveAndFlush(booking);
         
-        return ResponseEntity.ok(convertToDto(updatedBooking));
+        // A cancelled booking gives its slots back; reopening it has to win them again
+        if (status == Booking.BookingStatus.CANCELLED && !wasCancelled) {
+            bookingSlotService.release(id);
+        } else if (wasCancelled && status != Booking.BookingStatus.CANCELLED) {
+            bookingSlotService.claim(updatedBooking, durationOf(updatedBooking));
+        }
+        eventPublisher.publishEvent(BookingChangedEvent.of(BookingChangedEvent.Change.STATUS_CHANGED, updatedBooking));
+        
+        return ResponseEntity.ok(bookingDtoConverter.convert(updatedBooking));
     }
 
     // Assign specialist to booking (staff, admin)
     @PutMapping("/{id}/assign-specialist")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    @Transactional
     public ResponseEntity<BookingDto> assignSpecialist(
             @PathVariable Long id,
-            @RequestParam Long specialistId) {
+            @RequestParam Long specialistId,
+            @RequestParam(required = false) Long version) {
         
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
+        Booking booking = findForChange(id);
+        checkVersion(booking, version);
         
         Specialist specialist = specialistRepository.findById(specialistId)
                 .orElseThrow(() -> new ResourceNotFoundException("Specialist not found with id: " + specialistId));
         
         booking.setSpecialist(specialist);
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = bookingRepository.saveAndFlush(booking);
+        
+        // Move the slots to the new specialist's calendar
+        bookingSlotService.release(id);
+        if (updatedBooking.getStatus() != Booking.BookingStatus.CANCELLED) {
+            bookingSlotService.claim(updatedBooking, durationOf(updatedBooking));
+        }
+        eventPublisher.publishEvent(BookingChangedEvent.of(BookingChangedEvent.Change.ASSIGNED, updatedBooking));
         
-        return ResponseEntity.ok(convertToDto(updatedBooking));
+        return ResponseEntity.ok(bookingDtoConverter.convert(updatedBooking));
     }
 
     // Cancel booking (customer, staff, admin)
     @PutMapping("/{id}/cancel")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF') or @bookingAuthorizationService.isOwner(#id)")
-    public ResponseEntity<BookingDto> cancelBooking(@PathVariable Long id) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
+    @Transactional
+    public ResponseEntity<BookingDto> cancelBooking(@PathVariable Long id,
+                                                    @RequestParam(required = false) Long version) {
+        Booking booking = findForChange(id);
+        checkVersion(booking, version);
         
         booking.setStatus(Booking.BookingStatus.CANCELLED);
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = bookingRepository.saveAndFlush(booking);
+        bookingSlotService.release(id);
+        eventPublisher.publishEvent(BookingChangedEvent.of(BookingChangedEvent.Change.STATUS_CHANGED, updatedBooking));
         
-        return ResponseEntity.ok(convertToDto(updatedBooking));
+        return ResponseEntity.ok(bookingDtoConverter.convert(updatedBooking));
     }
 
-    // Convert entity to DTO
-    private BookingDto convertToDto(Booking booking) {
-        BookingDto dto = new BookingDto();
-        dto.setId(booking.getId());
-        dto.setCustomerId(booking.getCustomer().getId());
-        dto.setCustomerName(booking.getCustomer().getUser().getFullName());
-        
-        if (booking.getSpecialist() != null) {
-            dto.setSpecialistId(booking.getSpecialist().getId());
-            dto.setSpecialistName(booking.getSpecialist().getUser().getFullName());
-        }
-        
-        dto.setBookingTime(booking.getBookingTime());
-        dto.setStatus(booking.getStatus());
-        dto.setNotes(booking.getNotes());
-        dto.setCreatedAt(booking.getCreatedAt());
-        
-        // Convert booking details
-        List<BookingDetail> details = bookingDetailRepository.findByBooking(booking);
-        if (!details.isEmpty()) {
-            List<BookingDetailDto> detailDtos = new ArrayList<>();
-            for (BookingDetail detail : details) {
-                BookingDetailDto detailDto = new BookingDetailDto();
-                detailDto.setId(detail.getId());
-                detailDto.setBookingId(detail.getBooking().getId());
-                detailDto.setServiceId(detail.getService().getId());
-                detailDto.setServiceName(detail.getService().getName());
-                detailDto.setPrice(detail.getPrice());
-                detailDto.setDuration(detail.getDuration());
-                detailDto.setNotes(detail.getNotes());
-                detailDtos.add(detailDto);
+    // Another edit was saved first, before the version the client read or during this request.
+    // Answer with the state that won, so the client can reapply its change on top of it.
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        if (Booking.class.getName().equals(e.getPersistentClassName()) && e.getIdentifier() instanceof Long) {
+            Long id = (Long) e.getIdentifier();
+            Optional<BookingDto> current = ReplicaRoutingDataSource.onPrimary(
+                    () -> bookingRepository.findSummaryById(id).map(bookingDtoConverter::convert));
+            if (current.isPresent()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(current.get());
             }
-            dto.setBookingDetails(detailDtos);
         }
-        
-        return dto;
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("Error: The booking was changed by someone else, reload and try again"));
+    }
+
+    // The customer can fix the request, so they get the rule it broke
+    @ExceptionHandler(BookingNotAllowedException.class)
+    public ResponseEntity<MessageResponse> handleBookingNotAllowed(BookingNotAllowedException e) {
+        return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+    }
+
+    // The specialist the customer chose, if any; of the nested DTO only the id is read
+    private static Long specialistIdOf(BookingDto bookingDto) {
+        return bookingDto.getSpecialist() != null ? bookingDto.getSpecialist().getId() : null;
+    }
+
+    // Minutes the booked services take, which decides how many slots the booking holds
+    private int durationOf(Booking booking) {
+        return booking.getBookingDetails().stream()
+                .map(detail -> detail.getService().getDurationMinutes())
+                .filter(minutes -> minutes != null)
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    // Archived bookings are closed history, read from the archive tables; they cannot be changed
+    private Booking findForChange(Long id) {
+        Optional<Booking> booking = bookingRepository.findWithSummaryById(id);
+        if (booking.isPresent()) {
+            return booking.get();
+        }
+        if (bookingRepository.isArchived(id)) {
+            throw new BookingArchivedException("Booking " + id + " is archived and can no longer be changed");
+        }
+        throw new ResourceNotFoundException("Booking not found with id: " + id);
+    }
+
+    // The client edited an older version than the stored one; without a version the last write wins
+    private void checkVersion(Booking booking, Long version) {
+        if (version != null && !version.equals(booking.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Booking.class, booking.getId());
+        }
     }
 }
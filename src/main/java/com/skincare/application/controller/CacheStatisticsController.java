@@ -0,0 +1,61 @@
+package com.skincare.application.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatisticsController {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Hibernate second-level and query cache hit/miss counts since startup
+    @GetMapping("/statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelCache", counts(
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", counts(
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+        
+        Map<String, Object> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                Map<String, Object> regionCounts = counts(region.getHitCount(), region.getMissCount(), region.getPutCount());
+                regionCounts.put("elementsInMemory", region.getElementCountInMemory());
+                regions.put(regionName, regionCounts);
+            }
+        }
+        result.put("regions", regions);
+        
+        return result;
+    }
+
+    private Map<String, Object> counts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        long lookups = hits + misses;
+        counts.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return counts;
+    }
+}
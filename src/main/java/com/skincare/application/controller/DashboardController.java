@@ -0,0 +1,22 @@
+package com.skincare.application.controller;
+
+import com.skincare.application.dto.DashboardSummaryDto;
+import com.skincare.application.service.dashboard.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+    @Autowired
+    private DashboardService dashboardService;
+
+    // Everything the admin overview shows, for bookings of the last day, week, month or year
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public DashboardSummaryDto getSummary(@RequestParam(defaultValue = "WEEK") DashboardService.Window window) {
+        return dashboardService.getSummary(window);
+    }
+}
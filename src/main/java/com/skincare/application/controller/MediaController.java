@@ -0,0 +1,200 @@
+package com.skincare.application.controller;
+
+import com.skincare.application.exception.UnsupportedMediaException;
+import com.skincare.application.service.media.ImageType;
+import com.skincare.application.service.media.MediaStorageService;
+import com.skincare.application.service.media.StoredMedia;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@RestController
+public class MediaController {
+    // Content-addressed files never change, so clients may keep them for a year
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String MUTABLE_CACHE_CONTROL = "public, max-age=86400";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private static final String NOSNIFF_HEADER = "X-Content-Type-Options";
+
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    // Upload an image for blog featuredImage, service imageUrl, etc.
+    @PostMapping(value = "/api/media", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<?> uploadMedia(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please select a file to upload");
+        }
+        
+        try {
+            StoredMedia media = mediaStorageService.store(file);
+            return ResponseEntity.ok(media);
+        } catch (UnsupportedMediaException e) {
+            return ResponseEntity.status(415).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Failed to upload file: " + e.getMessage());
+        }
+    }
+
+    // Serve stored files with ETag, Range and long-lived caching
+    @GetMapping(MediaStorageService.URL_PREFIX + "**")
+    public void serveMedia(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relativePath = UriUtils.decode(
+                request.getRequestURI().substring(request.getContextPath().length() + MediaStorageService.URL_PREFIX.length()),
+                StandardCharsets.UTF_8);
+        
+        Path file = mediaStorageService.resolve(relativePath);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String hash = mediaStorageService.contentHashOf(file);
+        String etag = hash != null ? "\"" + hash + "\"" : "W/\"" + length + "-" + lastModified + "\"";
+        
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, hash != null ? IMMUTABLE_CACHE_CONTROL : MUTABLE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        // Images go out as the type they were stored as, and the browser must not sniff another one;
+        // anything else under the upload directory is only ever downloaded, never rendered
+        ImageType imageType = mediaStorageService.imageTypeOf(file);
+        response.setHeader(NOSNIFF_HEADER, "nosniff");
+        if (imageType != null) {
+            response.setContentType(imageType.getContentType());
+        } else {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().build().toString());
+        }
+        
+        // Honour Range only when If-Range is absent or still names this representation
+        long start = 0;
+        long count = length;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.equals(etag)) {
+            long[] range = parseRange(request.getHeader(HttpHeaders.RANGE), length);
+            if (range == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (range != null) {
+                start = range[0];
+                count = range[1] - range[0] + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + length);
+            }
+        }
+        
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        
+        // Let Tomcat hand the file to the kernel (sendfile) when the connector supports it
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns {first, last} for a single satisfiable byte range, null to send the whole file
+    private static long[] parseRange(String header, long length) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the final N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[] {Math.max(0, length - suffix), length - 1};
+            }
+            
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            if (end < start) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
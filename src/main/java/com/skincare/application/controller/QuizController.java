@@ -5,20 +5,26 @@ import com.skincare.application.dto.CustomerQuizResultDto;
 import com.skincare.application.dto.QuizOptionDto;
 import com.skincare.application.dto.QuizQuestionDto;
 import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.dto.ServiceRecommendationDto;
 import com.skincare.application.exception.ResourceNotFoundException;
 import com.skincare.application.model.*;
 import com.skincare.application.repository.*;
+import com.skincare.application.service.quiz.QuizCatalogService;
+import com.skincare.application.service.quiz.QuizRecommendationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -44,19 +50,28 @@ public class QuizController {
     @Autowired
     private ServiceRepository serviceRepository;
 
+    @Autowired
+    private QuizRecommendationService recommendationService;
+
+    @Autowired
+    private QuizCatalogService catalogService;
+
     // Get all active quiz questions
     @GetMapping("/questions")
     public List<QuizQuestionDto> getAllActiveQuestions() {
-        List<QuizQuestion> questions = questionRepository.findByIsActiveTrue();
-        return questions.stream()
-                .map(this::convertQuestionToDto)
-                .collect(Collectors.toList());
+        return catalogService.getActiveQuestions();
     }
 
     // Get quiz question by id
     @GetMapping("/questions/{id}")
     public ResponseEntity<QuizQuestionDto> getQuestionById(@PathVariable Long id) {
-        QuizQuestion question = questionRepository.findById(id)
+        // Active questions are served from the cached snapshot
+        QuizQuestionDto cached = catalogService.getActiveQuestion(id);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+        
+        QuizQuestion question = questionRepository.findWithRecommendedServicesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + id));
         
         return ResponseEntity.ok(convertQuestionToDto(question));
@@ -65,6 +80,7 @@ public class QuizController {
     // Create quiz question (admin only)
     @PostMapping("/questions")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<QuizQuestionDto> createQuestion(@Valid @RequestBody QuizQuestionDto questionDto) {
         QuizQuestion question = new QuizQuestion();
         question.setQuestion(questionDto.getQuestion());
@@ -85,12 +101,14 @@ public class QuizController {
             savedQuestion = questionRepository.save(savedQuestion);
         }
         
+        catalogService.invalidate();
         return ResponseEntity.ok(convertQuestionToDto(savedQuestion));
     }
 
     // Update quiz question
     @PutMapping("/questions/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<QuizQuestionDto> updateQuestion(@PathVariable Long id, @Valid @RequestBody QuizQuestionDto questionDto) {
         QuizQuestion question = questionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + id));
@@ -111,12 +129,14 @@ public class QuizController {
         }
         
         QuizQuestion updatedQuestion = questionRepository.save(question);
+        catalogService.invalidate();
         return ResponseEntity.ok(convertQuestionToDto(updatedQuestion));
     }
 
     // Add option to question
     @PostMapping("/questions/{questionId}/options")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<QuizOptionDto> addOptionToQuestion(
             @PathVariable Long questionId,
             @Valid @RequestBody QuizOptionDto optionDto) {
@@ -139,13 +159,21 @@ public class QuizController {
             option.setRecommendedServices(services);
         }
         
+        if (optionDto.getServiceWeights() != null) {
+            option.setServiceWeights(new HashMap<>(optionDto.getServiceWeights()));
+        }
+        
         QuizOption savedOption = optionRepository.save(option);
+        catalogService.invalidate();
         return ResponseEntity.ok(convertOptionToDto(savedOption));
     }
 
     // Submit quiz answers
     @PostMapping("/submit")
-    public ResponseEntity<?> submitQuizAnswers(@Valid @RequestBody List<CustomerQuizResultDto> resultsDto) {
+    @Transactional
+    public ResponseEntity<List<ServiceRecommendationDto>> submitQuizAnswers(
+            @Valid @RequestBody List<CustomerQuizResultDto> resultsDto,
+            @RequestParam(defaultValue = "10") int limit) {
         List<CustomerQuizResult> savedResults = new ArrayList<>();
         
         // Get current customer if authenticated
@@ -160,17 +188,20 @@ public class QuizController {
         
         // Process each answer
         for (CustomerQuizResultDto resultDto : resultsDto) {
-            QuizQuestion question = questionRepository.findById(resultDto.getQuestionId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + resultDto.getQuestionId()));
+            // Answers name their question and option by id; the rest of the nested DTOs is ignored
+            Long questionId = resultDto.getQuestion() != null ? resultDto.getQuestion().getId() : null;
+            QuizQuestion question = Optional.ofNullable(questionId).flatMap(questionRepository::findById)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
             
             CustomerQuizResult result = new CustomerQuizResult();
             result.setCustomer(customer);
             result.setQuestion(question);
             
             // For option-based questions
-            if (resultDto.getOptionId() != null) {
-                QuizOption option = optionRepository.findById(resultDto.getOptionId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Option not found with id: " + resultDto.getOptionId()));
+            Long optionId = resultDto.getSelectedOption() != null ? resultDto.getSelectedOption().getId() : null;
+            if (optionId != null) {
+                QuizOption option = optionRepository.findById(optionId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Option not found with id: " + optionId));
                 result.setSelectedOption(option);
             }
             
@@ -182,37 +213,8 @@ public class QuizController {
             savedResults.add(resultRepository.save(result));
         }
         
-        // Generate service recommendations based on answers
-        Set<Service> recommendedServices = new HashSet<>();
-        
-        for (CustomerQuizResult result : savedResults) {
-            // Add services recommended by the question
-            if (result.getQuestion().getRecommendedServices() != null) {
-                recommendedServices.addAll(result.getQuestion().getRecommendedServices());
-            }
-            
-            // Add services recommended by the selected option
-            if (result.getSelectedOption() != null && result.getSelectedOption().getRecommendedServices() != null) {
-                recommendedServices.addAll(result.getSelectedOption().getRecommendedServices());
-            }
-        }
-        
-        // Convert to DTOs
-        List<ServiceDto> recommendationDtos = recommendedServices.stream()
-                .map(service -> {
-                    ServiceDto dto = new ServiceDto();
-                    dto.setId(service.getId());
-                    dto.setName(service.getName());
-                    dto.setDescription(service.getDescription());
-                    dto.setPrice(service.getPrice());
-                    dto.setDurationMinutes(service.getDurationMinutes());
-                    dto.setIsActive(service.getIsActive());
-                    dto.setImageUrl(service.getImageUrl());
-                    return dto;
-                })
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(recommendationDtos);
+        // Rank recommended services by their summed weights over all answers
+        return ResponseEntity.ok(recommendationService.recommend(savedResults, limit));
     }
 
     // Get customer's quiz results
@@ -277,6 +279,7 @@ public class QuizController {
         dto.setId(option.getId());
         dto.setQuestionId(option.getQuestion().getId());
         dto.setOptionText(option.getOptionText());
+        dto.setServiceWeights(option.getServiceWeights());
         
         // Convert recommended services
         if (option.getRecommendedServices() != null) {
@@ -303,8 +306,17 @@ public class QuizController {
         CustomerQuizResultDto dto = new CustomerQuizResultDto();
         dto.setId(result.getId());
         dto.setCustomerId(result.getCustomer() != null ? result.getCustomer().getId() : null);
-        dto.setQuestionId(result.getQuestion().getId());
-        dto.setOptionId(result.getSelectedOption() != null ? result.getSelectedOption().getId() : null);
+        QuizQuestionDto question = new QuizQuestionDto();
+        question.setId(result.getQuestion().getId());
+        question.setQuestion(result.getQuestion().getQuestion());
+        dto.setQuestion(question);
+        if (result.getSelectedOption() != null) {
+            QuizOptionDto option = new QuizOptionDto();
+            option.setId(result.getSelectedOption().getId());
+            option.setQuestionId(result.getQuestion().getId());
+            option.setOptionText(result.getSelectedOption().getOptionText());
+            dto.setSelectedOption(option);
+        }
         dto.setTextAnswer(result.getTextAnswer());
         return dto;
     }
@@ -1,6 +1,8 @@
 
 package com.skincare.application.controller;
 
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
+import com.skincare.application.dto.MessageResponse;
 import com.skincare.application.dto.ReviewDto;
 import com.skincare.application.exception.ResourceNotFoundException;
 import com.skincare.application.model.Booking;
@@ -8,15 +10,19 @@ import com.skincare.application.model.Review;
 import com.skincare.application.model.Specialist;
 import com.skincare.application.repository.BookingRepository;
 import com.skincare.application.repository.ReviewRepository;
-import com.skincare.application.repository.SpecialistRepository;
+import com.skincare.application.service.SpecialistRatingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -30,7 +36,7 @@ public class ReviewController {
     private BookingRepository bookingRepository;
 
     @Autowired
-    private SpecialistRepository specialistRepository;
+    private SpecialistRatingService specialistRatingService;
 
     // Get all reviews
     @GetMapping
@@ -101,22 +107,20 @@ public class ReviewController {
     // Approve review (admin only)
     @PutMapping("/{id}/approve")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ReviewDto> approveReview(@PathVariable Long id) {
+    @Transactional
+    public ResponseEntity<ReviewDto> approveReview(@PathVariable Long id,
+                                                   @RequestParam(required = false) Long version) {
         Review review = reviewRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + id));
+        checkVersion(review, version);
         
         review.setIsApproved(true);
-        Review updatedReview = reviewRepository.save(review);
+        Review updatedReview = reviewRepository.saveAndFlush(review);
         
-        // Update specialist rating
+        // Update specialist rating once the approval is committed
         Specialist specialist = updatedReview.getBooking().getSpecialist();
         if (specialist != null) {
-            Double avgRating = reviewRepository.calculateAverageRatingForSpecialist(specialist.getId());
-            Long reviewCount = reviewRepository.countReviewsForSpecialist(specialist.getId());
-            
-            specialist.setRatingAverage(avgRating);
-            specialist.setRatingCount(reviewCount.intValue());
-            specialistRepository.save(specialist);
+            specialistRatingService.refresh(specialist.getId());
         }
         
         return ResponseEntity.ok(convertToDto(updatedReview));
@@ -125,19 +129,44 @@ public class ReviewController {
     // Add admin response to review
     @PutMapping("/{id}/respond")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<ReviewDto> respondToReview(
             @PathVariable Long id,
-            @RequestParam String response) {
+            @RequestParam String response,
+            @RequestParam(required = false) Long version) {
         
         Review review = reviewRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + id));
+        checkVersion(review, version);
         
         review.setAdminResponse(response);
-        Review updatedReview = reviewRepository.save(review);
+        Review updatedReview = reviewRepository.saveAndFlush(review);
         
         return ResponseEntity.ok(convertToDto(updatedReview));
     }
 
+    // Another moderator saved first: answer with the review as it is now
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        if (Review.class.getName().equals(e.getPersistentClassName()) && e.getIdentifier() instanceof Long) {
+            Long id = (Long) e.getIdentifier();
+            Optional<ReviewDto> current = ReplicaRoutingDataSource.onPrimary(
+                    () -> reviewRepository.findById(id).map(this::convertToDto));
+            if (current.isPresent()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(current.get());
+            }
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("Error: The review was changed by someone else, reload and try again"));
+    }
+
+    private void checkVersion(Review review, Long version) {
+        if (version != null && !version.equals(review.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Review.class, review.getId());
+        }
+    }
+
     // Convert entity to DTO
     private ReviewDto convertToDto(Review review) {
         ReviewDto dto = new ReviewDto();
@@ -148,6 +177,7 @@ public class ReviewController {
         dto.setIsApproved(review.getIsApproved());
         dto.setAdminResponse(review.getAdminResponse());
         dto.setCreatedAt(review.getCreatedAt());
+        dto.setVersion(review.getVersion());
         return dto;
     }
 }
@@ -7,12 +7,15 @@ import com.skincare.application.model.Category;
 import com.skincare.application.model.Service;
 import com.skincare.application.repository.CategoryRepository;
 import com.skincare.application.repository.ServiceRepository;
+import com.skincare.application.service.quiz.QuizCatalogService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -28,8 +31,12 @@ public class ServiceController {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private QuizCatalogService quizCatalogService;
+
     // Get all services
     @GetMapping
+    @Transactional(readOnly = true)
     public List<ServiceDto> getAllServices(@RequestParam(required = false) Boolean active) {
         List<Service> services;
         if (active != null && active) {
@@ -45,6 +52,7 @@ public class ServiceController {
 
     // Get service by id
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<ServiceDto> getServiceById(@PathVariable Long id) {
         Service service = serviceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + id));
@@ -66,6 +74,7 @@ public class ServiceController {
     // Update service
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<ServiceDto> updateService(@PathVariable Long id, @Valid @RequestBody ServiceDto serviceDto) {
         Service service = serviceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + id));
@@ -73,6 +82,9 @@ public class ServiceController {
         updateServiceFromDto(service, serviceDto);
         Service updatedService = serviceRepository.save(service);
         
+        // Quiz questions embed service details
+        quizCatalogService.invalidate();
+        
         return ResponseEntity.ok(convertToDto(updatedService));
     }
 
@@ -86,12 +98,14 @@ public class ServiceController {
         // Instead of deleting, mark as inactive
         service.setIsActive(false);
         serviceRepository.save(service);
+        quizCatalogService.invalidate();
         
         return ResponseEntity.ok().build();
     }
 
     // Get services by category
     @GetMapping("/category/{categoryId}")
+    @Transactional(readOnly = true)
     public List<ServiceDto> getServicesByCategory(@PathVariable Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
@@ -105,6 +119,7 @@ public class ServiceController {
 
     // Get services by specialist
     @GetMapping("/specialist/{specialistId}")
+    @Transactional(readOnly = true)
     public List<ServiceDto> getServicesBySpecialist(@PathVariable Long specialistId) {
         List<Service> services = serviceRepository.findAllBySpecialistId(specialistId);
         
@@ -157,6 +172,10 @@ public class ServiceController {
                         .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryDto.getId()));
                 categories.add(category);
             }
+            // Category links live in the join table; touch the service so the change feed sends it again
+            if (!categories.equals(service.getCategories())) {
+                service.setUpdatedAt(LocalDateTime.now());
+            }
             service.setCategories(categories);
         }
     }
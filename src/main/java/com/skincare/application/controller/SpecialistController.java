@@ -1,8 +1,11 @@
 
 package com.skincare.application.controller;
 
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
+import com.skincare.application.dto.MessageResponse;
 import com.skincare.application.dto.SpecialistDto;
 import com.skincare.application.dto.SpecialistScheduleDto;
+import com.skincare.application.dto.converter.SpecialistDtoConverter;
 import com.skincare.application.exception.ResourceNotFoundException;
 import com.skincare.application.model.Service;
 import com.skincare.application.model.Specialist;
@@ -13,14 +16,19 @@ import com.skincare.application.repository.SpecialistRepository;
 import com.skincare.application.repository.SpecialistScheduleRepository;
 import com.skincare.application.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.time.DayOfWeek;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -40,22 +48,25 @@ public class SpecialistController {
     @Autowired
     private SpecialistScheduleRepository scheduleRepository;
 
+    @Autowired
+    private SpecialistDtoConverter specialistDtoConverter;
+
     // Get all specialists
     @GetMapping
     public List<SpecialistDto> getAllSpecialists() {
         List<Specialist> specialists = specialistRepository.findAll();
         return specialists.stream()
-                .map(this::convertToDto)
+                .map(specialistDtoConverter::convert)
                 .collect(Collectors.toList());
     }
 
     // Get specialist by id
     @GetMapping("/{id}")
     public ResponseEntity<SpecialistDto> getSpecialistById(@PathVariable Long id) {
-        Specialist specialist = specialistRepository.findById(id)
+        Specialist specialist = specialistRepository.findProfileById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Specialist not found with id: " + id));
         
-        return ResponseEntity.ok(convertToDto(specialist));
+        return ResponseEntity.ok(specialistDtoConverter.convert(specialist));
     }
 
     // Create specialist profile (for users with ROLE_SPECIALIST)
@@ -70,20 +81,24 @@ public class SpecialistController {
         updateSpecialistFromDto(specialist, specialistDto);
         
         Specialist savedSpecialist = specialistRepository.save(specialist);
-        return ResponseEntity.ok(convertToDto(savedSpecialist));
+        return ResponseEntity.ok(specialistDtoConverter.convert(savedSpecialist));
     }
 
     // Update specialist
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SPECIALIST')")
+    @Transactional
     public ResponseEntity<SpecialistDto> updateSpecialist(@PathVariable Long id, @Valid @RequestBody SpecialistDto specialistDto) {
         Specialist specialist = specialistRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Specialist not found with id: " + id));
+        if (specialistDto.getVersion() != null && !specialistDto.getVersion().equals(specialist.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Specialist.class, id);
+        }
         
         updateSpecialistFromDto(specialist, specialistDto);
-        Specialist updatedSpecialist = specialistRepository.save(specialist);
+        Specialist updatedSpecialist = specialistRepository.saveAndFlush(specialist);
         
-        return ResponseEntity.ok(convertToDto(updatedSpecialist));
+        return ResponseEntity.ok(specialistDtoConverter.convert(updatedSpecialist));
     }
 
     // Get specialists by service
@@ -92,7 +107,7 @@ public class SpecialistController {
         List<Specialist> specialists = specialistRepository.findAllByServiceId(serviceId);
         
         return specialists.stream()
-                .map(this::convertToDto)
+                .map(specialistDtoConverter::convert)
                 .collect(Collectors.toList());
     }
 
@@ -102,7 +117,7 @@ public class SpecialistController {
         List<Specialist> specialists = specialistRepository.findAllWithMinimumRating(minRating);
         
         return specialists.stream()
-                .map(this::convertToDto)
+                .map(specialistDtoConverter::convert)
                 .collect(Collectors.toList());
     }
 
@@ -165,45 +180,20 @@ public class SpecialistController {
     }
 
     // Convert entity to DTO
-    private SpecialistDto convertToDto(Specialist specialist) {
-        SpecialistDto dto = new SpecialistDto();
-        dto.setId(specialist.getId());
-        
-        // Set user data
-        com.skincare.application.dto.UserDto userDto = new com.skincare.application.dto.UserDto();
-        userDto.setId(specialist.getUser().getId());
-        userDto.setUsername(specialist.getUser().getUsername());
-        userDto.setEmail(specialist.getUser().getEmail());
-        userDto.setFullName(specialist.getUser().getFullName());
-        userDto.setPhoneNumber(specialist.getUser().getPhoneNumber());
-        userDto.setAddress(specialist.getUser().getAddress());
-        dto.setUser(userDto);
-        
-        dto.setSpecialization(specialist.getSpecialization());
-        dto.setBio(specialist.getBio());
-        dto.setExperience(specialist.getExperience());
-        dto.setCertifications(specialist.getCertifications());
-        dto.setRatingAverage(specialist.getRatingAverage());
-        dto.setRatingCount(specialist.getRatingCount());
-        
-        // Convert services
-        if (specialist.getServices() != null) {
-            dto.setServices(specialist.getServices().stream()
-                    .map(service -> {
-                        com.skincare.application.dto.ServiceDto serviceDto = new com.skincare.application.dto.ServiceDto();
-                        serviceDto.setId(service.getId());
-                        serviceDto.setName(service.getName());
-                        serviceDto.setDescription(service.getDescription());
-                        serviceDto.setPrice(service.getPrice());
-                        serviceDto.setDurationMinutes(service.getDurationMinutes());
-                        serviceDto.setIsActive(service.getIsActive());
-                        serviceDto.setImageUrl(service.getImageUrl());
-                        return serviceDto;
-                    })
-                    .collect(Collectors.toList()));
+    // The profile was saved by someone else first: answer with the profile as it is now
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> handleConcurrentUpdate(ObjectOptimisticLockingFailureException e) {
+        if (Specialist.class.getName().equals(e.getPersistentClassName()) && e.getIdentifier() instanceof Long) {
+            Long id = (Long) e.getIdentifier();
+            Optional<SpecialistDto> current = ReplicaRoutingDataSource.onPrimary(
+                    () -> specialistRepository.findById(id).map(specialistDtoConverter::convert));
+            if (current.isPresent()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(current.get());
+            }
         }
-        
-        return dto;
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("Error: The specialist was changed by someone else, reload and try again"));
     }
 
     // Update entity from DTO
@@ -221,6 +211,10 @@ public class SpecialistController {
                         .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + serviceDto.getId()));
                 services.add(service);
             }
+            // Service links live in the join table; touch the profile so the change feed sends it again
+            if (!services.equals(specialist.getServices())) {
+                specialist.setUpdatedAt(LocalDateTime.now());
+            }
             specialist.setServices(services);
         }
     }
@@ -0,0 +1,136 @@
+package com.skincare.application.controller;
+
+import com.skincare.application.dto.*;
+import com.skincare.application.model.Blog;
+import com.skincare.application.model.Category;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.Specialist;
+import com.skincare.application.service.sync.ChangeFeed;
+import com.skincare.application.service.sync.ChangeFeedService;
+import com.skincare.application.service.sync.SyncCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.stream.Collectors;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    // Changes to services, specialists, categories and blogs since the cursor of the last call,
+    // or everything without one. Clients call again with the new cursor while hasMore is set;
+    // 410 means the cursor is too old and the client has to start over without one.
+    @GetMapping
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "200") int limit) {
+        SyncCursor from = null;
+        if (cursor != null) {
+            try {
+                from = SyncCursor.parse(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid sync cursor"));
+            }
+        }
+
+        ChangeFeed feed = changeFeedService.changesSince(from, limit);
+
+        SyncChangesDto dto = new SyncChangesDto();
+        dto.setServices(feed.getServices().stream().map(this::convertServiceToDto).collect(Collectors.toList()));
+        dto.setSpecialists(feed.getSpecialists().stream().map(this::convertSpecialistToDto).collect(Collectors.toList()));
+        dto.setCategories(feed.getCategories().stream().map(this::convertCategoryToDto).collect(Collectors.toList()));
+        dto.setBlogs(feed.getBlogs().stream().map(this::convertBlogToDto).collect(Collectors.toList()));
+        dto.setDeleted(feed.getDeletions().stream()
+                .map(deletion -> new SyncDeletionDto(deletion.getType(), deletion.getId()))
+                .collect(Collectors.toList()));
+        dto.setCursor(feed.getNext().encode());
+        dto.setHasMore(feed.isHasMore());
+        return ResponseEntity.ok(dto);
+    }
+
+    private ServiceDto convertServiceToDto(Service service) {
+        ServiceDto dto = new ServiceDto();
+        dto.setId(service.getId());
+        dto.setName(service.getName());
+        dto.setDescription(service.getDescription());
+        dto.setPrice(service.getPrice());
+        dto.setDurationMinutes(service.getDurationMinutes());
+        dto.setIsActive(service.getIsActive());
+        dto.setImageUrl(service.getImageUrl());
+        dto.setCategories(service.getCategories().stream()
+                .map(this::convertCategoryToDto)
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    private SpecialistDto convertSpecialistToDto(Specialist specialist) {
+        SpecialistDto dto = new SpecialistDto();
+        dto.setId(specialist.getId());
+
+        UserDto userDto = new UserDto();
+        userDto.setId(specialist.getUser().getId());
+        userDto.setFullName(specialist.getUser().getFullName());
+        dto.setUser(userDto);
+
+        dto.setSpecialization(specialist.getSpecialization());
+        dto.setBio(specialist.getBio());
+        dto.setExperience(specialist.getExperience());
+        dto.setCertifications(specialist.getCertifications());
+        dto.setRatingAverage(specialist.getRatingAverage());
+        dto.setRatingCount(specialist.getRatingCount());
+        dto.setVersion(specialist.getVersion());
+
+        // Services are synced on their own; only the ids are needed to link them
+        dto.setServices(specialist.getServices().stream()
+                .map(service -> {
+                    ServiceDto serviceDto = new ServiceDto();
+                    serviceDto.setId(service.getId());
+                    return serviceDto;
+                })
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    private CategoryDto convertCategoryToDto(Category category) {
+        CategoryDto dto = new CategoryDto();
+        dto.setId(category.getId());
+        dto.setName(category.getName());
+        dto.setDescription(category.getDescription());
+        return dto;
+    }
+
+    private BlogDto convertBlogToDto(Blog blog) {
+        BlogDto dto = new BlogDto();
+        dto.setId(blog.getId());
+        dto.setTitle(blog.getTitle());
+        dto.setContent(blog.getContent());
+        dto.setFeaturedImage(blog.getFeaturedImage());
+        dto.setIsPublished(blog.getIsPublished());
+        dto.setViewCount(blog.getViewCount());
+        dto.setCreatedAt(blog.getCreatedAt());
+        dto.setPublishedAt(blog.getPublishedAt());
+        dto.setVersion(blog.getVersion());
+
+        if (blog.getAuthor() != null) {
+            UserDto author = new UserDto();
+            author.setId(blog.getAuthor().getId());
+            author.setFullName(blog.getAuthor().getFullName());
+            dto.setAuthor(author);
+        }
+
+        dto.setTags(blog.getTags().stream()
+                .map(tag -> {
+                    TagDto tagDto = new TagDto();
+                    tagDto.setId(tag.getId());
+                    tagDto.setName(tag.getName());
+                    return tagDto;
+                })
+                .collect(Collectors.toList()));
+        return dto;
+    }
+}
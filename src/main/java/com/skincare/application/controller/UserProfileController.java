@@ -4,9 +4,14 @@ package com.skincare.application.controller;
 import com.skincare.application.dto.PasswordChangeRequest;
 import com.skincare.application.dto.ProfileUpdateRequest;
 import com.skincare.application.dto.UserDto;
+import com.skincare.application.exception.UnsupportedMediaException;
 import com.skincare.application.model.User;
+import com.skincare.application.repository.BlogRepository;
+import com.skincare.application.repository.SpecialistRepository;
 import com.skincare.application.repository.UserRepository;
 import com.skincare.application.security.services.UserDetailsImpl;
+import com.skincare.application.service.media.MediaStorageService;
+import com.skincare.application.service.media.StoredMedia;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,15 +22,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,8 +36,17 @@ public class UserProfileController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private SpecialistRepository specialistRepository;
+    
+    @Autowired
+    private BlogRepository blogRepository;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private MediaStorageService mediaStorageService;
 
     @GetMapping("/profile")
     public ResponseEntity<?> getUserProfile() {
@@ -70,6 +80,8 @@ public class UserProfileController {
         }
         
         // Update user profile
+        boolean nameChanged = profileUpdateRequest.getFullName() != null
+                && !profileUpdateRequest.getFullName().equals(user.getFullName());
         if (profileUpdateRequest.getFullName() != null) {
             user.setFullName(profileUpdateRequest.getFullName());
         }
@@ -95,6 +107,13 @@ public class UserProfileController {
         
         userRepository.save(user);
         
+        // Specialist profiles and blogs show the name; synced clients have to fetch them again
+        if (nameChanged) {
+            LocalDateTime now = LocalDateTime.now();
+            specialistRepository.touchByUser(user, now);
+            blogRepository.touchByAuthor(user, now);
+        }
+        
         return ResponseEntity.ok("Profile updated successfully");
     }
 
@@ -129,28 +148,20 @@ public class UserProfileController {
         }
         
         try {
-            // Create uploads directory if it doesn't exist
-            String uploadsDir = "./uploads/avatars/";
-            Path uploadPath = Paths.get(uploadsDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            // Generate unique filename
-            String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-            
-            // Save file
-            Files.copy(file.getInputStream(), filePath);
+            // Store by content hash; identical uploads share one file and its thumbnails
+            StoredMedia media = mediaStorageService.store(file);
             
             // Update user avatar
-            user.setAvatar("/uploads/avatars/" + filename);
+            user.setAvatar(media.getUrl());
             userRepository.save(user);
             
-            Map<String, String> response = new HashMap<>();
+            Map<String, Object> response = new HashMap<>();
             response.put("avatar", user.getAvatar());
+            response.put("thumbnails", media.getThumbnails());
             
             return ResponseEntity.ok(response);
+        } catch (UnsupportedMediaException e) {
+            return ResponseEntity.status(415).body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.status(500).body("Failed to upload avatar: " + e.getMessage());
         }
@@ -165,7 +176,7 @@ public class UserProfileController {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         Long userId = userDetails.getId();
         
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<User> userOpt = userRepository.findWithRolesById(userId);
         return userOpt.orElse(null);
     }
 }
@@ -0,0 +1,141 @@
+package com.skincare.application.controller;
+
+import com.skincare.application.dto.MessageResponse;
+import com.skincare.application.dto.WaitlistEntryDto;
+import com.skincare.application.exception.ResourceNotFoundException;
+import com.skincare.application.model.*;
+import com.skincare.application.repository.*;
+import com.skincare.application.service.waitlist.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private SpecialistRepository specialistRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    // Get a specialist's waitlist for a day (for admins and staff)
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public List<WaitlistEntryDto> getWaitlist(
+            @RequestParam Long specialistId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return waitlistEntryRepository.findBySpecialistIdAndDay(specialistId, day).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    // Get current customer's waitlist entries
+    @GetMapping("/my-entries")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public List<WaitlistEntryDto> getCurrentCustomerEntries() {
+        return waitlistEntryRepository.findByCustomerOrderByDayAscIdAsc(currentCustomer()).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    // Join a specialist's waitlist for a day (customer)
+    @PostMapping
+    @PreAuthorize("hasRole('CUSTOMER')")
+    @Transactional
+    public ResponseEntity<?> joinWaitlist(@Valid @RequestBody WaitlistEntryDto entryDto) {
+        if (entryDto.getDay().isBefore(LocalDate.now())) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: The day has already passed"));
+        }
+        if (entryDto.getEarliestTime() != null && entryDto.getLatestTime() != null
+                && entryDto.getEarliestTime().isAfter(entryDto.getLatestTime())) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: The earliest time is after the latest time"));
+        }
+
+        Specialist specialist = specialistRepository.findById(entryDto.getSpecialistId())
+                .orElseThrow(() -> new ResourceNotFoundException("Specialist not found with id: " + entryDto.getSpecialistId()));
+        List<Service> services = serviceRepository.findAllById(entryDto.getServiceIds());
+        if (services.size() != entryDto.getServiceIds().size()) {
+            throw new ResourceNotFoundException("Service not found with ids: " + entryDto.getServiceIds());
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setCustomer(currentCustomer());
+        entry.setSpecialist(specialist);
+        entry.setDay(entryDto.getDay());
+        entry.setEarliestTime(entryDto.getEarliestTime());
+        entry.setLatestTime(entryDto.getLatestTime());
+        entry.setServices(new HashSet<>(services));
+        entry.setNotes(entryDto.getNotes());
+
+        return ResponseEntity.ok(convertToDto(waitlistService.join(entry)));
+    }
+
+    // Leave the waitlist (customer, staff, admin)
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF') or @waitlistAuthorizationService.isOwner(#id)")
+    @Transactional
+    public ResponseEntity<?> withdraw(@PathVariable Long id) {
+        WaitlistEntry entry = waitlistEntryRepository.findDetailById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found with id: " + id));
+        if (entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: The entry is no longer waiting"));
+        }
+
+        return ResponseEntity.ok(convertToDto(waitlistService.withdraw(entry)));
+    }
+
+    private Customer currentCustomer() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+
+        return customerRepository.findByUser(user)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer profile not found for user: " + username));
+    }
+
+    private WaitlistEntryDto convertToDto(WaitlistEntry entry) {
+        WaitlistEntryDto dto = new WaitlistEntryDto();
+        dto.setId(entry.getId());
+        dto.setCustomerId(entry.getCustomer().getId());
+        dto.setSpecialistId(entry.getSpecialist().getId());
+        dto.setSpecialistName(entry.getSpecialist().getUser().getFullName());
+        dto.setDay(entry.getDay());
+        dto.setEarliestTime(entry.getEarliestTime());
+        dto.setLatestTime(entry.getLatestTime());
+        dto.setServiceIds(entry.getServices().stream().map(Service::getId).collect(Collectors.toSet()));
+        dto.setStatus(entry.getStatus().name());
+        dto.setPosition(waitlistService.positionOf(entry));
+        dto.setBookingId(entry.getBooking() != null ? entry.getBooking().getId() : null);
+        dto.setNotes(entry.getNotes());
+        dto.setCreatedAt(entry.getCreatedAt());
+        dto.setVersion(entry.getVersion());
+        return dto;
+    }
+}
@@ -0,0 +1,53 @@
+package com.skincare.application.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Keeps reads on the primary for a while after second-level cached data changed, on
+ * this node or another. A cache entry evicted by the change is refilled by the next
+ * read of it; from a lagging replica that read would put the old state back into the
+ * cache, where it stays until the next change, long after the replica caught up.
+ * Cached data is reference data that rarely changes, so the window is seldom open.
+ */
+public class CacheRefillWindow {
+    private final long windowNanos;
+
+    // System.nanoTime() deadline; 0 while the window has never been opened
+    private volatile long openUntil;
+
+    public CacheRefillWindow(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    // Called while flushing a write to cached data; the replica can only see it after the commit
+    public void openAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            open();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                open();
+            }
+        });
+    }
+
+    // Called for changes another node already committed
+    public void open() {
+        long until = System.nanoTime() + windowNanos;
+        synchronized (this) {
+            if (openUntil == 0 || until - openUntil > 0) {
+                openUntil = until;
+            }
+        }
+    }
+
+    public boolean isOpen() {
+        long until = openUntil;
+        return until != 0 && until - System.nanoTime() > 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.skincare.application.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users committed a write recently, so their reads stay on the
+ * primary until the replica has had time to apply it. State is per node: behind a
+ * load balancer without sticky sessions, the window only covers requests that
+ * land on the node that took the write.
+ */
+public class ReadYourWritesTracker {
+    private final long windowNanos;
+
+    // Username to System.nanoTime() deadline
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    // Called when a read-write transaction takes its connection; the window opens on commit
+    public void onReadWriteTransaction() {
+        String username = currentUsername();
+        if (username == null || windowNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pinnedUntil.put(username, System.nanoTime() + windowNanos);
+            }
+        });
+    }
+
+    public boolean isPinned() {
+        String username = currentUsername();
+        if (username == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(username);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(username, until);
+        return false;
+    }
+
+    // Drops the windows of users who wrote and never read again
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,100 @@
+package com.skincare.application.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Polls the replica and decides whether reads may go to it: it has to answer and
+ * be no further behind the primary than the allowed lag. Publishes the measured
+ * lag as db.replica.lag and the verdict as db.replica.available.
+ *
+ * Lag comes from SHOW SLAVE STATUS (MySQL and MariaDB), so the replica user needs
+ * the REPLICATION CLIENT privilege. A server that is not replicating reports no
+ * row and counts as current.
+ */
+public class ReplicaHealthMonitor implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final DataSource replica;
+    private final long maxLagSeconds;
+
+    private volatile boolean available;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaHealthMonitor(DataSource replica, Duration maxLag) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLag.getSeconds();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Seconds the replica is behind the primary, NaN when unknown")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("db.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .description("1 while reads are routed to the replica, 0 while they fall back to the primary")
+                .register(registry);
+    }
+
+    // First verdict before any request is served; until then reads use the primary
+    @PostConstruct
+    public void init() {
+        check();
+        if (!available) {
+            logger.warn("Replica not available at startup, read-only transactions use the primary until it is");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${db.replica.check-interval:1000}")
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW SLAVE STATUS")) {
+            if (!status.next()) {
+                update(true, 0, null);
+                return;
+            }
+            long lag = status.getLong("Seconds_Behind_Master");
+            if (status.wasNull()) {
+                String error = status.getString("Last_Error");
+                update(false, Double.NaN, error == null || error.isEmpty()
+                        ? "replication is stopped" : "replication is stopped: " + error);
+            } else {
+                update(lag <= maxLagSeconds, lag, lag + " s behind the primary, the limit is " + maxLagSeconds + " s");
+            }
+        } catch (SQLException e) {
+            markUnavailable(e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void markUnavailable(SQLException cause) {
+        update(false, Double.NaN, cause.getMessage());
+    }
+
+    private synchronized void update(boolean nowAvailable, double lag, String reason) {
+        lagSeconds = lag;
+        if (nowAvailable && !available) {
+            logger.info("Replica available, routing read-only transactions to it");
+        } else if (!nowAvailable && available) {
+            logger.warn("Replica unavailable, read-only transactions fall back to the primary: {}", reason);
+        }
+        available = nowAvailable;
+    }
+}
@@ -0,0 +1,109 @@
+package com.skincare.application.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read-replica routing, on with db.replica.enabled=true. JPA and JdbcTemplate get
+ * the routing data source; Flyway migrates the primary only. The two pools are
+ * built from spring.datasource.* and db.replica.* when db.replica.url is set,
+ * otherwise another configuration (the perf profile) has to provide the beans
+ * primaryDataSource and replicaDataSource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    @Value("${db.replica.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${db.replica.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+
+    @Value("${db.replica.check-interval:1000}")
+    private long checkInterval;
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(readYourWritesWindow);
+    }
+
+    // The replica may be up to max-lag behind, measured up to a check-interval ago
+    @Bean
+    public CacheRefillWindow cacheRefillWindow() {
+        return new CacheRefillWindow(maxLag.plusMillis(checkInterval));
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(@Qualifier("replicaDataSource") DataSource replica) {
+        return new ReplicaHealthMonitor(replica, maxLag);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                             @Qualifier("replicaDataSource") DataSource replica,
+                                                             ReplicaHealthMonitor replicaHealthMonitor,
+                                                             ReadYourWritesTracker readYourWritesTracker,
+                                                             CacheRefillWindow cacheRefillWindow) {
+        return new ReplicaRoutingDataSource(primary, replica, replicaHealthMonitor, readYourWritesTracker,
+                cacheRefillWindow);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Only the primary decides the db health: the node keeps serving from it while the replica is down
+    @Bean
+    public HealthContributor dbHealthContributor(@Qualifier("primaryDataSource") DataSource primary) {
+        return new DataSourceHealthIndicator(primary);
+    }
+
+    @Configuration
+    @ConditionalOnProperty("db.replica.url")
+    static class Pools {
+        @Bean
+        @FlywayDataSource
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            dataSource.setPoolName("primary");
+            return dataSource;
+        }
+
+        @Bean
+        @ConfigurationProperties("db.replica.hikari")
+        public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                                  @Value("${db.replica.url}") String url,
+                                                  @Value("${db.replica.username:${spring.datasource.username}}") String username,
+                                                  @Value("${db.replica.password:${spring.datasource.password}}") String password) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("replica");
+            // Start even when the replica is down; reads fall back to the primary until it answers
+            dataSource.setInitializationFailTimeout(-1);
+            return dataSource;
+        }
+    }
+}
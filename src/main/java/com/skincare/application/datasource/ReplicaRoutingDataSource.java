@@ -0,0 +1,154 @@
+package com.skincare.application.datasource;
+
+import com.skincare.application.metrics.RequestMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections
+ * to everything else. Reads stay on the primary while the replica is unavailable or
+ * lagging, for a user who has just written, after a change to second-level cached
+ * data (see {@link CacheRefillWindow}), and inside {@link #onPrimary}.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: Hibernate asks for its connection
+ * before the transaction's read-only flag is bound, so routing has to wait for the
+ * first statement. Connections handed out are counted as db.routing.connections.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaHealthMonitor health;
+    private final ReadYourWritesTracker readYourWrites;
+    private final CacheRefillWindow cacheRefillWindow;
+    private final Map<Route, LongAdder> routed = new EnumMap<>(Route.class);
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealthMonitor health,
+                                    ReadYourWritesTracker readYourWrites, CacheRefillWindow cacheRefillWindow) {
+        this.primary = primary;
+        this.replica = replica;
+        this.health = health;
+        this.readYourWrites = readYourWrites;
+        this.cacheRefillWindow = cacheRefillWindow;
+        for (Route route : Route.values()) {
+            routed.put(route, new LongAdder());
+        }
+    }
+
+    // Bound by the registry rather than taking it in the constructor: the pool metrics depend on every DataSource
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<Route, LongAdder> entry : routed.entrySet()) {
+            FunctionCounter.builder("db.routing.connections", entry.getValue(), LongAdder::sum)
+                    .description("Connections handed out by the replica router")
+                    .tag("target", entry.getKey().target)
+                    .tag("reason", entry.getKey().reason)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Runs the given work with every read on the primary. For loads that feed a
+     * long-lived in-memory snapshot, where a stale replica read would outlive the lag.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean outermost = PRIMARY_ONLY.get() == null;
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (outermost) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(target -> target.getConnection(username, password));
+    }
+
+    private Connection connect(ConnectionSource source) throws SQLException {
+        Route route = route();
+        long start = System.nanoTime();
+        try {
+            if (route == Route.REPLICA) {
+                try {
+                    return source.open(replica);
+                } catch (SQLException e) {
+                    // Do not wait for the next health check to stop sending reads there
+                    health.markUnavailable(e);
+                    route = Route.REPLICA_UNAVAILABLE;
+                }
+            }
+            return source.open(primary);
+        } finally {
+            routed.get(route).increment();
+            // The proxy in front defers the pool checkout to here, past Hibernate's acquisition events
+            RequestMetrics metrics = RequestMetrics.current();
+            if (metrics != null) {
+                metrics.recordConnectionWait(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.onReadWriteTransaction();
+            }
+            return Route.WRITE;
+        }
+        if (PRIMARY_ONLY.get() != null) {
+            return Route.PINNED;
+        }
+        if (readYourWrites.isPinned()) {
+            return Route.READ_YOUR_WRITES;
+        }
+        if (cacheRefillWindow.isOpen()) {
+            return Route.CACHE_REFILL;
+        }
+        if (!health.isAvailable()) {
+            return Route.REPLICA_UNAVAILABLE;
+        }
+        return Route.REPLICA;
+    }
+
+    private interface ConnectionSource {
+        Connection open(DataSource target) throws SQLException;
+    }
+
+    private enum Route {
+        WRITE("primary", "write"),
+        PINNED("primary", "pinned"),
+        READ_YOUR_WRITES("primary", "read-your-writes"),
+        CACHE_REFILL("primary", "cache-refill"),
+        REPLICA_UNAVAILABLE("primary", "replica-unavailable"),
+        REPLICA("replica", "read");
+
+        private final String target;
+        private final String reason;
+
+        Route(String target, String reason) {
+            this.target = target;
+            this.reason = reason;
+        }
+    }
+}
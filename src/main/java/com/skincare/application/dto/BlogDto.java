@@ -18,4 +18,5 @@ public class BlogDto {
     private List<TagDto> tags;
     private LocalDateTime createdAt;
     private LocalDateTime publishedAt;
+    private Long version;
 }
@@ -24,4 +24,5 @@ public class BookingDto {
     private String notes;
     private List<BookingDetailDto> bookingDetails;
     private ReviewDto review;
+    private Long version;
 }
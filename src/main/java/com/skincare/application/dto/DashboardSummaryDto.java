@@ -0,0 +1,36 @@
+package com.skincare.application.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class DashboardSummaryDto {
+    private String window;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // When the figures were computed; they are refreshed in the background
+    private LocalDateTime generatedAt;
+    private long specialists;
+    private long customers;
+    private long activeServices;
+    private long bookings;
+    private Map<String, Long> bookingsByStatus;
+    // Service prices of the completed bookings
+    private BigDecimal revenue;
+    private List<ServiceFigures> topServices;
+    private long reviews;
+    private Double averageRating;
+    private long reviewsAwaitingApproval;
+
+    @Data
+    public static class ServiceFigures {
+        private Long serviceId;
+        private String serviceName;
+        private long bookings;
+        private BigDecimal revenue;
+    }
+}
@@ -4,6 +4,7 @@ package com.skincare.application.dto;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class QuizOptionDto {
@@ -11,4 +12,5 @@ public class QuizOptionDto {
     private Long questionId;
     private String optionText;
     private List<ServiceDto> recommendedServices;
+    private Map<Long, Integer> serviceWeights;
 }
@@ -14,4 +14,5 @@ public class ReviewDto {
     private Boolean isApproved;
     private String adminResponse;
     private LocalDateTime createdAt;
+    private Long version;
 }
@@ -0,0 +1,13 @@
+package com.skincare.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceRecommendationDto {
+    private ServiceDto service;
+    private Integer score;
+}
@@ -16,4 +16,5 @@ public class SpecialistDto {
     private Double ratingAverage;
     private Integer ratingCount;
     private List<ServiceDto> services;
+    private Long version;
 }
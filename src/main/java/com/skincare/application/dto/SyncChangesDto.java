@@ -0,0 +1,16 @@
+package com.skincare.application.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SyncChangesDto {
+    private List<ServiceDto> services;
+    private List<SpecialistDto> specialists;
+    private List<CategoryDto> categories;
+    private List<BlogDto> blogs;
+    private List<SyncDeletionDto> deleted;
+    private String cursor;
+    private boolean hasMore;
+}
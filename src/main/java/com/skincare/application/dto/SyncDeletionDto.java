@@ -0,0 +1,11 @@
+package com.skincare.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SyncDeletionDto {
+    private String type;
+    private Long id;
+}
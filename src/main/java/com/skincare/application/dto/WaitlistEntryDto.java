@@ -0,0 +1,32 @@
+package com.skincare.application.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Data
+public class WaitlistEntryDto {
+    private Long id;
+    private Long customerId;
+    @NotNull
+    private Long specialistId;
+    private String specialistName;
+    @NotNull
+    private LocalDate day;
+    private LocalTime earliestTime;
+    private LocalTime latestTime;
+    @NotEmpty
+    private Set<Long> serviceIds;
+    private String status;
+    // Entries ahead of this one in the queue, while waiting
+    private Integer position;
+    private Long bookingId;
+    private String notes;
+    private LocalDateTime createdAt;
+    private Long version;
+}
@@ -0,0 +1,48 @@
+package com.skincare.application.dto.converter;
+
+import com.skincare.application.dto.BlogDto;
+import com.skincare.application.dto.TagDto;
+import com.skincare.application.dto.UserDto;
+import com.skincare.application.model.Blog;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+// Blog post with its author's public details and tags
+@Component
+public class BlogDtoConverter {
+    public BlogDto convert(Blog blog) {
+        BlogDto dto = new BlogDto();
+        dto.setId(blog.getId());
+        dto.setTitle(blog.getTitle());
+        dto.setContent(blog.getContent());
+        dto.setFeaturedImage(blog.getFeaturedImage());
+        dto.setIsPublished(blog.getIsPublished());
+        dto.setViewCount(blog.getViewCount());
+        dto.setCreatedAt(blog.getCreatedAt());
+        dto.setPublishedAt(blog.getPublishedAt());
+        dto.setVersion(blog.getVersion());
+        
+        if (blog.getAuthor() != null) {
+            UserDto author = new UserDto();
+            author.setId(blog.getAuthor().getId());
+            author.setUsername(blog.getAuthor().getUsername());
+            author.setEmail(blog.getAuthor().getEmail());
+            author.setFullName(blog.getAuthor().getFullName());
+            dto.setAuthor(author);
+        }
+        
+        if (blog.getTags() != null) {
+            dto.setTags(blog.getTags().stream()
+                .map(tag -> {
+                    TagDto tagDto = new TagDto();
+                    tagDto.setId(tag.getId());
+                    tagDto.setName(tag.getName());
+                    return tagDto;
+                })
+                .collect(Collectors.toList()));
+        }
+        
+        return dto;
+    }
+}
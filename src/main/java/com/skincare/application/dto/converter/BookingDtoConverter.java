@@ -0,0 +1,104 @@
+package com.skincare.application.dto.converter;
+
+import com.skincare.application.dto.BookingDetailDto;
+import com.skincare.application.dto.BookingDto;
+import com.skincare.application.dto.CustomerDto;
+import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.dto.SpecialistDto;
+import com.skincare.application.dto.UserDto;
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import com.skincare.application.repository.BookingDetailRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Booking with its services. Customer and specialist are reduced to their ids and names;
+ * the full profiles are behind their own endpoints. The specialist's notes on a service are
+ * lazily loaded text and not part of the booking views.
+ */
+@Component
+public class BookingDtoConverter {
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    public BookingDto convert(Booking booking) {
+        return convert(booking, bookingDetailRepository.findByBooking(booking));
+    }
+
+    // Reads the details of all the bookings in one query rather than one per booking
+    public List<BookingDto> convertAll(List<Booking> bookings) {
+        Map<Long, List<BookingDetail>> details = bookingDetailRepository.findByBookingIn(bookings).stream()
+                .collect(Collectors.groupingBy(detail -> detail.getBooking().getId()));
+        return bookings.stream()
+                .map(booking -> convert(booking, details.getOrDefault(booking.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private BookingDto convert(Booking booking, List<BookingDetail> details) {
+        BookingDto dto = new BookingDto();
+        dto.setId(booking.getId());
+        dto.setCustomer(customerOf(booking));
+        
+        if (booking.getSpecialist() != null) {
+            SpecialistDto specialist = new SpecialistDto();
+            specialist.setId(booking.getSpecialist().getId());
+            specialist.setUser(nameOf(booking.getSpecialist().getUser().getId(),
+                    booking.getSpecialist().getUser().getFullName()));
+            dto.setSpecialist(specialist);
+        }
+        
+        dto.setBookingDateTime(booking.getBookingDateTime());
+        dto.setStatus(booking.getStatus());
+        dto.setTotalAmount(booking.getTotalAmount());
+        dto.setPaymentStatus(booking.getPaymentStatus());
+        dto.setPaymentMethod(booking.getPaymentMethod());
+        dto.setCheckedInTime(booking.getCheckedInTime());
+        dto.setCheckedOutTime(booking.getCheckedOutTime());
+        dto.setCancellationReason(booking.getCancellationReason());
+        dto.setNotes(booking.getNotes());
+        dto.setVersion(booking.getVersion());
+        
+        // Convert booking details
+        if (!details.isEmpty()) {
+            List<BookingDetailDto> detailDtos = new ArrayList<>();
+            for (BookingDetail detail : details) {
+                BookingDetailDto detailDto = new BookingDetailDto();
+                detailDto.setId(detail.getId());
+                detailDto.setBookingId(booking.getId());
+                ServiceDto service = new ServiceDto();
+                service.setId(detail.getService().getId());
+                service.setName(detail.getService().getName());
+                service.setDurationMinutes(detail.getService().getDurationMinutes());
+                detailDto.setService(service);
+                detailDto.setPrice(detail.getPrice());
+                detailDto.setStatus(detail.getStatus());
+                detailDto.setStartTime(detail.getStartTime());
+                detailDto.setEndTime(detail.getEndTime());
+                detailDtos.add(detailDto);
+            }
+            dto.setBookingDetails(detailDtos);
+        }
+        
+        return dto;
+    }
+
+    private static CustomerDto customerOf(Booking booking) {
+        CustomerDto customer = new CustomerDto();
+        customer.setId(booking.getCustomer().getId());
+        customer.setUser(nameOf(booking.getCustomer().getUser().getId(), booking.getCustomer().getUser().getFullName()));
+        return customer;
+    }
+
+    private static UserDto nameOf(Long userId, String fullName) {
+        UserDto user = new UserDto();
+        user.setId(userId);
+        user.setFullName(fullName);
+        return user;
+    }
+}
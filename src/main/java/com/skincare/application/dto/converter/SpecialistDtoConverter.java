@@ -0,0 +1,55 @@
+package com.skincare.application.dto.converter;
+
+import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.dto.SpecialistDto;
+import com.skincare.application.dto.UserDto;
+import com.skincare.application.model.Specialist;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+// Specialist profile with contact details and offered services, as the specialist endpoints return it
+@Component
+public class SpecialistDtoConverter {
+    public SpecialistDto convert(Specialist specialist) {
+        SpecialistDto dto = new SpecialistDto();
+        dto.setId(specialist.getId());
+        
+        // Set user data
+        UserDto userDto = new UserDto();
+        userDto.setId(specialist.getUser().getId());
+        userDto.setUsername(specialist.getUser().getUsername());
+        userDto.setEmail(specialist.getUser().getEmail());
+        userDto.setFullName(specialist.getUser().getFullName());
+        userDto.setPhoneNumber(specialist.getUser().getPhoneNumber());
+        userDto.setAddress(specialist.getUser().getAddress());
+        dto.setUser(userDto);
+        
+        dto.setSpecialization(specialist.getSpecialization());
+        dto.setBio(specialist.getBio());
+        dto.setExperience(specialist.getExperience());
+        dto.setCertifications(specialist.getCertifications());
+        dto.setRatingAverage(specialist.getRatingAverage());
+        dto.setRatingCount(specialist.getRatingCount());
+        dto.setVersion(specialist.getVersion());
+        
+        // Convert services
+        if (specialist.getServices() != null) {
+            dto.setServices(specialist.getServices().stream()
+                    .map(service -> {
+                        ServiceDto serviceDto = new ServiceDto();
+                        serviceDto.setId(service.getId());
+                        serviceDto.setName(service.getName());
+                        serviceDto.setDescription(service.getDescription());
+                        serviceDto.setPrice(service.getPrice());
+                        serviceDto.setDurationMinutes(service.getDurationMinutes());
+                        serviceDto.setIsActive(service.getIsActive());
+                        serviceDto.setImageUrl(service.getImageUrl());
+                        return serviceDto;
+                    })
+                    .collect(Collectors.toList()));
+        }
+        
+        return dto;
+    }
+}
@@ -0,0 +1,11 @@
+package com.skincare.application.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BookingArchivedException extends RuntimeException {
+    public BookingArchivedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.skincare.application.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SlotUnavailableException extends RuntimeException {
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
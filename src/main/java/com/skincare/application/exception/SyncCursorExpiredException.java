@@ -0,0 +1,11 @@
+package com.skincare.application.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class SyncCursorExpiredException extends RuntimeException {
+    public SyncCursorExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,113 @@
+package com.skincare.application.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Per-request counters filled in by the SQL session listener, the statement
+ * inspector and the JWT filter.
+ * Bound to the request thread by {@link RequestMetricsFilter}; work outside a
+ * request (schedulers, startup) sees {@code null} from {@link #current()}.
+ */
+public class RequestMetrics {
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final HttpServletRequest request;
+    private final SqlTrace sqlTrace;
+    private int preparedStatements;
+    private int overBudget;
+    private int sqlStatements;
+    private long sqlNanos;
+    private long connectionWaitNanos;
+    private long jwtNanos;
+
+    private RequestMetrics(HttpServletRequest request, boolean traced) {
+        this.request = request;
+        this.sqlTrace = traced ? new SqlTrace() : null;
+    }
+
+    static RequestMetrics start(HttpServletRequest request, boolean traced) {
+        RequestMetrics metrics = new RequestMetrics(request, traced);
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    int recordPrepared() {
+        return ++preparedStatements;
+    }
+
+    void markOverBudget(int budget) {
+        overBudget = budget;
+    }
+
+    public void recordStatement(long nanos) {
+        sqlStatements++;
+        sqlNanos += nanos;
+    }
+
+    public void recordConnectionWait(long nanos) {
+        connectionWaitNanos += nanos;
+    }
+
+    public void recordJwt(long nanos) {
+        jwtNanos += nanos;
+    }
+
+    public HttpServletRequest getRequest() {
+        return request;
+    }
+
+    // Null unless this request was sampled for shape tracing
+    public SqlTrace getSqlTrace() {
+        return sqlTrace;
+    }
+
+    public int getPreparedStatements() {
+        return preparedStatements;
+    }
+
+    // The budget that was exceeded, or 0
+    public int getOverBudget() {
+        return overBudget;
+    }
+
+    public int getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public long getSqlNanos() {
+        return sqlNanos;
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    public long getJwtNanos() {
+        return jwtNanos;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    // Server-Timing header value, durations in milliseconds
+    public String toServerTiming() {
+        return "app;dur=" + millis(getElapsedNanos())
+                + ", db;dur=" + millis(sqlNanos) + ";desc=\"" + sqlStatements + " statements\""
+                + ", pool;dur=" + millis(connectionWaitNanos)
+                + ", jwt;dur=" + millis(jwtNanos);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(java.util.Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,164 @@
+package com.skincare.application.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link RequestMetrics} scope around each request (outside the security
+ * chain, so JWT work is included), publishes per-endpoint SQL, pool-wait and JWT
+ * meters, and reports the same figures to the client in a Server-Timing header.
+ * Requests that blow their statement budget or trip the N+1 detector are logged.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SqlTracingInspector sqlTracingInspector;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.start(request, sqlTracingInspector.shouldSample());
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, metrics);
+        try {
+            filterChain.doFilter(request, timedResponse);
+            timedResponse.addServerTiming();
+        } finally {
+            RequestMetrics.clear();
+            record(request, response, metrics);
+            report(request, metrics);
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestMetrics metrics) {
+        String endpoint = SqlTracingInspector.endpointOf(request);
+        if (metrics.getOverBudget() > 0) {
+            logger.warn("{} ran {} statements, budget is {}", endpoint,
+                    metrics.getPreparedStatements(), metrics.getOverBudget());
+        }
+        SqlTrace trace = metrics.getSqlTrace();
+        if (trace != null && trace.hasOffender()) {
+            Counter.builder("sql.n_plus_one")
+                    .description("Sampled requests that repeated one statement shape past the threshold")
+                    .tags(endpointTags(request))
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("Possible N+1 on {}: statement repeated {} times ({} statements, {} distinct): {}{}",
+                    endpoint, trace.getOffenderCount(), metrics.getPreparedStatements(), trace.getDistinctShapes(),
+                    trace.getOffenderShape(), SqlTracingInspector.formatStack(trace.getOffenderStack()));
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestMetrics metrics) {
+        Tags tags = endpointTags(request).and("status", Integer.toString(response.getStatus()));
+
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("JDBC statements executed per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getSqlStatements());
+        Timer.builder("http.server.requests.sql.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getSqlNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("http.server.requests.pool.wait")
+                .description("Time spent waiting for a pooled connection per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getConnectionWaitNanos(), TimeUnit.NANOSECONDS);
+        if (metrics.getJwtNanos() > 0) {
+            Timer.builder("security.jwt.filter")
+                    .description("Time spent parsing and validating the JWT and loading the user")
+                    .register(meterRegistry)
+                    .record(metrics.getJwtNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Tags endpointTags(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+    }
+
+    // Adds Server-Timing just before the body starts, while headers can still be set
+    private static class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final RequestMetrics metrics;
+        private boolean timingAdded;
+
+        ServerTimingResponse(HttpServletResponse response, RequestMetrics metrics) {
+            super(response);
+            this.metrics = metrics;
+        }
+
+        void addServerTiming() {
+            if (!timingAdded && !isCommitted()) {
+                timingAdded = true;
+                setHeader(SERVER_TIMING, metrics.toServerTiming());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.skincare.application.metrics;
+
+/**
+ * Thrown in strict mode when a request runs more statements than its endpoint's
+ * budget or repeats one statement shape past the N+1 threshold.
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
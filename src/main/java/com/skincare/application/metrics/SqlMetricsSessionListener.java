@@ -0,0 +1,57 @@
+package com.skincare.application.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Attributes JDBC work to the current request. Hibernate creates one instance per
+ * session (hibernate.session.events.auto), so the start timestamps need no locking.
+ */
+public class SqlMetricsSessionListener extends BaseSessionEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private long statementStart = -1;
+    private long batchStart = -1;
+    private long acquisitionStart = -1;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        acquisitionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null && acquisitionStart > 0) {
+            metrics.recordConnectionWait(System.nanoTime() - acquisitionStart);
+        }
+        acquisitionStart = -1;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null && statementStart > 0) {
+            metrics.recordStatement(System.nanoTime() - statementStart);
+        }
+        statementStart = -1;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null && batchStart > 0) {
+            metrics.recordStatement(System.nanoTime() - batchStart);
+        }
+        batchStart = -1;
+    }
+}
@@ -0,0 +1,47 @@
+package com.skincare.application.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statement shapes seen by one sampled request. The first shape to reach the
+ * repeat threshold is kept with the application stack that issued it, which is
+ * usually the loop in a DTO converter.
+ */
+public class SqlTrace {
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private String offenderShape;
+    private StackTraceElement[] offenderStack;
+
+    // Returns the new count for the shape
+    int record(String shape) {
+        return shapes.merge(shape, 1, Integer::sum);
+    }
+
+    void markOffender(String shape, StackTraceElement[] stack) {
+        if (offenderShape == null) {
+            offenderShape = shape;
+            offenderStack = stack;
+        }
+    }
+
+    public boolean hasOffender() {
+        return offenderShape != null;
+    }
+
+    public String getOffenderShape() {
+        return offenderShape;
+    }
+
+    public int getOffenderCount() {
+        return offenderShape != null ? shapes.get(offenderShape) : 0;
+    }
+
+    public StackTraceElement[] getOffenderStack() {
+        return offenderStack;
+    }
+
+    public int getDistinctShapes() {
+        return shapes.size();
+    }
+}
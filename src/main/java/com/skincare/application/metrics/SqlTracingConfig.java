@@ -0,0 +1,16 @@
+package com.skincare.application.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SqlTracingConfig {
+
+    // Registers the Spring-managed inspector so it can read sql.tracing.* properties
+    @Bean
+    public HibernatePropertiesCustomizer sqlTracingCustomizer(SqlTracingInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
@@ -0,0 +1,151 @@
+package com.skincare.application.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Sees every statement Hibernate prepares. All requests are counted against their
+ * endpoint budget; a sample of requests also records statement shapes so that a
+ * query repeated N times with different parameters (N+1) can be reported with the
+ * code that issued it. In strict mode (integration tests) violations throw.
+ */
+@Component
+public class SqlTracingInspector implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+
+    private static final Pattern IN_LIST = Pattern.compile("in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String APP_PACKAGE = "com.skincare.application.";
+    private static final String METRICS_PACKAGE = "com.skincare.application.metrics.";
+    private static final int STACK_DEPTH = 8;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Value("${sql.tracing.sample-rate:0.05}")
+    private double sampleRate;
+
+    @Value("${sql.tracing.repeat-threshold:10}")
+    private int repeatThreshold;
+
+    @Value("${sql.tracing.default-budget:0}")
+    private int defaultBudget;
+
+    @Value("${sql.tracing.strict:false}")
+    private boolean strict;
+
+    private Map<String, Integer> budgets = new LinkedHashMap<>();
+
+    // Comma-separated uri-pattern=count pairs, e.g. /api/bookings=20,/api/quiz/questions=5
+    @Value("${sql.tracing.budgets:}")
+    void setBudgets(String spec) {
+        Map<String, Integer> parsed = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq > 0) {
+                parsed.put(entry.substring(0, eq).trim(), Integer.parseInt(entry.substring(eq + 1).trim()));
+            }
+        }
+        budgets = parsed;
+    }
+
+    // Decides per request whether statement shapes are recorded
+    boolean shouldSample() {
+        return strict || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics == null) {
+            return sql;
+        }
+
+        int count = metrics.recordPrepared();
+        int budget = budgetFor(metrics.getRequest());
+        if (budget > 0 && count == budget + 1) {
+            metrics.markOverBudget(budget);
+            if (strict) {
+                throw new SqlBudgetExceededException("Statement budget of " + budget + " exceeded on "
+                        + endpointOf(metrics.getRequest()));
+            }
+        }
+
+        SqlTrace trace = metrics.getSqlTrace();
+        if (trace != null) {
+            String shape = shapeOf(sql);
+            if (trace.record(shape) == repeatThreshold) {
+                trace.markOffender(shape, applicationStack());
+                if (strict) {
+                    throw new SqlBudgetExceededException("Statement repeated " + repeatThreshold + " times on "
+                            + endpointOf(metrics.getRequest()) + ": " + shape);
+                }
+            }
+        }
+        return sql;
+    }
+
+    int budgetFor(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        for (Map.Entry<String, Integer> entry : budgets.entrySet()) {
+            if (entry.getKey().equals(path) || pathMatcher.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return defaultBudget;
+    }
+
+    static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    static String shapeOf(String sql) {
+        String shape = IN_LIST.matcher(sql).replaceAll("in (?)");
+        shape = LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    // Application frames only, skipping this subsystem, so the log points at the loop
+    private static StackTraceElement[] applicationStack() {
+        List<StackTraceElement> frames = new ArrayList<>();
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith(APP_PACKAGE) && !className.startsWith(METRICS_PACKAGE)
+                    && !className.contains("$$")) {
+                frames.add(frame);
+                if (frames.size() == STACK_DEPTH) {
+                    break;
+                }
+            }
+        }
+        return frames.toArray(new StackTraceElement[0]);
+    }
+
+    static String formatStack(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        Arrays.stream(stack).forEach(frame -> sb.append("\n\tat ").append(frame));
+        return sb.toString();
+    }
+}
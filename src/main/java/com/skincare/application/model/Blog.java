@@ -1,8 +1,12 @@
 
 package com.skincare.application.model;
 
+import com.skincare.application.service.sync.SyncTombstoneListener;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
@@ -12,6 +16,13 @@ import java.util.Set;
 
 @Entity
 @Table(name = "blogs")
+// Updates write only changed columns, so an edit cannot overwrite view counts taken meanwhile
+@DynamicUpdate
+@NamedEntityGraph(name = "Blog.detail",
+    attributeNodes = {@NamedAttributeNode("author"), @NamedAttributeNode("tags")})
+@NamedEntityGraph(name = "Blog.author", attributeNodes = @NamedAttributeNode("author"))
+// Deletes leave a tombstone for the sync change feed
+@EntityListeners(SyncTombstoneListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,6 +36,7 @@ public class Blog {
     @Column(nullable = false)
     private String title;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
 
@@ -35,15 +47,19 @@ public class Blog {
     @Builder.Default
     private Boolean isPublished = false;
 
+    // Counted by an atomic update on every read; must not conflict with editors
     @Column(name = "view_count")
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private Integer viewCount = 0;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
 
+    // Lists that fetch only the author load tags for a page of blogs in one query
     @ManyToMany
+    @BatchSize(size = 20)
     @JoinTable(
         name = "blog_tags",
         joinColumns = @JoinColumn(name = "blog_id"),
@@ -62,4 +78,7 @@ public class Blog {
 
     @Column(name = "published_at")
     private LocalDateTime publishedAt;
+
+    @Version
+    private Long version;
 }
@@ -3,6 +3,9 @@ package com.skincare.application.model;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.LazyToOne;
+import org.hibernate.annotations.LazyToOneOption;
+import org.hibernate.annotations.OptimisticLock;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
@@ -13,6 +16,17 @@ import java.util.Set;
 
 @Entity
 @Table(name = "bookings")
+// Booking lists and detail views: who booked, with whom, and whether it was reviewed
+@NamedEntityGraph(name = "Booking.summary",
+    attributeNodes = {
+        @NamedAttributeNode(value = "customer", subgraph = "customer"),
+        @NamedAttributeNode(value = "specialist", subgraph = "specialist"),
+        @NamedAttributeNode("review")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "customer", attributeNodes = @NamedAttributeNode("user")),
+        @NamedSubgraph(name = "specialist", attributeNodes = @NamedAttributeNode("user"))
+    })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,11 +37,11 @@ public class Booking {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "specialist_id")
     private Specialist specialist;
 
@@ -59,11 +73,17 @@ public class Booking {
     @Column(name = "notes")
     private String notes;
 
+    // Adding a detail or a review does not conflict with staff edits of the booking itself
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL)
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private Set<BookingDetail> bookingDetails = new HashSet<>();
 
-    @OneToOne(mappedBy = "booking", cascade = CascadeType.ALL)
+    // The inverse side of a one-to-one cannot be proxied; with bytecode enhancement it is
+    // loaded on first access instead of by a select per booking
+    @OneToOne(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @LazyToOne(LazyToOneOption.NO_PROXY)
+    @OptimisticLock(excluded = true)
     private Review review;
 
     @CreationTimestamp
@@ -74,6 +94,10 @@ public class Booking {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Concurrent staff edits fail instead of overwriting each other
+    @Version
+    private Long version;
+
     public enum BookingStatus {
         PENDING,
         CONFIRMED,
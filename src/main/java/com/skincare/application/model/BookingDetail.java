@@ -3,6 +3,7 @@ package com.skincare.application.model;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.LazyGroup;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "booking_details")
+@NamedEntityGraph(name = "BookingDetail.service", attributeNodes = @NamedAttributeNode("service"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,11 +23,11 @@ public class BookingDetail {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id")
     private Booking booking;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id")
     private Service service;
 
@@ -40,9 +42,14 @@ public class BookingDetail {
     @Column(name = "end_time")
     private LocalDateTime endTime;
 
+    // Treatment notes are read one booking at a time, never in booking lists
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("notes")
     @Column(name = "specialist_notes", columnDefinition = "TEXT")
     private String specialistNotes;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("notes")
     @Column(name = "recommended_followup", columnDefinition = "TEXT")
     private String recommendedFollowup;
 
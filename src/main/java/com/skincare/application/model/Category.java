@@ -1,7 +1,10 @@
 
 package com.skincare.application.model;
 
+import com.skincare.application.service.sync.SyncTombstoneListener;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,6 +15,10 @@ import java.util.Set;
 
 @Entity
 @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Deletes leave a tombstone for the sync change feed
+@EntityListeners(SyncTombstoneListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -12,6 +12,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "customers")
+@NamedEntityGraph(name = "Customer.user", attributeNodes = @NamedAttributeNode("user"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,7 +23,7 @@ public class Customer {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
@@ -2,16 +2,24 @@
 package com.skincare.application.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 @Entity
 @Table(name = "quiz_options")
+@NamedEntityGraph(name = "QuizOption.recommendations",
+    attributeNodes = {@NamedAttributeNode("recommendedServices"), @NamedAttributeNode("serviceWeights")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,7 +30,7 @@ public class QuizOption {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_id")
     private QuizQuestion question;
 
@@ -30,6 +38,7 @@ public class QuizOption {
     private String optionText;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "option_service_recommendations",
         joinColumns = @JoinColumn(name = "option_id"),
@@ -38,6 +47,18 @@ public class QuizOption {
     @Builder.Default
     private Set<Service> recommendedServices = new HashSet<>();
 
+    // Score contributed to each recommended service when this option is chosen; missing entries weigh 1
+    @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @CollectionTable(
+        name = "option_service_weights",
+        joinColumns = @JoinColumn(name = "option_id")
+    )
+    @MapKeyColumn(name = "service_id")
+    @Column(name = "weight", nullable = false)
+    @Builder.Default
+    private Map<Long, Integer> serviceWeights = new HashMap<>();
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
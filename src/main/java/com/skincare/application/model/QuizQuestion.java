@@ -2,6 +2,8 @@
 package com.skincare.application.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,6 +14,10 @@ import java.util.Set;
 
 @Entity
 @Table(name = "quiz_questions")
+@NamedEntityGraph(name = "QuizQuestion.recommendedServices",
+    attributeNodes = @NamedAttributeNode("recommendedServices"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,6 +44,7 @@ public class QuizQuestion {
     private Set<QuizOption> options = new HashSet<>();
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "question_service_recommendations",
         joinColumns = @JoinColumn(name = "question_id"),
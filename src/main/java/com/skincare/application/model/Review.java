@@ -3,6 +3,7 @@ package com.skincare.application.model;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.LazyGroup;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
@@ -20,13 +21,16 @@ public class Review {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id", unique = true)
     private Booking booking;
 
     @Column(nullable = false)
     private Integer rating;
 
+    // Free text is read only by review views, not by bookings that join their review
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("text")
     @Column(columnDefinition = "TEXT")
     private String comment;
 
@@ -34,6 +38,8 @@ public class Review {
     @Builder.Default
     private Boolean isApproved = false;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("text")
     @Column(name = "admin_response", columnDefinition = "TEXT")
     private String adminResponse;
 
@@ -44,4 +50,7 @@ public class Review {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
 }
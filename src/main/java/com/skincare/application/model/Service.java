@@ -1,7 +1,11 @@
 
 package com.skincare.application.model;
 
+import com.skincare.application.service.sync.SyncTombstoneListener;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,6 +17,10 @@ import java.util.Set;
 
 @Entity
 @Table(name = "services")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Deletes leave a tombstone for the sync change feed
+@EntityListeners(SyncTombstoneListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -50,7 +58,10 @@ public class Service {
     @Builder.Default
     private Set<QuizQuestion> quizQuestions = new HashSet<>();
 
+    // Change feed pages load the categories of all their services in a few queries
     @ManyToMany
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "service_categories",
         joinColumns = @JoinColumn(name = "service_id"),
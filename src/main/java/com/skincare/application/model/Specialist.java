@@ -1,8 +1,12 @@
 
 package com.skincare.application.model;
 
+import com.skincare.application.service.sync.SyncTombstoneListener;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
@@ -12,6 +16,13 @@ import java.util.Set;
 
 @Entity
 @Table(name = "specialists")
+// Updates write only changed columns, so a profile edit cannot overwrite a newer rating
+@DynamicUpdate
+// Specialist profile as listed and shown: the user's contact details and the services offered
+@NamedEntityGraph(name = "Specialist.profile",
+    attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("services")})
+// Deletes leave a tombstone for the sync change feed
+@EntityListeners(SyncTombstoneListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,7 +33,7 @@ public class Specialist {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
@@ -34,15 +45,20 @@ public class Specialist {
     
     private String certifications;
 
+    // Derived from approved reviews and recomputed by the system; not part of the profile's version
     @Column(name = "rating_average")
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private Double ratingAverage = 0.0;
 
     @Column(name = "rating_count")
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private Integer ratingCount = 0;
 
+    // Change feed pages load the services of all their specialists in a few queries
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "specialist_services",
         joinColumns = @JoinColumn(name = "specialist_id"),
@@ -51,11 +67,14 @@ public class Specialist {
     @Builder.Default
     private Set<Service> services = new HashSet<>();
 
+    // New bookings and schedules must not bump the profile's version
     @OneToMany(mappedBy = "specialist")
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private Set<Booking> bookings = new HashSet<>();
 
     @OneToMany(mappedBy = "specialist")
+    @OptimisticLock(excluded = true)
     @Builder.Default
     private Set<SpecialistSchedule> schedules = new HashSet<>();
 
@@ -66,4 +85,7 @@ public class Specialist {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
 }
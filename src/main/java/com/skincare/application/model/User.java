@@ -12,6 +12,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+// Authentication and the profile page need the roles with the user
+@NamedEntityGraph(name = "User.roles", attributeNodes = @NamedAttributeNode("roles"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -48,7 +50,7 @@ public class User {
     @Builder.Default
     private Boolean isActive = true;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,86 @@
+package com.skincare.application.model;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+@Table(name = "waitlist_entries")
+@NamedEntityGraph(name = "WaitlistEntry.detail",
+    attributeNodes = {
+        @NamedAttributeNode("services"),
+        @NamedAttributeNode(value = "specialist", subgraph = "specialist")
+    },
+    subgraphs = @NamedSubgraph(name = "specialist", attributeNodes = @NamedAttributeNode("user")))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id")
+    private Customer customer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "specialist_id")
+    private Specialist specialist;
+
+    private LocalDate day;
+
+    // Limits on when the booking may start; null for any time that day
+    @Column(name = "earliest_time")
+    private LocalTime earliestTime;
+
+    @Column(name = "latest_time")
+    private LocalTime latestTime;
+
+    @ManyToMany
+    @JoinTable(
+        name = "waitlist_entry_services",
+        joinColumns = @JoinColumn(name = "waitlist_entry_id"),
+        inverseJoinColumns = @JoinColumn(name = "service_id")
+    )
+    @Builder.Default
+    private Set<Service> services = new HashSet<>();
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // The booking the entry was promoted to. It may have been archived (no foreign key, see V14),
+    // so only its id is read
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Booking booking;
+
+    private String notes;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public enum Status {
+        WAITING,
+        PROMOTED,
+        WITHDRAWN,
+        EXPIRED
+    }
+}
@@ -3,14 +3,66 @@ package com.skincare.application.repository;
 
 import com.skincare.application.model.Blog;
 import com.skincare.application.model.Tag;
+import com.skincare.application.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface BlogRepository extends JpaRepository<Blog, Long> {
+    // Blog views render the lazy content, so these queries load it with the row
+    @EntityGraph("Blog.detail")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT b FROM Blog b FETCH ALL PROPERTIES")
+    @Override
+    List<Blog> findAll();
+    
+    @EntityGraph("Blog.detail")
+    @Query("SELECT b FROM Blog b FETCH ALL PROPERTIES WHERE b.id = :id")
+    @Override
+    Optional<Blog> findById(Long id);
+    
+    @EntityGraph("Blog.detail")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT b FROM Blog b FETCH ALL PROPERTIES WHERE b.isPublished = true")
     List<Blog> findByIsPublishedTrue();
-    List<Blog> findTop5ByIsPublishedTrueOrderByPublishedAtDesc();
+    
+    // A collection fetch would make the limit apply in memory, so tags are batch-loaded instead
+    @EntityGraph("Blog.author")
+    @Query("SELECT b FROM Blog b FETCH ALL PROPERTIES WHERE b.isPublished = true ORDER BY b.publishedAt DESC")
+    List<Blog> findLatestPublished(Pageable pageable);
+    
+    @EntityGraph("Blog.detail")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT b FROM Blog b FETCH ALL PROPERTIES WHERE :tag MEMBER OF b.tags")
     List<Blog> findByTagsContaining(Tag tag);
+    
+    // One atomic increment per view: no read-modify-write race and no version bump
+    @Modifying
+    @Transactional
+    @Query("UPDATE Blog b SET b.viewCount = b.viewCount + 1 WHERE b.id = :id")
+    int incrementViewCount(Long id);
+    
+    // Change feed: rows changed after the (updatedAt, id) position and before the settle bound
+    @EntityGraph("Blog.author")
+    @Query("SELECT b FROM Blog b FETCH ALL PROPERTIES WHERE b.updatedAt >= :since AND (b.updatedAt > :since OR b.id > :afterId) " +
+           "AND b.updatedAt < :before ORDER BY b.updatedAt, b.id")
+    List<Blog> findChangedSince(LocalDateTime since, Long afterId, LocalDateTime before, Pageable pageable);
+    
+    // Puts the author's blogs back in the change feed when the author's name changes; no version bump
+    @Modifying
+    @Transactional
+    @Query("UPDATE Blog b SET b.updatedAt = :now WHERE b.author = :author")
+    int touchByAuthor(User author, LocalDateTime now);
 }
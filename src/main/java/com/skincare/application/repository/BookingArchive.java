@@ -0,0 +1,109 @@
+package com.skincare.application.repository;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.Specialist;
+import org.hibernate.Hibernate;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads bookings_archive and booking_details_archive, where BookingArchiver moves closed
+ * bookings older than the horizon. Archived bookings come back as Booking entities with
+ * customer, specialist and their users loaded, like the Booking.summary graph; they have no
+ * review, as reviewed bookings are not archived.
+ *
+ * They are a read-only view: the entities are detached before they are returned, so a caller
+ * that changes one cannot flush it into the hot tables, where its row no longer exists.
+ * Writers look bookings up with BookingRepository.findWithSummaryById, which does not read here.
+ */
+@Component
+public class BookingArchive {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${booking.archive.horizon:365d}")
+    private Duration horizon;
+
+    // Closed bookings that started before this may have been archived
+    public LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(horizon);
+    }
+
+    // Whether a query from start on has to read the archive; a day's margin covers node clocks that differ
+    public boolean reaches(LocalDateTime start) {
+        return start == null || start.isBefore(cutoff().plusDays(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Booking> findBookings(String condition, Map<String, Object> parameters) {
+        Query query = entityManager.createNativeQuery(
+                        "SELECT * FROM bookings_archive" + (condition.isEmpty() ? "" : " WHERE " + condition), Booking.class)
+                .setHint(QueryHints.HINT_READONLY, true);
+        parameters.forEach(query::setParameter);
+        List<Booking> bookings = query.getResultList();
+        if (!bookings.isEmpty()) {
+            fetchPeople(bookings);
+            bookings.forEach(entityManager::detach);
+        }
+        return bookings;
+    }
+
+    long count(String sql, Map<String, Object> parameters) {
+        Query query = entityManager.createNativeQuery(sql);
+        parameters.forEach(query::setParameter);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    List<BookingDetail> findDetails(Collection<Long> bookingIds) {
+        List<BookingDetail> details = entityManager
+                .createNativeQuery("SELECT * FROM booking_details_archive WHERE booking_id IN (:ids)", BookingDetail.class)
+                .setParameter("ids", bookingIds)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+        // Services are second-level cached
+        details.forEach(detail -> Hibernate.initialize(detail.getService()));
+        details.forEach(entityManager::detach);
+        return details;
+    }
+
+    // Loads customers and specialists with their users in two queries instead of two per booking
+    private void fetchPeople(List<Booking> bookings) {
+        Set<Long> customerIds = bookings.stream()
+                .map(Booking::getCustomer).filter(Objects::nonNull).map(Customer::getId)
+                .collect(Collectors.toSet());
+        Set<Long> specialistIds = bookings.stream()
+                .map(Booking::getSpecialist).filter(Objects::nonNull).map(Specialist::getId)
+                .collect(Collectors.toSet());
+        if (!customerIds.isEmpty()) {
+            entityManager.createQuery("SELECT c FROM Customer c JOIN FETCH c.user WHERE c.id IN :ids", Customer.class)
+                    .setParameter("ids", customerIds)
+                    .getResultList();
+        }
+        if (!specialistIds.isEmpty()) {
+            entityManager.createQuery("SELECT s FROM Specialist s JOIN FETCH s.user WHERE s.id IN :ids", Specialist.class)
+                    .setParameter("ids", specialistIds)
+                    .getResultList();
+        }
+        // The proxies of the bookings now resolve from the persistence context
+        for (Booking booking : bookings) {
+            Hibernate.initialize(booking.getCustomer());
+            Hibernate.initialize(booking.getSpecialist());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.skincare.application.repository;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.Specialist;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Booking queries that may reach archived bookings. Date ranges read bookings_archive only
+ * when they start before the archive horizon; lookups by id fall back to it on a miss, and
+ * lists without a date range always include it. Archived bookings are detached and must not
+ * be saved (see BookingArchive).
+ */
+public interface BookingArchiveQueries {
+    // Booking views read customer, specialist and review of every row; fetch them in the same query
+    Optional<Booking> findSummaryById(Long id);
+
+    boolean isArchived(Long id);
+
+    List<Booking> findAll();
+
+    List<Booking> findByCustomer(Customer customer);
+
+    List<Booking> findBySpecialist(Specialist specialist);
+
+    List<Booking> findByStatus(Booking.BookingStatus status);
+
+    List<Booking> findByPaymentStatus(Booking.PaymentStatus paymentStatus);
+
+    List<Booking> findBookingsBetweenDates(LocalDateTime start, LocalDateTime end);
+
+    List<Booking> findBookingsByStatusAndDateRange(Booking.BookingStatus status, LocalDateTime start, LocalDateTime end);
+
+    List<Booking> findBookingsBySpecialistIdAndDateRange(Long specialistId, LocalDateTime start, LocalDateTime end);
+
+    Long countBookingsByStatusAndDateRange(Booking.BookingStatus status, LocalDateTime start, LocalDateTime end);
+}
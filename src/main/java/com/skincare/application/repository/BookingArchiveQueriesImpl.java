@@ -0,0 +1,131 @@
+package com.skincare.application.repository;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.Specialist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// One transaction per query: the hot and the archive part see the same snapshot, so a booking
+// archived in between is read once
+@Transactional(readOnly = true)
+public class BookingArchiveQueriesImpl implements BookingArchiveQueries {
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BookingArchive bookingArchive;
+
+    @Override
+    public Optional<Booking> findSummaryById(Long id) {
+        Booking booking = entityManager.find(Booking.class, id,
+                Map.of(FETCH_GRAPH, entityManager.getEntityGraph("Booking.summary")));
+        if (booking != null) {
+            return Optional.of(booking);
+        }
+        // Ids are not reused, so a booking missing here is archived or does not exist
+        return bookingArchive.findBookings("id = :id", Map.of("id", id)).stream().findFirst();
+    }
+
+    @Override
+    public boolean isArchived(Long id) {
+        return bookingArchive.count("SELECT COUNT(*) FROM bookings_archive WHERE id = :id", Map.of("id", id)) > 0;
+    }
+
+    // Lists without a date range are whole histories, so they always include the archive
+
+    @Override
+    public List<Booking> findAll() {
+        return find("", "", Map.of(), null);
+    }
+
+    @Override
+    public List<Booking> findByCustomer(Customer customer) {
+        return find("b.customer.id = :customerId", "customer_id = :customerId",
+                Map.of("customerId", customer.getId()), null);
+    }
+
+    @Override
+    public List<Booking> findBySpecialist(Specialist specialist) {
+        return find("b.specialist.id = :specialistId", "specialist_id = :specialistId",
+                Map.of("specialistId", specialist.getId()), null);
+    }
+
+    @Override
+    public List<Booking> findByStatus(Booking.BookingStatus status) {
+        return find("b.status = :status", "status = :status", Map.of("status", status), null);
+    }
+
+    @Override
+    public List<Booking> findByPaymentStatus(Booking.PaymentStatus paymentStatus) {
+        return find("b.paymentStatus = :paymentStatus", "payment_status = :paymentStatus",
+                Map.of("paymentStatus", paymentStatus), null);
+    }
+
+    @Override
+    public List<Booking> findBookingsBetweenDates(LocalDateTime start, LocalDateTime end) {
+        return find("b.bookingDateTime BETWEEN :start AND :end",
+                "booking_date_time BETWEEN :start AND :end",
+                Map.of("start", start, "end", end), start);
+    }
+
+    @Override
+    public List<Booking> findBookingsByStatusAndDateRange(Booking.BookingStatus status, LocalDateTime start, LocalDateTime end) {
+        return find("b.status = :status AND b.bookingDateTime BETWEEN :start AND :end",
+                "status = :status AND booking_date_time BETWEEN :start AND :end",
+                Map.of("status", status, "start", start, "end", end), start);
+    }
+
+    @Override
+    public List<Booking> findBookingsBySpecialistIdAndDateRange(Long specialistId, LocalDateTime start, LocalDateTime end) {
+        return find("b.specialist.id = :specialistId AND b.bookingDateTime BETWEEN :start AND :end",
+                "specialist_id = :specialistId AND booking_date_time BETWEEN :start AND :end",
+                Map.of("specialistId", specialistId, "start", start, "end", end), start);
+    }
+
+    @Override
+    public Long countBookingsByStatusAndDateRange(Booking.BookingStatus status, LocalDateTime start, LocalDateTime end) {
+        Long count = entityManager.createQuery(
+                        "SELECT COUNT(b) FROM Booking b WHERE b.status = :status AND b.bookingDateTime BETWEEN :start AND :end",
+                        Long.class)
+                .setParameter("status", status)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .getSingleResult();
+        if (bookingArchive.reaches(start)) {
+            count += bookingArchive.count(
+                    "SELECT COUNT(*) FROM bookings_archive WHERE status = :status AND booking_date_time BETWEEN :start AND :end",
+                    Map.of("status", status.name(), "start", start, "end", end));
+        }
+        return count;
+    }
+
+    private List<Booking> find(String jpqlCondition, String sqlCondition, Map<String, Object> parameters, LocalDateTime start) {
+        TypedQuery<Booking> query = entityManager.createQuery(
+                        "SELECT b FROM Booking b" + (jpqlCondition.isEmpty() ? "" : " WHERE " + jpqlCondition), Booking.class)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph("Booking.summary"));
+        parameters.forEach(query::setParameter);
+        List<Booking> bookings = query.getResultList();
+        if (!bookingArchive.reaches(start)) {
+            return bookings;
+        }
+        // Native queries take the column value of an enum, as stored
+        Map<String, Object> sqlParameters = new HashMap<>(parameters);
+        sqlParameters.replaceAll((name, value) -> value instanceof Enum ? ((Enum<?>) value).name() : value);
+        List<Booking> all = new ArrayList<>(bookings);
+        all.addAll(bookingArchive.findBookings(sqlCondition, sqlParameters));
+        return all;
+    }
+}
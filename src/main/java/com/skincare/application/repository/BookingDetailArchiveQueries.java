@@ -0,0 +1,20 @@
+package com.skincare.application.repository;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Booking detail queries that may reach booking_details_archive, like {@link BookingArchiveQueries}.
+ */
+public interface BookingDetailArchiveQueries {
+    List<BookingDetail> findByBooking(Booking booking);
+
+    // The details of all the bookings, for lists
+    List<BookingDetail> findByBookingIn(Collection<Booking> bookings);
+
+    Long countBookingDetailsByServiceIdAndDateRange(Long serviceId, LocalDateTime start, LocalDateTime end);
+}
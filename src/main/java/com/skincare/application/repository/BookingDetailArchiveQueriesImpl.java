@@ -0,0 +1,91 @@
+package com.skincare.application.repository;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Transactional(readOnly = true)
+public class BookingDetailArchiveQueriesImpl implements BookingDetailArchiveQueries {
+    // Bookings per query of findByBookingIn, well below the server's limit on parameters
+    private static final int IN_LIST_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BookingArchive bookingArchive;
+
+    @Override
+    public List<BookingDetail> findByBooking(Booking booking) {
+        List<BookingDetail> details = entityManager
+                .createQuery("SELECT bd FROM BookingDetail bd WHERE bd.booking = :booking", BookingDetail.class)
+                .setHint("javax.persistence.fetchgraph", entityManager.getEntityGraph("BookingDetail.service"))
+                .setParameter("booking", booking)
+                .getResultList();
+        // Details move with their booking, so only an old booking without any here can have archived ones
+        if (details.isEmpty() && bookingArchive.reaches(booking.getBookingDateTime())) {
+            return bookingArchive.findDetails(List.of(booking.getId()));
+        }
+        return details;
+    }
+
+    @Override
+    public List<BookingDetail> findByBookingIn(Collection<Booking> bookings) {
+        List<Booking> all = new ArrayList<>(bookings);
+        List<BookingDetail> details = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_LIST_SIZE) {
+            details.addAll(findByBookingIn(all.subList(from, Math.min(from + IN_LIST_SIZE, all.size()))));
+        }
+        return details;
+    }
+
+    private List<BookingDetail> findByBookingIn(List<Booking> bookings) {
+        List<BookingDetail> details = new ArrayList<>(entityManager
+                .createQuery("SELECT bd FROM BookingDetail bd WHERE bd.booking IN :bookings", BookingDetail.class)
+                .setHint("javax.persistence.fetchgraph", entityManager.getEntityGraph("BookingDetail.service"))
+                .setParameter("bookings", bookings)
+                .getResultList());
+        // As in findByBooking, of the old bookings only those without any details here can have archived ones
+        Set<Long> withDetails = details.stream()
+                .map(detail -> detail.getBooking().getId())
+                .collect(Collectors.toSet());
+        List<Long> archived = bookings.stream()
+                .filter(booking -> !withDetails.contains(booking.getId()))
+                .filter(booking -> bookingArchive.reaches(booking.getBookingDateTime()))
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        if (!archived.isEmpty()) {
+            details.addAll(bookingArchive.findDetails(archived));
+        }
+        return details;
+    }
+
+    @Override
+    public Long countBookingDetailsByServiceIdAndDateRange(Long serviceId, LocalDateTime start, LocalDateTime end) {
+        Long count = entityManager.createQuery(
+                        "SELECT COUNT(bd) FROM BookingDetail bd WHERE bd.service.id = :serviceId AND bd.booking.bookingDateTime BETWEEN :start AND :end",
+                        Long.class)
+                .setParameter("serviceId", serviceId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .getSingleResult();
+        if (bookingArchive.reaches(start)) {
+            count += bookingArchive.count(
+                    "SELECT COUNT(*) FROM booking_details_archive bd JOIN bookings_archive b ON b.id = bd.booking_id " +
+                    "WHERE bd.service_id = :serviceId AND b.booking_date_time BETWEEN :start AND :end",
+                    Map.of("serviceId", serviceId, "start", start, "end", end));
+        }
+        return count;
+    }
+}
@@ -1,29 +1,19 @@
-
 package com.skincare.application.repository;
 
 import com.skincare.application.model.Booking;
-import com.skincare.application.model.Customer;
-import com.skincare.application.model.Specialist;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Optional;
 
+// Closed bookings past the archive horizon live in bookings_archive; the queries of
+// BookingArchiveQueries read it, the ones declared here only read the hot table
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByCustomer(Customer customer);
-    List<Booking> findBySpecialist(Specialist specialist);
-    List<Booking> findByStatus(Booking.BookingStatus status);
-    List<Booking> findByPaymentStatus(Booking.PaymentStatus paymentStatus);
-    
-    @Query("SELECT b FROM Booking b WHERE b.bookingDateTime BETWEEN :start AND :end")
-    List<Booking> findBookingsBetweenDates(LocalDateTime start, LocalDateTime end);
-    
-    @Query("SELECT b FROM Booking b WHERE b.specialist.id = :specialistId AND b.bookingDateTime BETWEEN :start AND :end")
-    List<Booking> findBookingsBySpecialistIdAndDateRange(Long specialistId, LocalDateTime start, LocalDateTime end);
-    
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.status = :status AND b.bookingDateTime BETWEEN :start AND :end")
-    Long countBookingsByStatusAndDateRange(Booking.BookingStatus status, LocalDateTime start, LocalDateTime end);
+@Transactional(readOnly = true)
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingArchiveQueries {
+    // For changing a booking: archived bookings are history and cannot be changed
+    @EntityGraph("Booking.summary")
+    Optional<Booking> findWithSummaryById(Long id);
 }
@@ -2,13 +2,30 @@
 package com.skincare.application.repository;
 
 import com.skincare.application.model.Category;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
     Boolean existsByName(String name);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Override
+    List<Category> findAll();
+    
+    // Change feed: rows changed after the (updatedAt, id) position and before the settle bound
+    @Query("SELECT c FROM Category c WHERE c.updatedAt >= :since AND (c.updatedAt > :since OR c.id > :afterId) " +
+           "AND c.updatedAt < :before ORDER BY c.updatedAt, c.id")
+    List<Category> findChangedSince(LocalDateTime since, Long afterId, LocalDateTime before, Pageable pageable);
 }
@@ -6,10 +6,12 @@ import com.skincare.application.model.CustomerQuizResult;
 import com.skincare.application.model.QuizQuestion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface CustomerQuizResultRepository extends JpaRepository<CustomerQuizResult, Long> {
     List<CustomerQuizResult> findByCustomer(Customer customer);
     List<CustomerQuizResult> findByCustomerAndQuestion(Customer customer, QuizQuestion question);
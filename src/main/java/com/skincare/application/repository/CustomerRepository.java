@@ -3,12 +3,25 @@ package com.skincare.application.repository;
 
 import com.skincare.application.model.Customer;
 import com.skincare.application.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    @EntityGraph("Customer.user")
+    @Override
+    List<Customer> findAll();
+    
+    @EntityGraph("Customer.user")
+    @Override
+    Optional<Customer> findById(Long id);
+    
+    @EntityGraph("Customer.user")
     Optional<Customer> findByUser(User user);
 }
@@ -3,12 +3,28 @@ package com.skincare.application.repository;
 
 import com.skincare.application.model.QuizOption;
 import com.skincare.application.model.QuizQuestion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface QuizOptionRepository extends JpaRepository<QuizOption, Long> {
+    @EntityGraph("QuizOption.recommendations")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT o FROM QuizOption o WHERE o.question = :question")
     List<QuizOption> findByQuestion(QuizQuestion question);
+    
+    @Query("SELECT DISTINCT o FROM QuizOption o JOIN FETCH o.question q LEFT JOIN FETCH o.recommendedServices WHERE q.isActive = true ORDER BY o.id")
+    List<QuizOption> findActiveWithRecommendedServices();
+    
+    // Rows of [optionId, serviceId, weight] for every option of an active question
+    @Query("SELECT o.id, KEY(w), VALUE(w) FROM QuizOption o JOIN o.serviceWeights w WHERE o.question.isActive = true")
+    List<Object[]> findActiveServiceWeights();
 }
@@ -2,13 +2,26 @@
 package com.skincare.application.repository;
 
 import com.skincare.application.model.QuizQuestion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface QuizQuestionRepository extends JpaRepository<QuizQuestion, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<QuizQuestion> findByIsActiveTrue();
-    List<QuizQuestion> findByQuestionType(QuizQuestion.QuestionType questionType);
+    
+    @EntityGraph("QuizQuestion.recommendedServices")
+    Optional<QuizQuestion> findWithRecommendedServicesById(Long id);
+    
+    @Query("SELECT DISTINCT q FROM QuizQuestion q LEFT JOIN FETCH q.recommendedServices WHERE q.isActive = true ORDER BY q.id")
+    List<QuizQuestion> findActiveWithRecommendedServices();
 }
@@ -6,16 +6,29 @@ import com.skincare.application.model.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+    // Review views show comment and admin response, which are lazy; load them with the row
+    @Query("SELECT r FROM Review r FETCH ALL PROPERTIES")
+    @Override
+    List<Review> findAll();
+    
+    @Query("SELECT r FROM Review r FETCH ALL PROPERTIES WHERE r.id = :id")
+    @Override
+    Optional<Review> findById(Long id);
+    
     Optional<Review> findByBooking(Booking booking);
+    
+    @Query("SELECT r FROM Review r FETCH ALL PROPERTIES WHERE r.isApproved = :isApproved")
     List<Review> findByIsApproved(Boolean isApproved);
     
-    @Query("SELECT r FROM Review r JOIN r.booking b WHERE b.specialist.id = :specialistId")
+    @Query("SELECT r FROM Review r FETCH ALL PROPERTIES JOIN r.booking b WHERE b.specialist.id = :specialistId")
     List<Review> findBySpecialistId(Long specialistId);
     
     @Query("SELECT AVG(r.rating) FROM Review r JOIN r.booking b WHERE b.specialist.id = :specialistId")
@@ -3,14 +3,21 @@ package com.skincare.application.repository;
 
 import com.skincare.application.model.Category;
 import com.skincare.application.model.Service;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface ServiceRepository extends JpaRepository<Service, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Service> findByIsActiveTrue();
     List<Service> findByCategoriesContaining(Category category);
     
@@ -19,4 +26,9 @@ public interface ServiceRepository extends JpaRepository<Service, Long> {
     
     @Query("SELECT DISTINCT s FROM Service s JOIN s.quizQuestions q WHERE q.id = :questionId")
     List<Service> findByQuizQuestionId(Long questionId);
+    
+    // Change feed: rows changed after the (updatedAt, id) position and before the settle bound
+    @Query("SELECT s FROM Service s WHERE s.updatedAt >= :since AND (s.updatedAt > :since OR s.id > :afterId) " +
+           "AND s.updatedAt < :before ORDER BY s.updatedAt, s.id")
+    List<Service> findChangedSince(LocalDateTime since, Long afterId, LocalDateTime before, Pageable pageable);
 }
@@ -3,19 +3,42 @@ package com.skincare.application.repository;
 
 import com.skincare.application.model.Specialist;
 import com.skincare.application.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface SpecialistRepository extends JpaRepository<Specialist, Long> {
-    @Query("SELECT s FROM Specialist s JOIN s.services srv WHERE srv.id = :serviceId")
+    // Profile lists fetch user and services in one query. DISTINCT removes the duplicate roots
+    // of the services join in memory only; it is not needed in the SQL.
+    @EntityGraph("Specialist.profile")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT s FROM Specialist s")
+    @Override
+    List<Specialist> findAll();
+    
+    @EntityGraph("Specialist.profile")
+    Optional<Specialist> findProfileById(Long id);
+    
+    @EntityGraph("Specialist.profile")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT s FROM Specialist s JOIN s.services srv WHERE srv.id = :serviceId")
     List<Specialist> findAllByServiceId(Long serviceId);
     
-    @Query("SELECT s FROM Specialist s WHERE s.ratingAverage >= :minRating")
+    @EntityGraph("Specialist.profile")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("SELECT DISTINCT s FROM Specialist s WHERE s.ratingAverage >= :minRating")
     List<Specialist> findAllWithMinimumRating(Double minRating);
     
     @Query("SELECT s FROM Specialist s WHERE s.specialization LIKE %:keyword%")
@@ -40,12 +63,6 @@ public interface SpecialistRepository extends JpaRepository<Specialist, Long> {
     @Query("SELECT s FROM Specialist s JOIN s.user u WHERE u.isActive = true")
     List<Specialist> findAllActiveSpecialists();
     
-    @Query(value = "SELECT s.* FROM specialists s " +
-           "JOIN specialist_schedules ss ON s.id = ss.specialist_id " +
-           "WHERE ss.schedule_date BETWEEN :startDate AND :endDate " +
-           "GROUP BY s.id", nativeQuery = true)
-    List<Specialist> findAllAvailableBetweenDates(String startDate, String endDate);
-    
     @Query("SELECT s FROM Specialist s WHERE LOWER(s.specialization) LIKE LOWER(concat('%', :keyword, '%')) OR LOWER(s.user.fullName) LIKE LOWER(concat('%', :keyword, '%'))")
     List<Specialist> searchByKeyword(String keyword);
     
@@ -57,4 +74,16 @@ public interface SpecialistRepository extends JpaRepository<Specialist, Long> {
     
     @Query("SELECT s FROM Specialist s WHERE s.certifications LIKE %:certification%")
     List<Specialist> findByCertificationsContaining(String certification);
+    
+    // Change feed: rows changed after the (updatedAt, id) position and before the settle bound
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT s FROM Specialist s WHERE s.updatedAt >= :since AND (s.updatedAt > :since OR s.id > :afterId) " +
+           "AND s.updatedAt < :before ORDER BY s.updatedAt, s.id")
+    List<Specialist> findChangedSince(LocalDateTime since, Long afterId, LocalDateTime before, Pageable pageable);
+    
+    // Puts a profile back in the change feed when its user's details change; no version bump
+    @Modifying
+    @Transactional
+    @Query("UPDATE Specialist s SET s.updatedAt = :now WHERE s.user = :user")
+    int touchByUser(User user, LocalDateTime now);
 }
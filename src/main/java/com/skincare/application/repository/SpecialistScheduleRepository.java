@@ -5,11 +5,13 @@ import com.skincare.application.model.Specialist;
 import com.skincare.application.model.SpecialistSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface SpecialistScheduleRepository extends JpaRepository<SpecialistSchedule, Long> {
     List<SpecialistSchedule> findBySpecialist(Specialist specialist);
     List<SpecialistSchedule> findBySpecialistAndDayOfWeek(Specialist specialist, DayOfWeek dayOfWeek);
@@ -2,14 +2,24 @@
 package com.skincare.application.repository;
 
 import com.skincare.application.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    
+    @EntityGraph("User.roles")
+    Optional<User> findWithRolesByUsername(String username);
+    
+    @EntityGraph("User.roles")
+    Optional<User> findWithRolesById(Long id);
+    
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
@@ -0,0 +1,40 @@
+package com.skincare.application.repository;
+
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    @EntityGraph("WaitlistEntry.detail")
+    Optional<WaitlistEntry> findDetailById(Long id);
+
+    @EntityGraph("WaitlistEntry.detail")
+    List<WaitlistEntry> findByCustomerOrderByDayAscIdAsc(Customer customer);
+
+    @EntityGraph("WaitlistEntry.detail")
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.specialist.id = :specialistId AND w.day = :day ORDER BY w.id")
+    List<WaitlistEntry> findBySpecialistIdAndDay(Long specialistId, LocalDate day);
+
+    // Two nodes promoting at once: the second waits here and then sees the entry promoted
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.id = :id")
+    Optional<WaitlistEntry> findForUpdate(Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = :expired, w.version = w.version + 1 WHERE w.status = :waiting AND w.day < :before")
+    int expire(WaitlistEntry.Status waiting, WaitlistEntry.Status expired, LocalDate before);
+}
@@ -1,6 +1,7 @@
 
 package com.skincare.application.security.jwt;
 
+import com.skincare.application.metrics.RequestMetrics;
 import com.skincare.application.security.services.UserDetailsServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long start = System.nanoTime();
         try {
             String jwt = parseJwt(request);
             if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
@@ -46,6 +48,11 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             logger.error("Cannot set user authentication: {}", e);
         }
 
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.recordJwt(System.nanoTime() - start);
+        }
+
         filterChain.doFilter(request, response);
     }
 
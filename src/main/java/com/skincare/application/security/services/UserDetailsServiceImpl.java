@@ -1,6 +1,7 @@
 
 package com.skincare.application.security.services;
 
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
 import com.skincare.application.model.User;
 import com.skincare.application.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,10 +16,11 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    // Read from the primary: a sign-in right after sign-up or a password change must not see an older replica row
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = ReplicaRoutingDataSource.onPrimary(() -> userRepository.findWithRolesByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
 
         return UserDetailsImpl.build(user);
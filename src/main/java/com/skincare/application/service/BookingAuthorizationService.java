@@ -41,8 +41,8 @@ public class BookingAuthorizationService {
             return false;
         }
         
-        // Get the booking
-        Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
+        // Get the booking; customers still own their archived bookings
+        Optional<Booking> bookingOpt = bookingRepository.findSummaryById(bookingId);
         if (!bookingOpt.isPresent()) {
             return false;
         }
@@ -0,0 +1,43 @@
+package com.skincare.application.service;
+
+import com.skincare.application.exception.BookingNotAllowedException;
+import com.skincare.application.service.settings.BookingSettings;
+import com.skincare.application.service.settings.SettingsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checks a new booking against the booking settings. Reads the settings snapshot, so
+ * a check costs no query and sees a settings change as soon as it is committed.
+ */
+@Service
+public class BookingRulesService {
+    @Autowired
+    private SettingsService settingsService;
+
+    /**
+     * @throws BookingNotAllowedException if the booking is too soon, too far ahead or has too many services
+     */
+    public void checkNewBooking(LocalDateTime bookingDateTime, int serviceCount) {
+        BookingSettings settings = settingsService.getBookingSettings();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (bookingDateTime == null) {
+            throw new BookingNotAllowedException("A booking needs a date and time");
+        }
+        if (bookingDateTime.isBefore(now.plusHours(settings.getMinAdvanceBookingHours()))) {
+            throw new BookingNotAllowedException("Bookings must be made at least "
+                    + settings.getMinAdvanceBookingHours() + " hours in advance");
+        }
+        if (bookingDateTime.isAfter(now.plusDays(settings.getAllowFutureBookingsDays()))) {
+            throw new BookingNotAllowedException("Bookings can be made at most "
+                    + settings.getAllowFutureBookingsDays() + " days in advance");
+        }
+        if (serviceCount > settings.getMaxServicesPerBooking()) {
+            throw new BookingNotAllowedException("A booking can have at most "
+                    + settings.getMaxServicesPerBooking() + " services");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.skincare.application.service;
+
+import com.skincare.application.exception.SlotUnavailableException;
+import com.skincare.application.model.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reserves specialists' time across nodes through booking_slot_claims: one row per
+ * slot a booking covers, unique on (specialist_id, slot_start). Of two transactions
+ * claiming the same slot the second waits for the first to finish, then fails on the
+ * key if it committed.
+ *
+ * The claim's row locks are held until commit, so claim as the last write of the
+ * booking's transaction; that keeps the wait of a competing request to the commit.
+ */
+@Service
+public class BookingSlotService {
+    private static final String INSERT_SQL =
+            "INSERT INTO booking_slot_claims (specialist_id, slot_start, booking_id) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${booking.slot-minutes:15}")
+    private int slotMinutes;
+
+    @PostConstruct
+    public void init() {
+        if (slotMinutes <= 0 || 60 % slotMinutes != 0) {
+            throw new IllegalStateException("booking.slot-minutes must divide an hour, was " + slotMinutes);
+        }
+    }
+
+    /**
+     * Claims every slot from the booking's start until its services end. Bookings
+     * without a specialist or a time hold nothing.
+     *
+     * @throws SlotUnavailableException if another booking holds one of the slots
+     */
+    public void claim(Booking booking, int durationMinutes) {
+        if (booking.getSpecialist() == null || booking.getBookingDateTime() == null) {
+            return;
+        }
+
+        Long specialistId = booking.getSpecialist().getId();
+        LocalDateTime start = booking.getBookingDateTime();
+        LocalDateTime end = start.plusMinutes(Math.max(durationMinutes, 1));
+        List<Object[]> rows = new ArrayList<>();
+        // Ascending order in every transaction, so overlapping claims cannot deadlock each other
+        for (LocalDateTime slot = firstSlot(start); slot.isBefore(end); slot = slot.plusMinutes(slotMinutes)) {
+            rows.add(new Object[] {specialistId, Timestamp.valueOf(slot), booking.getId()});
+        }
+
+        // Only a duplicate key means the slot is taken; a deadlock or lock wait timeout has rolled
+        // the transaction back and is not a verdict on the slot, so it propagates as it is
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        } catch (DuplicateKeyException e) {
+            throw new SlotUnavailableException("Specialist " + specialistId + " is already booked at " + start);
+        }
+    }
+
+    // Frees the booking's slots for others, e.g. once it is cancelled
+    public void release(Long bookingId) {
+        jdbcTemplate.update("DELETE FROM booking_slot_claims WHERE booking_id = ?", bookingId);
+    }
+
+    // Of the given specialists, those holding a slot between start and the end of durationMinutes
+    public Set<Long> findBusy(Collection<Long> specialistIds, LocalDateTime start, int durationMinutes) {
+        if (specialistIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Object> args = new ArrayList<>(specialistIds);
+        args.add(Timestamp.valueOf(firstSlot(start)));
+        args.add(Timestamp.valueOf(start.plusMinutes(Math.max(durationMinutes, 1))));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT specialist_id FROM booking_slot_claims WHERE specialist_id IN ("
+                        + String.join(", ", Collections.nCopies(specialistIds.size(), "?"))
+                        + ") AND slot_start >= ? AND slot_start < ?",
+                Long.class, args.toArray()));
+    }
+
+    private LocalDateTime firstSlot(LocalDateTime start) {
+        return start.truncatedTo(ChronoUnit.HOURS).plusMinutes(start.getMinute() / slotMinutes * slotMinutes);
+    }
+}
@@ -0,0 +1,75 @@
+package com.skincare.application.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a system-side update in its own transaction and runs it again when another
+ * writer changed the row's version first. Only for work that re-reads everything it
+ * writes and is safe to repeat, such as recomputing a derived value; edits made by
+ * users are not retried but answered with 409 and the current state.
+ */
+@Service
+public class OptimisticLockRetry {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${locking.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${locking.retry.backoff-ms:10}")
+    private long backoffMillis;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        // A new transaction each attempt, also when called from afterCommit of another one
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Optimistic lock conflict on attempt {}, retrying: {}", attempt, e.getMessage());
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Linear backoff with jitter, so writers that collided once do not collide again in step
+    private void backOff(int attempt, OptimisticLockingFailureException cause) {
+        try {
+            Thread.sleep(backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
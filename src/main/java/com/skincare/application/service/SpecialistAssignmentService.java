@@ -0,0 +1,333 @@
+package com.skincare.application.service;
+
+import com.skincare.application.cache.InvalidationEvent;
+import com.skincare.application.exception.SlotUnavailableException;
+import com.skincare.application.model.Booking;
+import com.skincare.application.repository.SpecialistRepository;
+import com.skincare.application.service.board.BookingChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Picks a specialist for bookings made without one: among the active specialists
+ * offering every booked service, the first by preference that works at the booked
+ * time and holds none of its slots.
+ *
+ * Preference is kept in memory, as one ordered set of specialists per service, by
+ * load (open bookings from today on) and rating, or the other way round with
+ * prefer=rating. Loads follow BookingChangedEvent on this node, and changes on other
+ * nodes as BookingReminderScheduler announces them on the cache invalidation bus.
+ * Keeping a specialist in order costs O(log n) per change, finding candidates
+ * O(log n) per specialist looked at, and only the best few are checked against the
+ * database, two queries per batch. Specialists, their services and ratings are
+ * reloaded every refresh-interval.
+ */
+@org.springframework.stereotype.Service
+public class SpecialistAssignmentService implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(SpecialistAssignmentService.class);
+
+    private static final Set<String> OPEN = Set.of(Booking.BookingStatus.PENDING.name(),
+            Booking.BookingStatus.CONFIRMED.name(), Booking.BookingStatus.CHECKED_IN.name(),
+            Booking.BookingStatus.IN_PROGRESS.name());
+
+    private static final String SPECIALISTS_SQL =
+            "SELECT s.id, s.rating_average FROM specialists s JOIN users u ON u.id = s.user_id WHERE u.is_active = true";
+    private static final String SERVICES_SQL = "SELECT specialist_id, service_id FROM specialist_services";
+    private static final String OPEN_BOOKINGS_SQL =
+            "SELECT id, specialist_id FROM bookings WHERE status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN', 'IN_PROGRESS') " +
+            "AND booking_date_time >= ? AND specialist_id IS NOT NULL";
+    private static final String BOOKING_SQL = "SELECT status, specialist_id FROM bookings WHERE id = ?";
+    // Specialists without any schedule are taken to work any time
+    private static final String SCHEDULES_SQL =
+            "SELECT specialist_id, MAX(day_of_week = ? AND is_available = true AND start_time <= ? AND end_time >= ?) " +
+            "AS working FROM specialist_schedules WHERE specialist_id IN (%s) GROUP BY specialist_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingSlotService bookingSlotService;
+
+    @Autowired
+    private SpecialistRepository specialistRepository;
+
+    @Value("${booking.assignment.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.assignment.prefer:load}")
+    private String prefer;
+
+    @Value("${booking.assignment.batch-size:10}")
+    private int batchSize;
+
+    @Value("${booking.assignment.max-candidates:50}")
+    private int maxCandidates;
+
+    // Guarded by this
+    private final Map<Long, Long> openBookings = new HashMap<>();
+    private final Map<Long, Integer> loads = new HashMap<>();
+    private Map<Long, Candidate> candidates = new HashMap<>();
+    private Map<Long, TreeSet<Candidate>> byService = new HashMap<>();
+    private Comparator<Candidate> order;
+
+    private final LongAdder assigned = new LongAdder();
+    private final LongAdder unassigned = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        Comparator<Candidate> byLoad = Comparator.comparingInt(candidate -> candidate.load);
+        Comparator<Candidate> byRating = Comparator.comparingDouble((Candidate candidate) -> candidate.rating).reversed();
+        if ("load".equals(prefer)) {
+            order = byLoad.thenComparing(byRating);
+        } else if ("rating".equals(prefer)) {
+            order = byRating.thenComparing(byLoad);
+        } else {
+            throw new IllegalStateException("booking.assignment.prefer must be load or rating, was " + prefer);
+        }
+        order = order.thenComparingLong(candidate -> candidate.id);
+
+        Map<Long, Long> bookings = new HashMap<>();
+        jdbcTemplate.query(OPEN_BOOKINGS_SQL,
+                rs -> {
+                    bookings.put(rs.getLong("id"), rs.getLong("specialist_id"));
+                },
+                Timestamp.valueOf(LocalDate.now().atStartOfDay()));
+        synchronized (this) {
+            for (Map.Entry<Long, Long> booking : bookings.entrySet()) {
+                count(booking.getKey(), booking.getValue());
+            }
+        }
+        refresh();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("booking.assignment", assigned, LongAdder::sum)
+                .description("Bookings given a specialist automatically")
+                .tag("outcome", "assigned")
+                .register(registry);
+        FunctionCounter.builder("booking.assignment", unassigned, LongAdder::sum)
+                .description("Bookings no free specialist was found for")
+                .tag("outcome", "unassigned")
+                .register(registry);
+    }
+
+    /**
+     * Sets the booking's specialist and claims the specialist's slots, inside the
+     * booking's transaction. A booking no specialist is free for is left without
+     * one for staff to assign.
+     *
+     * @return whether a specialist was assigned
+     * @throws SlotUnavailableException if a concurrent booking claimed the chosen
+     *         specialist's time first. The booking's transaction must roll back; run
+     *         again, it sees that claim and picks another specialist
+     */
+    public boolean assign(Booking booking, Collection<Long> serviceIds, int durationMinutes) {
+        if (!enabled || booking.getBookingDateTime() == null || serviceIds.isEmpty()) {
+            return false;
+        }
+        LocalDateTime start = booking.getBookingDateTime();
+        LocalDateTime end = start.plusMinutes(Math.max(durationMinutes, 1));
+        List<Long> preferred = candidatesFor(serviceIds);
+
+        for (int from = 0; from < preferred.size(); from += batchSize) {
+            List<Long> batch = preferred.subList(from, Math.min(from + batchSize, preferred.size()));
+            Set<Long> busy = bookingSlotService.findBusy(batch, start, durationMinutes);
+            Set<Long> offDuty = offDuty(batch, start, end);
+            for (Long specialistId : batch) {
+                if (busy.contains(specialistId) || offDuty.contains(specialistId)) {
+                    continue;
+                }
+                // A claim that fails is not retried with the next candidate in this transaction:
+                // the failed insert keeps its locks, and a deadlock has already rolled it all back
+                booking.setSpecialist(specialistRepository.getReferenceById(specialistId));
+                bookingSlotService.claim(booking, durationMinutes);
+                assigned.increment();
+                return true;
+            }
+        }
+        unassigned.increment();
+        return false;
+    }
+
+    // Applies committed changes made on this node
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        update(change.getBookingId(), change.getStatus() != null ? change.getStatus().name() : null,
+                change.getSpecialistId());
+    }
+
+    // A booking changed on another node; its new state is read back, as the event only names it
+    @EventListener
+    public void onInvalidation(InvalidationEvent event) {
+        if (!Booking.class.getName().equals(event.getEntityType()) || event.getEntityId() == null) {
+            return;
+        }
+        List<Object[]> rows = jdbcTemplate.query(BOOKING_SQL,
+                (rs, rowNum) -> new Object[] {rs.getString("status"), (Long) rs.getObject("specialist_id")},
+                event.getEntityId());
+        if (rows.isEmpty()) {
+            update(event.getEntityId(), null, null);
+        } else {
+            update(event.getEntityId(), (String) rows.get(0)[0], (Long) rows.get(0)[1]);
+        }
+    }
+
+    // New specialists, changed services and ratings
+    @Scheduled(fixedDelayString = "${booking.assignment.refresh-interval:60000}", initialDelayString = "${booking.assignment.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            Map<Long, Double> ratings = new HashMap<>();
+            jdbcTemplate.query(SPECIALISTS_SQL, rs -> {
+                ratings.put(rs.getLong("id"), rs.getDouble("rating_average"));
+            });
+            Map<Long, Set<Long>> services = new HashMap<>();
+            jdbcTemplate.query(SERVICES_SQL, rs -> {
+                services.computeIfAbsent(rs.getLong("specialist_id"), id -> new HashSet<>()).add(rs.getLong("service_id"));
+            });
+
+            synchronized (this) {
+                Map<Long, Candidate> nextCandidates = new HashMap<>();
+                Map<Long, TreeSet<Candidate>> nextByService = new HashMap<>();
+                for (Map.Entry<Long, Double> rating : ratings.entrySet()) {
+                    Long id = rating.getKey();
+                    Candidate candidate = new Candidate(id, rating.getValue(), loads.getOrDefault(id, 0),
+                            services.getOrDefault(id, Collections.emptySet()));
+                    nextCandidates.put(id, candidate);
+                    for (Long serviceId : candidate.services) {
+                        nextByService.computeIfAbsent(serviceId, key -> new TreeSet<>(order)).add(candidate);
+                    }
+                }
+                candidates = nextCandidates;
+                byService = nextByService;
+            }
+        } catch (RuntimeException e) {
+            // The previous specialists stay in use
+            logger.warn("Refreshing specialists for assignment failed", e);
+        }
+    }
+
+    // In order of preference, the specialists offering all of the services
+    private synchronized List<Long> candidatesFor(Collection<Long> serviceIds) {
+        // Walk the service with the fewest specialists and check the others on each
+        TreeSet<Candidate> smallest = null;
+        for (Long serviceId : serviceIds) {
+            TreeSet<Candidate> offering = byService.get(serviceId);
+            if (offering == null) {
+                return Collections.emptyList();
+            }
+            if (smallest == null || offering.size() < smallest.size()) {
+                smallest = offering;
+            }
+        }
+        List<Long> preferred = new ArrayList<>();
+        for (Candidate candidate : smallest) {
+            if (candidate.services.containsAll(serviceIds)) {
+                preferred.add(candidate.id);
+                if (preferred.size() == maxCandidates) {
+                    break;
+                }
+            }
+        }
+        return preferred;
+    }
+
+    private Set<Long> offDuty(List<Long> specialistIds, LocalDateTime start, LocalDateTime end) {
+        Set<Long> offDuty = new HashSet<>();
+        LocalDateTime midnight = start.toLocalDate().plusDays(1).atStartOfDay();
+        if (end.isAfter(midnight)) {
+            // Schedules end the day they start
+            offDuty.addAll(specialistIds);
+            return offDuty;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(start.getDayOfWeek().name());
+        args.add(Time.valueOf(start.toLocalTime()));
+        args.add(Time.valueOf(end.equals(midnight) ? LocalTime.MAX : end.toLocalTime()));
+        args.addAll(specialistIds);
+        jdbcTemplate.query(String.format(SCHEDULES_SQL, String.join(", ", Collections.nCopies(specialistIds.size(), "?"))),
+                rs -> {
+                    if (!rs.getBoolean("working")) {
+                        offDuty.add(rs.getLong("specialist_id"));
+                    }
+                },
+                args.toArray());
+        return offDuty;
+    }
+
+    private synchronized void update(Long bookingId, String status, Long specialistId) {
+        Long previous = openBookings.remove(bookingId);
+        if (previous != null) {
+            adjust(previous, -1);
+        }
+        if (status != null && OPEN.contains(status) && specialistId != null) {
+            count(bookingId, specialistId);
+        }
+    }
+
+    // Caller holds the lock
+    private void count(Long bookingId, Long specialistId) {
+        openBookings.put(bookingId, specialistId);
+        adjust(specialistId, 1);
+    }
+
+    // Caller holds the lock. Moves the specialist within each service's order
+    private void adjust(Long specialistId, int delta) {
+        int load = loads.merge(specialistId, delta, Integer::sum);
+        if (load == 0) {
+            loads.remove(specialistId);
+        }
+        Candidate candidate = candidates.get(specialistId);
+        if (candidate != null) {
+            for (Long serviceId : candidate.services) {
+                byService.get(serviceId).remove(candidate);
+            }
+            candidate.load = load;
+            for (Long serviceId : candidate.services) {
+                byService.get(serviceId).add(candidate);
+            }
+        }
+    }
+
+    private static final class Candidate {
+        private final long id;
+        private final double rating;
+        private final Set<Long> services;
+        // Changed only while out of the ordered sets
+        private int load;
+
+        private Candidate(long id, double rating, int load, Set<Long> services) {
+            this.id = id;
+            this.rating = rating;
+            this.load = load;
+            this.services = services;
+        }
+    }
+}
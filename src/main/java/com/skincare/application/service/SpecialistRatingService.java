@@ -0,0 +1,49 @@
+package com.skincare.application.service;
+
+import com.skincare.application.repository.ReviewRepository;
+import com.skincare.application.repository.SpecialistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps a specialist's rating average and count in line with their reviews. The
+ * values are recomputed from scratch, so a refresh can be retried or run twice
+ * without drifting.
+ */
+@Service
+public class SpecialistRatingService {
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private SpecialistRepository specialistRepository;
+
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    // Inside a transaction the refresh waits for the commit, so it sees the change that triggered it
+    public void refresh(Long specialistId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recompute(specialistId);
+                }
+            });
+            return;
+        }
+        recompute(specialistId);
+    }
+
+    private void recompute(Long specialistId) {
+        optimisticLockRetry.run(() -> specialistRepository.findById(specialistId).ifPresent(specialist -> {
+            Double avgRating = reviewRepository.calculateAverageRatingForSpecialist(specialistId);
+            Long reviewCount = reviewRepository.countReviewsForSpecialist(specialistId);
+
+            specialist.setRatingAverage(avgRating);
+            specialist.setRatingCount(reviewCount.intValue());
+        }));
+    }
+}
@@ -0,0 +1,52 @@
+package com.skincare.application.service;
+
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.User;
+import com.skincare.application.model.WaitlistEntry;
+import com.skincare.application.repository.CustomerRepository;
+import com.skincare.application.repository.UserRepository;
+import com.skincare.application.repository.WaitlistEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+public class WaitlistAuthorizationService {
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public boolean isOwner(Long entryId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+
+        // Get the user
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (!userOpt.isPresent()) {
+            return false;
+        }
+
+        // Get the customer
+        Optional<Customer> customerOpt = customerRepository.findByUser(userOpt.get());
+        if (!customerOpt.isPresent()) {
+            return false;
+        }
+
+        // Get the waitlist entry
+        Optional<WaitlistEntry> entryOpt = waitlistEntryRepository.findById(entryId);
+        if (!entryOpt.isPresent()) {
+            return false;
+        }
+
+        // Check if the customer is the one waiting
+        return entryOpt.get().getCustomer().getId().equals(customerOpt.get().getId());
+    }
+}
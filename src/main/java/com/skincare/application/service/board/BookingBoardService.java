@@ -0,0 +1,324 @@
+package com.skincare.application.service.board;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes committed booking changes to the staff booking board as server-sent
+ * events. A change is serialized once and queued to every subscriber; sending
+ * happens on the board's own threads, never on the writer's.
+ *
+ * Each subscriber's queue is bounded. When a client falls behind, the oldest
+ * events are dropped and the client receives a RESYNC event before the rest, as
+ * its copy of the list can no longer be patched and has to be reloaded. The same
+ * number of recent events is kept for clients reconnecting with Last-Event-ID.
+ * Event ids carry an epoch picked at startup, so an id from before a restart or
+ * from another node never passes for one of this node's events: such a client
+ * resyncs too.
+ *
+ * A client that stops reading makes its sends block once the socket buffer is
+ * full. One that has been blocked for longer than send-timeout is dropped, so it
+ * neither collects events nor takes another sender thread once the blocked one is
+ * released by the container's write timeout.
+ */
+@Service
+public class BookingBoardService implements MeterBinder {
+    private static final String RESYNC = "RESYNC";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${booking.board.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${booking.board.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${booking.board.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${booking.board.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // The last buffer-size events, for reconnects: a client that missed more has to resync anyway.
+    // Guarded by itself; also orders publishing against subscribing, so a new subscriber misses nothing
+    private final Deque<BoardEvent> recent = new ArrayDeque<>();
+    private long sequence;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Unbounded queue, but a subscriber is queued at most once at a time
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "booking-board-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.board.subscribers", subscribers, Set::size)
+                .description("Open booking board connections")
+                .register(registry);
+        FunctionCounter.builder("booking.board.events", published, LongAdder::sum)
+                .description("Booking changes published to the board")
+                .register(registry);
+        FunctionCounter.builder("booking.board.dropped", dropped, LongAdder::sum)
+                .description("Events dropped from the queue of a subscriber that fell behind")
+                .register(registry);
+        FunctionCounter.builder("booking.board.stalled", stalled, LongAdder::sum)
+                .description("Subscribers disconnected for not reading within send-timeout")
+                .register(registry);
+    }
+
+    /**
+     * Opens a board connection. With the id of the last event a client received,
+     * it first gets what it missed, or RESYNC when that is no longer kept.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeout.toMillis()));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (recent) {
+            if (lastEventId != null) {
+                long last = sequenceOf(lastEventId);
+                BoardEvent oldest = recent.peekFirst();
+                if (last < 0 || last > sequence) {
+                    // Another node's or an earlier run's event, or not one at all
+                    subscriber.resync = true;
+                } else if (last < sequence) {
+                    if (oldest == null || oldest.id > last + 1) {
+                        subscriber.resync = true;
+                    } else {
+                        for (BoardEvent event : recent) {
+                            if (event.id > last) {
+                                subscriber.offer(event);
+                            }
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    // Changes that roll back never reach the board
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + change, e);
+        }
+
+        synchronized (recent) {
+            BoardEvent event = new BoardEvent(++sequence, change.getChange().name(), json);
+            recent.addLast(event);
+            if (recent.size() > bufferSize) {
+                recent.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            schedule(subscriber);
+        }
+    }
+
+    // Keeps idle connections open through proxies and finds clients that went away
+    @Scheduled(fixedDelayString = "${booking.board.heartbeat-interval:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    // Drops clients whose send has been blocked for longer than send-timeout
+    @Scheduled(fixedDelayString = "${booking.board.stall-check-interval:1000}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            // Not completed here: the emitter is locked by the blocked send until the write times out
+            if (since != 0 && now - since > sendTimeout.toNanos() && subscribers.remove(subscriber)) {
+                stalled.increment();
+                subscriber.disconnected = true;
+                subscriber.clear();
+            }
+        }
+    }
+
+    // The sequence number of one of this run's event ids, -1 for anything else
+    private long sequenceOf(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.takeResync()) {
+                send(subscriber, SseEmitter.event().name(RESYNC).data("{}", MediaType.APPLICATION_JSON));
+            }
+            BoardEvent event;
+            while ((event = subscriber.poll()) != null) {
+                send(subscriber, SseEmitter.event()
+                        .id(epoch + "-" + event.id)
+                        .name(event.name)
+                        .data(event.json, MediaType.APPLICATION_JSON));
+            }
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                send(subscriber, SseEmitter.event().comment("keep-alive"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The connection is gone; the container completes the emitter
+            subscribers.remove(subscriber);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.disconnected) {
+            // The blocked send went through after all; closing makes the client reconnect and resync
+            subscriber.emitter.complete();
+            return;
+        }
+        // Something was queued after the last poll but before the flag was cleared
+        if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendingSince = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Deque<BoardEvent> queue = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private boolean resync;
+        private volatile boolean heartbeatDue;
+        // System.nanoTime() when the send in progress started, 0 between sends
+        private volatile long sendingSince;
+        private volatile boolean disconnected;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(BoardEvent event) {
+            if (queue.size() >= bufferSize) {
+                queue.removeFirst();
+                dropped.increment();
+                resync = true;
+            }
+            queue.addLast(event);
+        }
+
+        private synchronized BoardEvent poll() {
+            return queue.pollFirst();
+        }
+
+        private synchronized boolean takeResync() {
+            boolean due = resync;
+            resync = false;
+            return due;
+        }
+
+        private synchronized void clear() {
+            queue.clear();
+            resync = false;
+        }
+
+        private synchronized boolean hasPending() {
+            return resync || !queue.isEmpty();
+        }
+    }
+
+    private static final class BoardEvent {
+        private final long id;
+        private final String name;
+        private final String json;
+
+        private BoardEvent(long id, String name, String json) {
+            this.id = id;
+            this.name = name;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.skincare.application.service.board;
+
+import com.skincare.application.model.Booking;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Published by every write that changes what the booking board shows; delivered once it has committed
+@Value
+public class BookingChangedEvent {
+    Change change;
+    Long bookingId;
+    Booking.BookingStatus status;
+    Long specialistId;
+    LocalDateTime bookingDateTime;
+    Long version;
+
+    public enum Change {
+        CREATED,
+        STATUS_CHANGED,
+        ASSIGNED
+    }
+
+    public static BookingChangedEvent of(Change change, Booking booking) {
+        return new BookingChangedEvent(change, booking.getId(), booking.getStatus(),
+                booking.getSpecialist() != null ? booking.getSpecialist().getId() : null,
+                booking.getBookingDateTime(), booking.getVersion());
+    }
+}
@@ -0,0 +1,286 @@
+package com.skincare.application.service.dashboard;
+
+import com.skincare.application.dto.DashboardSummaryDto;
+import com.skincare.application.repository.BookingArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * The figures of the admin dashboard, per time window. A summary is computed with four
+ * grouped queries run side by side on the dashboard pool, each in a read-only transaction so
+ * it goes to the replica. A booking query reaching back past the archive horizon reads the hot
+ * and archive tables in one UNION ALL statement: it sees a single snapshot, so a booking
+ * BookingArchiver moves meanwhile is counted once, not twice or never. Summaries are kept in memory and recomputed every refresh-interval
+ * while someone is looking at them, so a request is answered from memory; only the first
+ * request for a window waits for the queries, and concurrent first requests share them.
+ *
+ * A refresh computes all windows at once on the dashboard pool; the scheduler thread only
+ * starts it, so it is not held up by the queries (the scheduler also runs the sub-second
+ * invalidation poll and replica check).
+ */
+@Service
+public class DashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private static final String PEOPLE_SQL =
+            "SELECT (SELECT COUNT(*) FROM specialists) AS specialists, " +
+            "(SELECT COUNT(*) FROM customers) AS customers, " +
+            "(SELECT COUNT(*) FROM services WHERE is_active = 1) AS active_services";
+    // Booking queries group the hot tables and, for windows reaching back past the archive
+    // horizon, the archive tables too, each part on its own; the parts are added up in the
+    // same statement
+    private static final String STATUS_PART_SQL =
+            "SELECT status, COUNT(*) AS bookings FROM %s " +
+            "WHERE booking_date_time >= ? AND booking_date_time < ? GROUP BY status";
+    private static final String STATUS_SQL =
+            "SELECT status, SUM(bookings) AS bookings FROM (%s) parts GROUP BY status";
+    private static final String SERVICES_PART_SQL =
+            "SELECT bd.service_id, s.name, COUNT(*) AS bookings, SUM(bd.price) AS revenue " +
+            "FROM %s b JOIN %s bd ON bd.booking_id = b.id JOIN services s ON s.id = bd.service_id " +
+            "WHERE b.status = 'COMPLETED' AND b.booking_date_time >= ? AND b.booking_date_time < ? " +
+            "GROUP BY bd.service_id, s.name";
+    private static final String SERVICES_SQL =
+            "SELECT service_id, name, SUM(bookings) AS bookings, SUM(revenue) AS revenue " +
+            "FROM (%s) parts GROUP BY service_id, name";
+    // Reviews in the window come from idx_reviews_created_at, those awaiting approval from idx_reviews_approved
+    private static final String REVIEWS_SQL =
+            "SELECT COUNT(*) AS reviews, AVG(rating) AS average_rating, " +
+            "(SELECT COUNT(*) FROM reviews WHERE is_approved = 0) AS awaiting_approval " +
+            "FROM reviews WHERE created_at >= ? AND created_at < ?";
+    private static final String[][] HOT = {{"bookings", "booking_details"}};
+    private static final String[][] HOT_AND_ARCHIVE = {
+            {"bookings", "booking_details"}, {"bookings_archive", "booking_details_archive"}};
+
+    public enum Window {
+        TODAY(1),
+        WEEK(7),
+        MONTH(30),
+        YEAR(365);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookingArchive bookingArchive;
+
+    @Value("${dashboard.threads:4}")
+    private int threads;
+
+    @Value("${dashboard.top-services:5}")
+    private int topServices;
+
+    @Value("${dashboard.idle-after:10m}")
+    private Duration idleAfter;
+
+    private final Map<Window, CompletableFuture<DashboardSummaryDto>> summaries = new ConcurrentHashMap<>();
+    private final Map<Window, Long> lastRequested = new ConcurrentHashMap<>();
+
+    // The refresh in progress; a tick while it runs is skipped
+    private volatile CompletableFuture<Void> refreshing = CompletableFuture.completedFuture(null);
+
+    private TransactionTemplate readOnly;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        AtomicInteger threadCount = new AtomicInteger();
+        // At most threads queries at a time; a summary has four, so a refresh of every
+        // window fits the queue. Should first requests come on top, the caller runs the query itself
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 8),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public DashboardSummaryDto getSummary(Window window) {
+        lastRequested.put(window, System.nanoTime());
+        CompletableFuture<DashboardSummaryDto> summary = summaries.get(window);
+        if (summary == null) {
+            CompletableFuture<DashboardSummaryDto> computing = new CompletableFuture<>();
+            summary = summaries.putIfAbsent(window, computing);
+            if (summary == null) {
+                summary = computing;
+                compute(window).whenComplete((computed, failure) -> {
+                    if (failure != null) {
+                        // The next request tries again
+                        summaries.remove(window, computing);
+                        computing.completeExceptionally(failure);
+                    } else {
+                        computing.complete(computed);
+                    }
+                });
+            }
+        }
+        try {
+            return summary.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    // Recomputes the windows in use and forgets the others; a failed refresh keeps the last summary
+    @Scheduled(fixedDelayString = "${dashboard.refresh-interval:60000}", initialDelayString = "${dashboard.refresh-interval:60000}")
+    public void refresh() {
+        if (!refreshing.isDone()) {
+            logger.warn("The previous dashboard refresh is still running, skipping this one");
+            return;
+        }
+        long now = System.nanoTime();
+        List<CompletableFuture<?>> windows = new ArrayList<>();
+        for (Window window : summaries.keySet()) {
+            Long requested = lastRequested.get(window);
+            if (requested == null || now - requested > idleAfter.toNanos()) {
+                summaries.remove(window);
+                lastRequested.remove(window);
+                continue;
+            }
+            windows.add(compute(window).handle((computed, failure) -> {
+                if (failure != null) {
+                    logger.warn("Refreshing the {} dashboard failed", window, failure);
+                } else {
+                    summaries.put(window, CompletableFuture.completedFuture(computed));
+                }
+                return null;
+            }));
+        }
+        refreshing = CompletableFuture.allOf(windows.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Starts the window's queries; the summary is put together when the last one is done
+    private CompletableFuture<DashboardSummaryDto> compute(Window window) {
+        LocalDateTime to = LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime from = to.minusDays(window.days);
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        String[][] sources = bookingArchive.reaches(from) ? HOT_AND_ARCHIVE : HOT;
+        String statusSql = String.format(STATUS_SQL, union(STATUS_PART_SQL, sources));
+        String servicesSql = String.format(SERVICES_SQL, union(SERVICES_PART_SQL, sources));
+        // Every part takes the window
+        Object[] range = new Object[sources.length * 2];
+        for (int i = 0; i < range.length; i += 2) {
+            range[i] = start;
+            range[i + 1] = end;
+        }
+
+        CompletableFuture<Map<String, Object>> people = query(() -> jdbcTemplate.queryForMap(PEOPLE_SQL));
+        CompletableFuture<Map<String, Object>> reviews = query(() -> jdbcTemplate.queryForMap(REVIEWS_SQL, start, end));
+        CompletableFuture<List<Map<String, Object>>> statuses = query(() -> jdbcTemplate.queryForList(statusSql, range));
+        CompletableFuture<List<Map<String, Object>>> services = query(() -> jdbcTemplate.queryForList(servicesSql, range));
+
+        return CompletableFuture.allOf(people, reviews, statuses, services)
+                .thenApply(done -> summarize(window, from, to, people.join(), statuses.join(), services.join(),
+                        reviews.join()));
+    }
+
+    // The part query for each of sources (a bookings table and its details table), as one UNION ALL
+    private static String union(String partSql, String[][] sources) {
+        return Arrays.stream(sources)
+                .map(source -> String.format(partSql, (Object[]) source))
+                .collect(Collectors.joining(" UNION ALL "));
+    }
+
+    private DashboardSummaryDto summarize(Window window, LocalDateTime from, LocalDateTime to,
+                                          Map<String, Object> peopleRow,
+                                          List<Map<String, Object>> statusRows,
+                                          List<Map<String, Object>> serviceRows,
+                                          Map<String, Object> reviewRow) {
+        DashboardSummaryDto summary = new DashboardSummaryDto();
+        summary.setWindow(window.name());
+        summary.setFrom(from);
+        summary.setTo(to);
+
+        summary.setSpecialists(((Number) peopleRow.get("specialists")).longValue());
+        summary.setCustomers(((Number) peopleRow.get("customers")).longValue());
+        summary.setActiveServices(((Number) peopleRow.get("active_services")).longValue());
+
+        Map<String, Long> byStatus = new TreeMap<>();
+        for (Map<String, Object> row : statusRows) {
+            byStatus.put((String) row.get("status"), ((Number) row.get("bookings")).longValue());
+        }
+        summary.setBookingsByStatus(byStatus);
+        summary.setBookings(byStatus.values().stream().mapToLong(Long::longValue).sum());
+
+        List<DashboardSummaryDto.ServiceFigures> byService = new ArrayList<>();
+        for (Map<String, Object> row : serviceRows) {
+            DashboardSummaryDto.ServiceFigures figures = new DashboardSummaryDto.ServiceFigures();
+            figures.setServiceId(((Number) row.get("service_id")).longValue());
+            figures.setServiceName((String) row.get("name"));
+            figures.setBookings(((Number) row.get("bookings")).longValue());
+            figures.setRevenue((BigDecimal) row.get("revenue"));
+            byService.add(figures);
+        }
+        summary.setRevenue(byService.stream()
+                .map(DashboardSummaryDto.ServiceFigures::getRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        summary.setTopServices(byService.stream()
+                .sorted(Comparator.comparingLong(DashboardSummaryDto.ServiceFigures::getBookings).reversed()
+                        .thenComparing(DashboardSummaryDto.ServiceFigures::getRevenue, Comparator.reverseOrder()))
+                .limit(topServices)
+                .collect(Collectors.toList()));
+
+        summary.setReviews(reviewRow.get("reviews") != null ? ((Number) reviewRow.get("reviews")).longValue() : 0);
+        summary.setAverageRating(reviewRow.get("average_rating") != null
+                ? ((Number) reviewRow.get("average_rating")).doubleValue() : null);
+        summary.setReviewsAwaitingApproval(reviewRow.get("awaiting_approval") != null
+                ? ((Number) reviewRow.get("awaiting_approval")).longValue() : 0);
+
+        summary.setGeneratedAt(LocalDateTime.now());
+        return summary;
+    }
+
+    private <T> CompletableFuture<T> query(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> readOnly.execute(status -> work.get()), executor);
+    }
+}
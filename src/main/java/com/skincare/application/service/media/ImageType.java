@@ -0,0 +1,79 @@
+package com.skincare.application.service.media;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The image formats uploads may have, recognised by their leading bytes rather than by the
+ * name or type the client sent. Stored files carry the extension of their detected type, so
+ * the extension alone decides the Content-Type they are served with.
+ */
+public enum ImageType {
+    JPEG("jpg", "image/jpeg"),
+    PNG("png", "image/png"),
+    GIF("gif", "image/gif"),
+    WEBP("webp", "image/webp");
+
+    // Bytes detect needs to tell all types apart (RIFF....WEBP)
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87_MAGIC = "GIF87a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GIF89_MAGIC = "GIF89a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RIFF_MAGIC = "RIFF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WEBP_MAGIC = "WEBP".getBytes(StandardCharsets.US_ASCII);
+
+    private final String extension;
+    private final String contentType;
+
+    ImageType(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    // The type of a file starting with the first length bytes of header, or null if it is none of them
+    public static ImageType detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, JPEG_MAGIC)) {
+            return JPEG;
+        }
+        if (startsWith(header, length, 0, PNG_MAGIC)) {
+            return PNG;
+        }
+        if (startsWith(header, length, 0, GIF87_MAGIC) || startsWith(header, length, 0, GIF89_MAGIC)) {
+            return GIF;
+        }
+        if (startsWith(header, length, 0, RIFF_MAGIC) && startsWith(header, length, 8, WEBP_MAGIC)) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    // The type a stored file was saved as, from its extension; null for anything else
+    public static ImageType ofExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(type -> type.extension.equals(extension))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] magic) {
+        if (length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,252 @@
+package com.skincare.application.service.media;
+
+import com.skincare.application.exception.UnsupportedMediaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Content-addressed file storage under {@code file.upload-dir}. Uploads are hashed
+ * with SHA-256 while they stream to disk and kept as {@code media/<h2>/<hash>.<ext>},
+ * so identical files are stored once and their URLs never change content. Only JPEG,
+ * PNG, GIF and WebP images are accepted, recognised by their content; the extension is
+ * that of the detected type, whatever the client named the file. Images get square JPEG
+ * thumbnails, rendered on a small background pool.
+ */
+@Service
+public class MediaStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(MediaStorageService.class);
+
+    public static final String URL_PREFIX = "/uploads/";
+
+    private static final String MEDIA_DIR = "media";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${file.upload-dir:./uploads}")
+    private String uploadDir;
+
+    @Value("${media.thumbnail-sizes:64,256}")
+    private List<Integer> thumbnailSizes;
+
+    @Value("${media.thumbnail-threads:2}")
+    private int thumbnailThreads;
+
+    @Value("${media.thumbnail-queue-capacity:1000}")
+    private int thumbnailQueueCapacity;
+
+    private Path root;
+
+    private ExecutorService thumbnailExecutor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(MEDIA_DIR));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Discard when the queue is full: a missing thumbnail is regenerated by the next upload of the same file
+        thumbnailExecutor = new ThreadPoolExecutor(thumbnailThreads, thumbnailThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(thumbnailQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-thumbnail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        thumbnailExecutor.shutdown();
+    }
+
+    // Throws UnsupportedMediaException unless the content is one of the accepted image types
+    public StoredMedia store(MultipartFile file) throws IOException {
+        Path temp = Files.createTempFile(root.resolve(MEDIA_DIR), "upload-", ".tmp");
+        String hash;
+        long size = 0;
+        byte[] header = new byte[ImageType.HEADER_LENGTH];
+        int headerLength = 0;
+
+        try (InputStream in = file.getInputStream();
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                if (headerLength < header.length) {
+                    int copied = Math.min(read, header.length - headerLength);
+                    System.arraycopy(buffer, 0, header, headerLength, copied);
+                    headerLength += copied;
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    out.write(chunk);
+                }
+                size += read;
+            }
+            hash = toHex(digest.digest());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        ImageType type = ImageType.detect(header, headerLength);
+        if (type == null) {
+            Files.delete(temp);
+            throw new UnsupportedMediaException("Only JPEG, PNG, GIF and WebP images can be uploaded");
+        }
+
+        Path target = pathFor(hash, type.getExtension());
+        Files.createDirectories(target.getParent());
+        if (Files.exists(target)) {
+            // Same content already stored
+            Files.delete(temp);
+        } else {
+            // A concurrent upload of the same bytes may win the race; replacing identical content is harmless
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        scheduleThumbnails(hash, target);
+
+        return new StoredMedia(hash, urlFor(target), type.getContentType(), size, thumbnailUrls(hash));
+    }
+
+    // Maps a path below /uploads/ to a file on disk, or null if it escapes the upload directory or does not exist
+    public Path resolve(String relativePath) {
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root) || !Files.isRegularFile(path)) {
+            return null;
+        }
+        return path;
+    }
+
+    // The image type a stored file or thumbnail was saved as; null for any other file under the upload directory
+    public ImageType imageTypeOf(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? ImageType.ofExtension(name.substring(dot + 1)) : null;
+    }
+
+    // Content-addressed files are named by their hash (thumbnails add a _<size> suffix); others return null
+    public String contentHashOf(Path path) {
+        if (!path.startsWith(root.resolve(MEDIA_DIR))) {
+            return null;
+        }
+        String name = path.getFileName().toString();
+        int dot = name.indexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private void scheduleThumbnails(String hash, Path original) {
+        for (Integer size : thumbnailSizes) {
+            Path thumbnail = thumbnailPath(hash, size);
+            if (!Files.exists(thumbnail)) {
+                thumbnailExecutor.execute(() -> writeThumbnail(original, thumbnail, size));
+            }
+        }
+    }
+
+    private void writeThumbnail(Path original, Path thumbnail, int size) {
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                // Not an image ImageIO can decode
+                return;
+            }
+
+            // Centre-crop to a square, then scale to the fixed size on a white background
+            int side = Math.min(source.getWidth(), source.getHeight());
+            int x = (source.getWidth() - side) / 2;
+            int y = (source.getHeight() - side) / 2;
+
+            BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(java.awt.Color.WHITE);
+                graphics.fillRect(0, 0, size, size);
+                graphics.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            Path temp = Files.createTempFile(thumbnail.getParent(), "thumb-", ".tmp");
+            try {
+                ImageIO.write(scaled, "jpg", temp.toFile());
+                Files.move(temp, thumbnail, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to create {}px thumbnail for {}: {}", size, original, e.getMessage());
+        }
+    }
+
+    private Map<Integer, String> thumbnailUrls(String hash) {
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        for (Integer size : thumbnailSizes) {
+            urls.put(size, urlFor(thumbnailPath(hash, size)));
+        }
+        return Collections.unmodifiableMap(urls);
+    }
+
+    private Path pathFor(String hash, String extension) {
+        return root.resolve(MEDIA_DIR).resolve(hash.substring(0, 2)).resolve(hash + "." + extension);
+    }
+
+    private Path thumbnailPath(String hash, int size) {
+        return root.resolve(MEDIA_DIR).resolve(hash.substring(0, 2)).resolve(hash + "_" + size + ".jpg");
+    }
+
+    private String urlFor(Path path) {
+        return URL_PREFIX + root.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.skincare.application.service.media;
+
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+public class StoredMedia {
+    String hash;
+    String url;
+    String contentType;
+    long size;
+    // Thumbnail size in pixels -> URL; files appear once the background resize has finished
+    Map<Integer, String> thumbnails;
+}
@@ -0,0 +1,106 @@
+package com.skincare.application.service.notification;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.User;
+import com.skincare.application.repository.BookingDetailRepository;
+import com.skincare.application.repository.BookingRepository;
+import com.skincare.application.service.board.BookingChangedEvent;
+import com.skincare.application.service.settings.GeneralSettings;
+import com.skincare.application.service.settings.NotificationSettings;
+import com.skincare.application.service.settings.SettingsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Queues the notifications a booking change calls for, as enabled in the
+ * notification settings. Runs inside the transaction that made the change, so the
+ * outbox rows commit or roll back with it.
+ */
+@Component
+public class BookingNotificationListener {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Autowired
+    private SettingsService settingsService;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent change) {
+        NotificationSettings settings = settingsService.getNotificationSettings();
+        switch (change.getChange()) {
+            case CREATED:
+                if (settings.isSendBookingConfirmations()) {
+                    notifyCustomer(change, NotificationType.BOOKING_CONFIRMATION, "booking-confirmation:" + change.getBookingId());
+                }
+                String adminEmail = settings.getAdminNotificationEmail();
+                if (settings.isSendAdminNotifications() && adminEmail != null && !adminEmail.isEmpty()) {
+                    notificationOutbox.enqueue(NotificationType.ADMIN_NEW_BOOKING, adminEmail,
+                            modelOf(load(change)), change.getBookingId(), "admin-new-booking:" + change.getBookingId());
+                }
+                break;
+            case STATUS_CHANGED:
+                // Keyed by version: a booking cancelled, reopened and cancelled again is announced twice
+                if (change.getStatus() == Booking.BookingStatus.CANCELLED && settings.isSendCancellationNotifications()) {
+                    notifyCustomer(change, NotificationType.BOOKING_CANCELLATION,
+                            "booking-cancellation:" + change.getBookingId() + ":" + change.getVersion());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void notifyCustomer(BookingChangedEvent change, NotificationType type, String dedupKey) {
+        notifyCustomer(load(change), type, dedupKey);
+    }
+
+    // Call inside a transaction
+    void notifyCustomer(Booking booking, NotificationType type, String dedupKey) {
+        User user = booking.getCustomer().getUser();
+        if (user.getEmail() != null && !user.getEmail().isEmpty()) {
+            notificationOutbox.enqueue(type, user.getEmail(), modelOf(booking), booking.getId(), dedupKey);
+        }
+    }
+
+    // Usually already in the persistence context of the transaction that published the change
+    private Booking load(BookingChangedEvent change) {
+        return bookingRepository.findSummaryById(change.getBookingId())
+                .orElseThrow(() -> new IllegalStateException("Booking " + change.getBookingId() + " not found"));
+    }
+
+    private Map<String, Object> modelOf(Booking booking) {
+        GeneralSettings general = settingsService.getGeneralSettings();
+        Map<String, Object> model = new HashMap<>();
+        model.put("bookingId", booking.getId());
+        model.put("bookingTime", booking.getBookingDateTime() != null
+                ? booking.getBookingDateTime().format(TIME_FORMAT) : "-");
+        model.put("customerName", nameOf(booking.getCustomer().getUser()));
+        model.put("specialistName", booking.getSpecialist() != null
+                ? nameOf(booking.getSpecialist().getUser()) : "to be assigned");
+        model.put("services", bookingDetailRepository.findByBooking(booking).stream()
+                .map(detail -> detail.getService().getName())
+                .collect(Collectors.joining(", ")));
+        model.put("siteName", Objects.toString(general.getSiteName(), ""));
+        model.put("contactPhone", Objects.toString(general.getContactPhone(), ""));
+        return model;
+    }
+
+    private static String nameOf(User user) {
+        return user.getFullName() != null ? user.getFullName() : user.getUsername();
+    }
+}
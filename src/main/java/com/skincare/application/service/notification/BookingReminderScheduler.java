@@ -0,0 +1,380 @@
+package com.skincare.application.service.notification;
+
+import com.skincare.application.cache.CacheInvalidationBus;
+import com.skincare.application.cache.InvalidationEvent;
+import com.skincare.application.model.Booking;
+import com.skincare.application.repository.BookingRepository;
+import com.skincare.application.service.board.BookingChangedEvent;
+import com.skincare.application.service.settings.NotificationSettings;
+import com.skincare.application.service.settings.SettingsService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queues a reminder reminderHoursBefore each upcoming booking. The reminders due
+ * within the window are kept in a timing wheel, filled from the bookings table at
+ * startup and as time moves on, and kept current from BookingChangedEvent; a tick
+ * hands the due ones to the outbox. The wheel is only an index: each reminder is
+ * checked against the booking before it is queued, so a missed or stale change
+ * costs a lookup, not a wrong message.
+ *
+ * Every node runs its own wheel and the outbox dedup key sends each reminder once;
+ * changes reach the other nodes' wheels through the cache invalidation bus.
+ * How far the wheels have got is kept in scheduler_cursors, so a restarted node
+ * queues what came due while it was down and nothing before that.
+ */
+@Component
+public class BookingReminderScheduler implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(BookingReminderScheduler.class);
+
+    private static final String CURSOR = "booking-reminders";
+    private static final Set<Booking.BookingStatus> UPCOMING =
+            EnumSet.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+
+    private static final String UPCOMING_SQL =
+            "SELECT id, booking_date_time FROM bookings " +
+            "WHERE booking_date_time >= ? AND (booking_date_time > ? OR id > ?) AND booking_date_time <= ? " +
+            "AND status IN ('PENDING', 'CONFIRMED') ORDER BY booking_date_time, id LIMIT ?";
+    private static final String BOOKING_SQL = "SELECT status, booking_date_time FROM bookings WHERE id = ?";
+    private static final String CURSOR_SQL = "SELECT position FROM scheduler_cursors WHERE name = ?";
+    // Nodes only ever move the cursor forward
+    private static final String SAVE_CURSOR_SQL =
+            "INSERT INTO scheduler_cursors (name, position) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE position = GREATEST(position, VALUES(position))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SettingsService settingsService;
+
+    @Autowired
+    private BookingNotificationListener bookingNotificationListener;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Value("${booking.reminder.tick:1m}")
+    private Duration tick;
+
+    @Value("${booking.reminder.window:7d}")
+    private Duration window;
+
+    @Value("${booking.reminder.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    // Guarded by this; wheel is null until the first load has started
+    private TimingWheel<Long> wheel;
+    private final Map<Long, TimingWheel.Timeout<Long>> timeouts = new HashMap<>();
+    private int hoursBefore;
+    // Reminders due up to here are in the wheel
+    private LocalDateTime loadedUntil;
+
+    private final LongAdder queued = new LongAdder();
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService executor;
+    private long savedTick = Long.MIN_VALUE;
+
+    @PostConstruct
+    public void init() {
+        if (window.toMillis() / tick.toMillis() >= TimingWheel.SPAN / 2) {
+            throw new IllegalStateException("booking.reminder.window is too long for a tick of " + tick);
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Loading may take a while with many bookings, so it does not hold up startup
+        executor.execute(this::start);
+        executor.scheduleWithFixedDelay(this::advance, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.reminders.pending", this, BookingReminderScheduler::pending)
+                .description("Reminders waiting in the timing wheel")
+                .register(registry);
+        FunctionCounter.builder("booking.reminders.queued", queued, LongAdder::sum)
+                .description("Reminders handed to the notification outbox")
+                .register(registry);
+    }
+
+    // Changes that roll back leave the wheel alone
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        synchronized (this) {
+            if (wheel != null) {
+                reschedule(change.getBookingId(), UPCOMING.contains(change.getStatus())
+                        ? change.getBookingDateTime() : null);
+            }
+        }
+    }
+
+    // Runs in the writing transaction, so other nodes only hear of committed changes
+    @EventListener
+    public void announce(BookingChangedEvent change) {
+        invalidationBus.publish(Booking.class.getName(), change.getBookingId(), change.getVersion());
+    }
+
+    // A booking changed on another node
+    @EventListener
+    public void onInvalidation(InvalidationEvent event) {
+        if (Booking.class.getName().equals(event.getEntityType()) && event.getEntityId() != null) {
+            executor.execute(() -> refresh(event.getEntityId()));
+        }
+    }
+
+    private void refresh(Long bookingId) {
+        try {
+            List<Object[]> rows = jdbcTemplate.query(BOOKING_SQL, (rs, rowNum) -> new Object[] {
+                    rs.getString("status"), rs.getTimestamp("booking_date_time")}, bookingId);
+            LocalDateTime bookingDateTime = null;
+            if (!rows.isEmpty() && rows.get(0)[0] != null && rows.get(0)[1] != null
+                    && UPCOMING.contains(Booking.BookingStatus.valueOf((String) rows.get(0)[0]))) {
+                bookingDateTime = ((Timestamp) rows.get(0)[1]).toLocalDateTime();
+            }
+            synchronized (this) {
+                if (wheel != null) {
+                    reschedule(bookingId, bookingDateTime);
+                }
+            }
+        } catch (RuntimeException e) {
+            // The reminder is still checked against the booking when it comes due
+            logger.warn("Refreshing the reminder of booking {} failed", bookingId, e);
+        }
+    }
+
+    private void start() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime from = now;
+            List<Timestamp> cursor = jdbcTemplate.queryForList(CURSOR_SQL, Timestamp.class, CURSOR);
+            if (!cursor.isEmpty()) {
+                // Catch up on what came due while no node was running, as far back as the window
+                LocalDateTime position = cursor.get(0).toLocalDateTime();
+                if (position.isBefore(now)) {
+                    from = position.isAfter(now.minus(window)) ? position : now.minus(window);
+                }
+            }
+            synchronized (this) {
+                wheel = new TimingWheel<>(tickOf(from));
+                hoursBefore = settingsService.getNotificationSettings().getReminderHoursBefore();
+                loadedUntil = timeOf(wheel.getCurrentTick());
+            }
+            load(now);
+        } catch (RuntimeException e) {
+            // The next tick starts over
+            logger.warn("Loading booking reminders failed", e);
+            synchronized (this) {
+                timeouts.clear();
+                wheel = null;
+            }
+        }
+    }
+
+    private void advance() {
+        try {
+            boolean started;
+            synchronized (this) {
+                started = wheel != null;
+            }
+            if (!started) {
+                start();
+                return;
+            }
+            NotificationSettings settings = settingsService.getNotificationSettings();
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> due = new ArrayList<>();
+            long reached;
+            synchronized (this) {
+                if (settings.getReminderHoursBefore() != hoursBefore) {
+                    // Every reminder moves; start over from the bookings table
+                    logger.info("Reminder lead time changed from {} to {} hours, reloading",
+                            hoursBefore, settings.getReminderHoursBefore());
+                    timeouts.clear();
+                    wheel = new TimingWheel<>(wheel.getCurrentTick());
+                    hoursBefore = settings.getReminderHoursBefore();
+                    loadedUntil = timeOf(wheel.getCurrentTick());
+                }
+                wheel.advanceTo(tickOf(now), bookingId -> {
+                    timeouts.remove(bookingId);
+                    due.add(bookingId);
+                });
+                reached = wheel.getCurrentTick();
+            }
+
+            for (Long bookingId : due) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> remind(bookingId, settings, now));
+                } catch (RuntimeException e) {
+                    // The booking may have changed meanwhile; the outbox is only written on success
+                    logger.warn("Queueing the reminder for booking {} failed", bookingId, e);
+                }
+            }
+            if (reached != savedTick) {
+                jdbcTemplate.update(SAVE_CURSOR_SQL, CURSOR, Timestamp.valueOf(timeOf(reached)));
+                savedTick = reached;
+            }
+            load(now);
+        } catch (RuntimeException e) {
+            logger.warn("Booking reminder tick failed", e);
+        }
+    }
+
+    private void remind(Long bookingId, NotificationSettings settings, LocalDateTime now) {
+        Booking booking = bookingRepository.findSummaryById(bookingId).orElse(null);
+        if (booking == null || !UPCOMING.contains(booking.getStatus()) || booking.getBookingDateTime() == null
+                || !booking.getBookingDateTime().isAfter(now)) {
+            return;
+        }
+        LocalDateTime remindAt = booking.getBookingDateTime().minusHours(settings.getReminderHoursBefore());
+        if (remindAt.isAfter(now)) {
+            // Moved to a later time by a change this node has not seen yet
+            synchronized (this) {
+                reschedule(bookingId, booking.getBookingDateTime());
+            }
+            return;
+        }
+        // A booking made less than reminderHoursBefore ahead only gets its confirmation
+        if (booking.getCreatedAt() != null && !booking.getCreatedAt().isBefore(remindAt)) {
+            return;
+        }
+        if (settings.isSendBookingReminders()) {
+            bookingNotificationListener.notifyCustomer(booking, NotificationType.BOOKING_REMINDER,
+                    "booking-reminder:" + bookingId + ":" + booking.getBookingDateTime());
+            queued.increment();
+        }
+    }
+
+    // Reads the bookings whose reminders fall between loadedUntil and the end of the window, in
+    // batches. The window is extended first, so changes made while loading reach the wheel; a row
+    // read before such a change does not replace the reminder the change set
+    private void load(LocalDateTime now) {
+        LocalDateTime until = now.plus(window);
+        int hours;
+        LocalDateTime from;
+        synchronized (this) {
+            if (loadedUntil.isAfter(now.plus(window.dividedBy(2)))) {
+                return;
+            }
+            hours = hoursBefore;
+            from = loadedUntil;
+            loadedUntil = until;
+        }
+        // Bookings that have already started need no reminder
+        LocalDateTime after = from.plusHours(hours).isAfter(now) ? from.plusHours(hours) : now;
+        LocalDateTime last = until.plusHours(hours);
+        long afterId = Long.MAX_VALUE;
+        int loaded = 0;
+        List<Object[]> rows;
+        try {
+            do {
+                rows = jdbcTemplate.query(UPCOMING_SQL,
+                        (rs, rowNum) -> new Object[] {rs.getLong("id"), rs.getTimestamp("booking_date_time").toLocalDateTime()},
+                        Timestamp.valueOf(after), Timestamp.valueOf(after), afterId, Timestamp.valueOf(last), loadBatchSize);
+                synchronized (this) {
+                    if (hoursBefore != hours) {
+                        // Reloaded with the new lead time on the next tick
+                        return;
+                    }
+                    for (Object[] row : rows) {
+                        if (!timeouts.containsKey((Long) row[0])) {
+                            reschedule((Long) row[0], (LocalDateTime) row[1]);
+                        }
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    Object[] lastRow = rows.get(rows.size() - 1);
+                    afterId = (Long) lastRow[0];
+                    after = (LocalDateTime) lastRow[1];
+                }
+                loaded += rows.size();
+            } while (rows.size() == loadBatchSize);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (hoursBefore == hours) {
+                    loadedUntil = from;
+                }
+            }
+            throw e;
+        }
+        logger.debug("Loaded {} booking reminders due up to {}", loaded, until);
+    }
+
+    // Caller holds the lock. Replaces the booking's reminder; null or a reminder beyond the
+    // window only removes it, as the window is filled from the table when it gets there
+    private void reschedule(Long bookingId, LocalDateTime bookingDateTime) {
+        TimingWheel.Timeout<Long> previous = timeouts.remove(bookingId);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        if (bookingDateTime != null) {
+            LocalDateTime remindAt = bookingDateTime.minusHours(hoursBefore);
+            if (!remindAt.isAfter(loadedUntil)) {
+                // Due reminders of bookings that have not started yet fire on the next tick
+                timeouts.put(bookingId, wheel.schedule(deadlineOf(remindAt), bookingId));
+            }
+        }
+    }
+
+    private synchronized int pending() {
+        return timeouts.size();
+    }
+
+    private long tickOf(LocalDateTime time) {
+        return Math.floorDiv(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), tick.toMillis());
+    }
+
+    // The first tick at or after time, so a reminder never goes out early
+    private long deadlineOf(LocalDateTime time) {
+        long millis = time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.floorDiv(millis + tick.toMillis() - 1, tick.toMillis());
+    }
+
+    private LocalDateTime timeOf(long tickNumber) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(tickNumber * tick.toMillis()), ZoneId.systemDefault());
+    }
+}
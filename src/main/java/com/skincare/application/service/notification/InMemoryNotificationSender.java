@@ -0,0 +1,58 @@
+package com.skincare.application.service.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Logs notifications and keeps the most recent ones instead of sending them. For
+ * development and tests, which can also make the next sends fail to exercise
+ * retries.
+ */
+public class InMemoryNotificationSender implements NotificationSender {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryNotificationSender.class);
+
+    private final int capacity;
+    private final Deque<NotificationMessage> sent = new ArrayDeque<>();
+    private final AtomicInteger failuresPending = new AtomicInteger();
+
+    public InMemoryNotificationSender(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void send(NotificationMessage message) {
+        if (failuresPending.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+            throw new IllegalStateException("Simulated delivery failure");
+        }
+        logger.info("{} to {}: {}", message.getType(), message.getRecipient(), message.getSubject());
+        synchronized (sent) {
+            if (sent.size() >= capacity) {
+                sent.removeFirst();
+            }
+            sent.addLast(message);
+        }
+    }
+
+    public List<NotificationMessage> getSent() {
+        synchronized (sent) {
+            return new ArrayList<>(sent);
+        }
+    }
+
+    // The next count sends throw
+    public void failNext(int count) {
+        failuresPending.set(count);
+    }
+
+    public void clear() {
+        synchronized (sent) {
+            sent.clear();
+        }
+    }
+}
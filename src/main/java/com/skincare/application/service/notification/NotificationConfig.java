@@ -0,0 +1,40 @@
+package com.skincare.application.service.notification;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.util.StringUtils;
+
+/**
+ * notification.sender selects the NotificationSender: smtp (default) mails through
+ * spring.mail.* and refuses to start without a mail host; memory only logs and keeps
+ * recent messages, and is meant for the dev, test and perf profiles.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.sender", havingValue = "smtp", matchIfMissing = true)
+    public SmtpNotificationSender smtpNotificationSender(ObjectProvider<JavaMailSender> mailSender,
+                                                        @Value("${spring.mail.host:}") String host,
+                                                        @Value("${notification.mail.from:}") String from) {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (!StringUtils.hasText(host) || sender == null) {
+            throw new IllegalStateException("notification.sender=smtp needs spring.mail.host; "
+                    + "set notification.sender=memory only for development and tests");
+        }
+        if (!StringUtils.hasText(from)) {
+            throw new IllegalStateException("notification.sender=smtp needs notification.mail.from");
+        }
+        return new SmtpNotificationSender(sender, from);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.sender", havingValue = "memory")
+    public InMemoryNotificationSender inMemoryNotificationSender(@Value("${notification.memory.capacity:1000}") int capacity) {
+        return new InMemoryNotificationSender(capacity);
+    }
+}
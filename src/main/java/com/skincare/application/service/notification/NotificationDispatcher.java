@@ -0,0 +1,275 @@
+package com.skincare.application.service.notification;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends what NotificationOutbox queued, on one background thread per node. Each
+ * round claims a batch of due rows with SELECT ... FOR UPDATE SKIP LOCKED, so nodes
+ * polling at the same time take different rows, and leases them by moving
+ * next_attempt_at ahead; the rows are then rendered and sent outside the
+ * transaction. A failed send is tried again after an exponentially growing delay
+ * until max-attempts, then left as FAILED.
+ *
+ * Sent, retried and failed messages are counted as notification.outbox.*; the time
+ * from queueing to sending is notification.outbox.delay.
+ */
+@Service
+public class NotificationDispatcher implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String CLAIM_SQL =
+            "SELECT id, type, recipient, model, attempts, " +
+            "TIMESTAMPDIFF(MICROSECOND, created_at, NOW(6)) AS age_micros FROM notification_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= NOW(6) " +
+            "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String LEASE_SQL =
+            "UPDATE notification_outbox SET attempts = attempts + 1, next_attempt_at = NOW(6) + INTERVAL ? SECOND " +
+            "WHERE id IN (%s)";
+    // Guarded by the attempt, so a node whose lease ran out cannot overwrite the outcome of the next one
+    private static final String SENT_SQL =
+            "UPDATE notification_outbox SET status = 'SENT', sent_at = NOW(6), last_error = NULL " +
+            "WHERE id = ? AND attempts = ?";
+    private static final String RETRY_SQL =
+            "UPDATE notification_outbox SET next_attempt_at = NOW(6) + INTERVAL ? MICROSECOND, last_error = ? " +
+            "WHERE id = ? AND attempts = ?";
+    private static final String FAILED_SQL =
+            "UPDATE notification_outbox SET status = 'FAILED', last_error = ? WHERE id = ? AND attempts = ?";
+    private static final String PURGE_SQL =
+            "DELETE FROM notification_outbox WHERE status = 'SENT' AND sent_at < NOW(6) - INTERVAL ? SECOND";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NotificationSender sender;
+
+    @Autowired
+    private NotificationTemplates templates;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${notification.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.outbox.poll-interval:5000}")
+    private long pollInterval;
+
+    @Value("${notification.outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${notification.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${notification.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Value("${notification.outbox.retention:7d}")
+    private Duration retention;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile Timer delay;
+
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::dispatch, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::purge, 1, 1, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("notification.outbox.sent", sent, LongAdder::sum)
+                .description("Notifications delivered to the sender")
+                .register(registry);
+        FunctionCounter.builder("notification.outbox.retried", retried, LongAdder::sum)
+                .description("Failed sends scheduled for another attempt")
+                .register(registry);
+        FunctionCounter.builder("notification.outbox.failed", failed, LongAdder::sum)
+                .description("Notifications given up on after max-attempts or a rendering error")
+                .register(registry);
+        delay = Timer.builder("notification.outbox.delay")
+                .description("Time from a notification being queued to it being sent")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Runs a round soon on the dispatcher thread; calls while one is already queued are merged
+    public void wake() {
+        if (wakeQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeQueued.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    private void dispatch() {
+        try {
+            List<OutboxRow> batch;
+            do {
+                batch = claim();
+                for (OutboxRow row : batch) {
+                    deliver(row);
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the rows stay due and are claimed again
+            logger.warn("Notification dispatch failed", e);
+        }
+    }
+
+    private List<OutboxRow> claim() {
+        return transactionTemplate.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(CLAIM_SQL, ROW_MAPPER, batchSize);
+            if (!rows.isEmpty()) {
+                Object[] args = new Object[rows.size() + 1];
+                args[0] = lease.getSeconds();
+                for (int i = 0; i < rows.size(); i++) {
+                    args[i + 1] = rows.get(i).id;
+                }
+                jdbcTemplate.update(String.format(LEASE_SQL, String.join(", ", Collections.nCopies(rows.size(), "?"))),
+                        args);
+            }
+            return rows;
+        });
+    }
+
+    private void deliver(OutboxRow row) {
+        NotificationMessage message;
+        try {
+            Map<String, Object> model = objectMapper.readValue(row.model, new TypeReference<Map<String, Object>>() {});
+            message = templates.render(NotificationType.valueOf(row.type), row.recipient, model);
+        } catch (IOException | IllegalArgumentException e) {
+            // Trying again renders the same row the same way
+            logger.error("Cannot render notification {}", row.id, e);
+            jdbcTemplate.update(FAILED_SQL, errorOf(e), row.id, row.attempts);
+            failed.increment();
+            return;
+        }
+
+        long started = System.nanoTime();
+        try {
+            sender.send(message);
+        } catch (RuntimeException e) {
+            if (row.attempts >= maxAttempts) {
+                logger.error("Giving up on notification {} after {} attempts", row.id, row.attempts, e);
+                jdbcTemplate.update(FAILED_SQL, errorOf(e), row.id, row.attempts);
+                failed.increment();
+            } else {
+                logger.warn("Sending notification {} failed on attempt {}: {}", row.id, row.attempts, e.toString());
+                jdbcTemplate.update(RETRY_SQL, backoffMicros(row.attempts), errorOf(e), row.id, row.attempts);
+                retried.increment();
+            }
+            return;
+        }
+
+        jdbcTemplate.update(SENT_SQL, row.id, row.attempts);
+        sent.increment();
+        Timer timer = delay;
+        if (timer != null && row.ageMicros >= 0) {
+            timer.record(TimeUnit.MICROSECONDS.toNanos(row.ageMicros) + System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void purge() {
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL, retention.getSeconds());
+            if (purged > 0) {
+                logger.debug("Purged {} sent notifications older than {}", purged, retention);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Purging sent notifications failed", e);
+        }
+    }
+
+    // Doubles with every attempt up to max-backoff; the jitter spreads out messages that failed together
+    private long backoffMicros(int attempt) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(initialBackoff.toNanos()) << Math.min(attempt - 1, 30),
+                TimeUnit.NANOSECONDS.toMicros(maxBackoff.toNanos()));
+        return micros / 2 + ThreadLocalRandom.current().nextLong(micros / 2 + 1);
+    }
+
+    private static String errorOf(Exception e) {
+        String error = e.toString();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rs, rowNum) -> new OutboxRow(
+            rs.getLong("id"),
+            rs.getString("type"),
+            rs.getString("recipient"),
+            rs.getString("model"),
+            rs.getInt("attempts") + 1,
+            rs.getLong("age_micros"));
+
+    private static final class OutboxRow {
+        private final long id;
+        private final String type;
+        private final String recipient;
+        private final String model;
+        // This attempt, as counted by the lease
+        private final int attempts;
+        private final long ageMicros;
+
+        private OutboxRow(long id, String type, String recipient, String model, int attempts, long ageMicros) {
+            this.id = id;
+            this.type = type;
+            this.recipient = recipient;
+            this.model = model;
+            this.attempts = attempts;
+            this.ageMicros = ageMicros;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.skincare.application.service.notification;
+
+import lombok.Value;
+
+@Value
+public class NotificationMessage {
+    NotificationType type;
+    String recipient;
+    String subject;
+    String body;
+}
@@ -0,0 +1,58 @@
+package com.skincare.application.service.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Queues notifications in notification_outbox as part of the caller's transaction:
+ * a notification exists exactly when the change it announces was committed, and
+ * the request does not wait for it to be sent.
+ */
+@Service
+public class NotificationOutbox {
+    // A repeated dedup key is ignored, so announcing the same change twice sends one message
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_outbox (type, recipient, model, dedup_key, booking_id, status, next_attempt_at) " +
+            "VALUES (?, ?, ?, ?, ?, 'PENDING', NOW(6)) ON DUPLICATE KEY UPDATE id = id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    /**
+     * @param model     values for the template's placeholders, as of now
+     * @param dedupKey  identifies the change announced, or null
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(NotificationType type, String recipient, Map<String, ?> model, Long bookingId, String dedupKey) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(model);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize notification model " + model, e);
+        }
+        jdbcTemplate.update(INSERT_SQL, type.name(), recipient, json, dedupKey, bookingId);
+
+        // Send right after the commit rather than at the next poll
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notificationDispatcher.wake();
+            }
+        });
+    }
+}
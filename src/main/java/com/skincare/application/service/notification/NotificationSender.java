@@ -0,0 +1,11 @@
+package com.skincare.application.service.notification;
+
+/**
+ * Delivers a rendered notification, e.g. through SMTP. Called by the dispatcher
+ * outside any transaction; throwing makes the dispatcher try the message again
+ * later. A message may be delivered more than once if a node dies after sending
+ * and before recording it.
+ */
+public interface NotificationSender {
+    void send(NotificationMessage message);
+}
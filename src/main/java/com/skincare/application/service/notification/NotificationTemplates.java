@@ -0,0 +1,67 @@
+package com.skincare.application.service.notification;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plain-text templates under notifications/ on the classpath: a "Subject: " line,
+ * a blank line and the body, with {{name}} placeholders filled from the model
+ * stored with the outbox row. All templates are loaded at startup, so a missing
+ * one stops the application instead of every send.
+ */
+@Component
+public class NotificationTemplates {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)}}");
+    private static final String SUBJECT_PREFIX = "Subject: ";
+
+    private final Map<NotificationType, String[]> templates = new EnumMap<>(NotificationType.class);
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (NotificationType type : NotificationType.values()) {
+            String path = "notifications/" + type.getTemplate() + ".txt";
+            String text;
+            try (InputStream in = new ClassPathResource(path).getInputStream()) {
+                text = StreamUtils.copyToString(in, StandardCharsets.UTF_8).replace("\r\n", "\n");
+            }
+            int subjectEnd = text.indexOf("\n\n");
+            if (!text.startsWith(SUBJECT_PREFIX) || subjectEnd < 0) {
+                throw new IllegalStateException(path + " must start with a Subject line followed by a blank line");
+            }
+            templates.put(type, new String[] {
+                    text.substring(SUBJECT_PREFIX.length(), subjectEnd), text.substring(subjectEnd + 2)});
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the model lacks a value the template uses
+     */
+    public NotificationMessage render(NotificationType type, String recipient, Map<String, ?> model) {
+        String[] template = templates.get(type);
+        return new NotificationMessage(type, recipient, fill(template[0], model), fill(template[1], model));
+    }
+
+    private static String fill(String template, Map<String, ?> model) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            Object value = model.get(matcher.group(1));
+            if (value == null) {
+                throw new IllegalArgumentException("No value for {{" + matcher.group(1) + "}}");
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value.toString()));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.skincare.application.service.notification;
+
+// Each type is rendered from notifications/<template>.txt on the classpath
+public enum NotificationType {
+    BOOKING_CONFIRMATION("booking-confirmation"),
+    BOOKING_REMINDER("booking-reminder"),
+    BOOKING_CANCELLATION("booking-cancellation"),
+    ADMIN_NEW_BOOKING("admin-new-booking");
+
+    private final String template;
+
+    NotificationType(String template) {
+        this.template = template;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+}
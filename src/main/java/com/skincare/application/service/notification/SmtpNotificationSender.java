@@ -0,0 +1,28 @@
+package com.skincare.application.service.notification;
+
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Mails notifications as plain text through the SMTP server configured under
+ * spring.mail. A MailException propagates so the dispatcher tries again later.
+ */
+public class SmtpNotificationSender implements NotificationSender {
+    private final JavaMailSender mailSender;
+    private final String from;
+
+    public SmtpNotificationSender(JavaMailSender mailSender, String from) {
+        this.mailSender = mailSender;
+        this.from = from;
+    }
+
+    @Override
+    public void send(NotificationMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(from);
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        mailSender.send(mail);
+    }
+}
@@ -0,0 +1,168 @@
+package com.skincare.application.service.notification;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: LEVELS wheels of SLOTS buckets, where a bucket of level
+ * n spans SLOTS^n ticks. A timer goes into the lowest level whose span covers its
+ * deadline and moves down a level each time the wheel above reaches its bucket, so
+ * scheduling and cancelling are O(1) and each tick only touches the timers due in it.
+ *
+ * Ticks are plain numbers; the caller decides how long one is. Not thread-safe.
+ */
+class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /** Furthest a deadline can be from the current tick */
+    static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final Bucket<T>[][] buckets;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long startTick) {
+        buckets = new Bucket[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                buckets[level][slot] = new Bucket<>();
+            }
+        }
+        currentTick = startTick;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules value to expire at deadline; a deadline already passed expires on the next tick.
+     *
+     * @throws IllegalArgumentException if deadline is SPAN or more ticks ahead
+     */
+    Timeout<T> schedule(long deadline, T value) {
+        if (deadline - currentTick >= SPAN) {
+            throw new IllegalArgumentException("Deadline " + deadline + " is beyond the wheel at " + currentTick);
+        }
+        Timeout<T> timeout = new Timeout<>(Math.max(deadline, currentTick + 1), value);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    // Does nothing for a timeout that already expired or was cancelled
+    void cancel(Timeout<T> timeout) {
+        if (timeout.bucket != null) {
+            timeout.bucket.remove(timeout);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the wheel forward to tick, handing every timer that expires on the way to
+     * expired, in deadline order.
+     */
+    void advanceTo(long tick, Consumer<T> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            // The higher wheels turn over when all lower ones have wrapped around; their
+            // timers move down before the lowest bucket of this tick expires
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    Bucket<T> bucket = bucket(level, currentTick);
+                    Timeout<T> timeout;
+                    while ((timeout = bucket.poll()) != null) {
+                        place(timeout);
+                    }
+                }
+            }
+            Bucket<T> due = bucket(0, currentTick);
+            Timeout<T> timeout;
+            while ((timeout = due.poll()) != null) {
+                size--;
+                expired.accept(timeout.value);
+            }
+        }
+    }
+
+    // A deadline less than SLOTS^(n+1) ticks away goes into level n, in the bucket that
+    // level reaches when the deadline is less than SLOTS^n ticks away
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        bucket(level, timeout.deadline).add(timeout);
+    }
+
+    private Bucket<T> bucket(int level, long tick) {
+        return buckets[level][(int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK];
+    }
+
+    static final class Timeout<T> {
+        private final long deadline;
+        private final T value;
+        private Bucket<T> bucket;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(long deadline, T value) {
+            this.deadline = deadline;
+            this.value = value;
+        }
+
+        long getDeadline() {
+            return deadline;
+        }
+    }
+
+    // Doubly linked, so a timer is removed from the middle in O(1)
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        private Timeout<T> poll() {
+            Timeout<T> timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.skincare.application.service.quiz;
+
+import com.skincare.application.cache.InvalidationEvent;
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
+import com.skincare.application.dto.QuizOptionDto;
+import com.skincare.application.dto.QuizQuestionDto;
+import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.model.QuizOption;
+import com.skincare.application.model.QuizQuestion;
+import com.skincare.application.model.Service;
+import com.skincare.application.repository.QuizOptionRepository;
+import com.skincare.application.repository.QuizQuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the public quiz from an in-memory snapshot of all active questions.
+ * The snapshot is built with a fixed number of queries and rebuilt lazily after
+ * any admin write bumps the version, on this node or (through the cache
+ * invalidation bus) on another. Cached DTOs are shared between readers and
+ * must be treated as read-only.
+ */
+@org.springframework.stereotype.Service
+public class QuizCatalogService {
+    private static final Set<String> CATALOG_ENTITIES = Set.of(
+            QuizQuestion.class.getName(), QuizOption.class.getName(), Service.class.getName());
+
+    @Autowired
+    private QuizQuestionRepository questionRepository;
+
+    @Autowired
+    private QuizOptionRepository optionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public List<QuizQuestionDto> getActiveQuestions() {
+        return currentSnapshot().questions;
+    }
+
+    // Returns null when the question is not active, so callers can fall back to the database
+    public QuizQuestionDto getActiveQuestion(Long id) {
+        return currentSnapshot().questionsById.get(id);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Called on every write to questions, options or their recommended services. Inside a
+    // transaction the bump waits for the commit, so a rebuild cannot snapshot uncommitted state.
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+            return;
+        }
+        version.incrementAndGet();
+    }
+
+    // Another node changed questions, options or services
+    @EventListener
+    public void onInvalidation(InvalidationEvent event) {
+        if (CATALOG_ENTITIES.contains(event.getEntityType())) {
+            invalidate();
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            long expected = version.get();
+            if (current != null && current.version == expected) {
+                return current;
+            }
+
+            // A write landing during the rebuild bumps the version again, so the next read rebuilds.
+            // Read from the primary: a snapshot of a lagging replica would stay stale until the next write.
+            Snapshot rebuilt = ReplicaRoutingDataSource.onPrimary(
+                    () -> readOnlyTransaction.execute(status -> load(expected)));
+            snapshot = rebuilt;
+            return rebuilt;
+        }
+    }
+
+    private Snapshot load(long snapshotVersion) {
+        List<QuizQuestion> questions = questionRepository.findActiveWithRecommendedServices();
+        List<QuizOption> options = optionRepository.findActiveWithRecommendedServices();
+
+        Map<Long, Map<Long, Integer>> weightsByOption = new HashMap<>();
+        for (Object[] row : optionRepository.findActiveServiceWeights()) {
+            weightsByOption.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .put((Long) row[1], (Integer) row[2]);
+        }
+
+        // One shared DTO per service, however many questions and options recommend it
+        Map<Long, ServiceDto> serviceDtos = new HashMap<>();
+
+        Map<Long, List<QuizOptionDto>> optionsByQuestion = new HashMap<>();
+        for (QuizOption option : options) {
+            QuizOptionDto dto = new QuizOptionDto();
+            dto.setId(option.getId());
+            dto.setQuestionId(option.getQuestion().getId());
+            dto.setOptionText(option.getOptionText());
+            dto.setServiceWeights(Collections.unmodifiableMap(
+                    weightsByOption.getOrDefault(option.getId(), Collections.emptyMap())));
+            dto.setRecommendedServices(convertServices(option.getRecommendedServices(), serviceDtos));
+            optionsByQuestion.computeIfAbsent(dto.getQuestionId(), id -> new ArrayList<>()).add(dto);
+        }
+
+        Map<Long, QuizQuestionDto> questionsById = new LinkedHashMap<>();
+        for (QuizQuestion question : questions) {
+            QuizQuestionDto dto = new QuizQuestionDto();
+            dto.setId(question.getId());
+            dto.setQuestion(question.getQuestion());
+            dto.setQuestionType(question.getQuestionType());
+            dto.setIsActive(question.getIsActive());
+
+            List<QuizOptionDto> questionOptions = optionsByQuestion.get(question.getId());
+            if (questionOptions != null) {
+                dto.setOptions(Collections.unmodifiableList(questionOptions));
+            }
+
+            dto.setRecommendedServices(convertServices(question.getRecommendedServices(), serviceDtos));
+            questionsById.put(dto.getId(), dto);
+        }
+
+        return new Snapshot(snapshotVersion,
+                Collections.unmodifiableList(new ArrayList<>(questionsById.values())),
+                Collections.unmodifiableMap(questionsById));
+    }
+
+    private List<ServiceDto> convertServices(Set<Service> services, Map<Long, ServiceDto> serviceDtos) {
+        List<ServiceDto> dtos = new ArrayList<>(services.size());
+        for (Service service : services) {
+            dtos.add(serviceDtos.computeIfAbsent(service.getId(), id -> {
+                ServiceDto serviceDto = new ServiceDto();
+                serviceDto.setId(service.getId());
+                serviceDto.setName(service.getName());
+                serviceDto.setDescription(service.getDescription());
+                serviceDto.setPrice(service.getPrice());
+                serviceDto.setDurationMinutes(service.getDurationMinutes());
+                serviceDto.setIsActive(service.getIsActive());
+                serviceDto.setImageUrl(service.getImageUrl());
+                return serviceDto;
+            }));
+        }
+        return Collections.unmodifiableList(dtos);
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<QuizQuestionDto> questions;
+        private final Map<Long, QuizQuestionDto> questionsById;
+
+        private Snapshot(long version, List<QuizQuestionDto> questions, Map<Long, QuizQuestionDto> questionsById) {
+            this.version = version;
+            this.questions = questions;
+            this.questionsById = questionsById;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.skincare.application.service.quiz;
+
+import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.dto.ServiceRecommendationDto;
+import com.skincare.application.model.CustomerQuizResult;
+import com.skincare.application.model.QuizOption;
+import com.skincare.application.model.QuizQuestion;
+import com.skincare.application.model.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@org.springframework.stereotype.Service
+public class QuizRecommendationService {
+    // Weight used for question-level recommendations and options without an explicit weight
+    public static final int DEFAULT_WEIGHT = 1;
+
+    public List<ServiceRecommendationDto> recommend(List<CustomerQuizResult> results, int limit) {
+        ServiceScoreAccumulator accumulator = new ServiceScoreAccumulator(results.size() * 4);
+        Map<Long, Service> candidates = new HashMap<>();
+
+        for (CustomerQuizResult result : results) {
+            // Services recommended by the question itself
+            QuizQuestion question = result.getQuestion();
+            if (question.getRecommendedServices() != null) {
+                for (Service service : question.getRecommendedServices()) {
+                    addCandidate(accumulator, candidates, service, DEFAULT_WEIGHT);
+                }
+            }
+
+            // Services recommended by the selected option, with per-option weights
+            QuizOption option = result.getSelectedOption();
+            if (option != null && option.getRecommendedServices() != null) {
+                Map<Long, Integer> weights = option.getServiceWeights() != null
+                        ? option.getServiceWeights()
+                        : Collections.emptyMap();
+                for (Service service : option.getRecommendedServices()) {
+                    addCandidate(accumulator, candidates, service,
+                            weights.getOrDefault(service.getId(), DEFAULT_WEIGHT));
+                }
+            }
+        }
+
+        List<ServiceRecommendationDto> recommendations = new ArrayList<>();
+        for (ScoredService scored : accumulator.topK(limit)) {
+            Service service = candidates.get(scored.getServiceId());
+            recommendations.add(new ServiceRecommendationDto(convertToDto(service), scored.getScore()));
+        }
+        return recommendations;
+    }
+
+    private void addCandidate(ServiceScoreAccumulator accumulator, Map<Long, Service> candidates,
+                              Service service, int weight) {
+        accumulator.add(service.getId(), weight);
+        candidates.putIfAbsent(service.getId(), service);
+    }
+
+    private ServiceDto convertToDto(Service service) {
+        ServiceDto dto = new ServiceDto();
+        dto.setId(service.getId());
+        dto.setName(service.getName());
+        dto.setDescription(service.getDescription());
+        dto.setPrice(service.getPrice());
+        dto.setDurationMinutes(service.getDurationMinutes());
+        dto.setIsActive(service.getIsActive());
+        dto.setImageUrl(service.getImageUrl());
+        return dto;
+    }
+}
@@ -0,0 +1,9 @@
+package com.skincare.application.service.quiz;
+
+import lombok.Value;
+
+@Value
+public class ScoredService {
+    long serviceId;
+    int score;
+}
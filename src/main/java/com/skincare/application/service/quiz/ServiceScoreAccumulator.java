@@ -0,0 +1,150 @@
+package com.skincare.application.service.quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sums recommendation weights per service id into primitive slots.
+ * Open addressing keeps a quiz submission free of boxed keys and map entries;
+ * service ids are positive, so 0 marks an empty slot.
+ */
+public class ServiceScoreAccumulator {
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] scores;
+    private int mask;
+    private int size;
+
+    public ServiceScoreAccumulator(int expectedServices) {
+        int capacity = Integer.highestOneBit(Math.max(expectedServices, 4) * 2 - 1) << 1;
+        keys = new long[capacity];
+        scores = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public void add(long serviceId, int weight) {
+        if (serviceId <= 0) {
+            throw new IllegalArgumentException("Service id must be positive: " + serviceId);
+        }
+
+        int slot = slotOf(serviceId);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = serviceId;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = slotOf(serviceId);
+            }
+        }
+        scores[slot] += weight;
+    }
+
+    public int score(long serviceId) {
+        int slot = slotOf(serviceId);
+        return keys[slot] == serviceId ? scores[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Highest score first, ties broken by lower service id so results are stable
+    public List<ScoredService> topK(int k) {
+        int limit = Math.min(k, size);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Min-heap of slot indexes: the weakest of the current top k sits at the root
+        int[] heap = new int[limit];
+        int heapSize = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == EMPTY) {
+                continue;
+            }
+            if (heapSize < limit) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++);
+            } else if (ranksAbove(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, 0, heapSize);
+            }
+        }
+
+        ScoredService[] ranked = new ScoredService[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int slot = heap[0];
+            ranked[i] = new ScoredService(keys[slot], scores[slot]);
+            heap[0] = heap[i];
+            siftDown(heap, 0, i);
+        }
+
+        List<ScoredService> result = new ArrayList<>(ranked.length);
+        for (ScoredService scored : ranked) {
+            result.add(scored);
+        }
+        return result;
+    }
+
+    private boolean ranksAbove(int slot, int other) {
+        if (scores[slot] != scores[other]) {
+            return scores[slot] > scores[other];
+        }
+        return keys[slot] < keys[other];
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(heap[parent], slot)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int index, int heapSize) {
+        int slot = heap[index];
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < heapSize && ranksAbove(heap[child], heap[right])) {
+                child = right;
+            }
+            if (!ranksAbove(slot, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private int slotOf(long serviceId) {
+        long hash = serviceId * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != serviceId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldScores = scores;
+        keys = new long[oldKeys.length * 2];
+        scores = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                scores[slot] = oldScores[i];
+            }
+        }
+    }
+}
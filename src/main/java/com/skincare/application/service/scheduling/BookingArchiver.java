@@ -0,0 +1,174 @@
+package com.skincare.application.service.scheduling;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.repository.BookingArchive;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves closed bookings (completed, cancelled, no-show) that started before the archive
+ * horizon, with their details, from bookings and booking_details to the archive tables, so the
+ * hot tables and their indexes hold recent and open bookings only. Reviewed bookings stay, as
+ * their review refers to them. Runs on one node at a time, holding the booking-archiver lease.
+ *
+ * Each status is walked in chunks along idx_bookings_status_time by a LeasedChunkRunner, one
+ * transaction per chunk that copies the chunk's rows and deletes them. Readers that reach back
+ * past the horizon read both tables (see BookingArchive).
+ */
+@Component
+public class BookingArchiver implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(BookingArchiver.class);
+
+    private static final String LEASE = "booking-archiver";
+    private static final Booking.BookingStatus[] CLOSED = {
+            Booking.BookingStatus.COMPLETED, Booking.BookingStatus.CANCELLED, Booking.BookingStatus.NO_SHOW};
+
+    private static final String SELECT_SQL =
+            "SELECT b.id, b.booking_date_time FROM bookings b " +
+            "WHERE b.status = ? AND b.booking_date_time >= ? AND (b.booking_date_time > ? OR b.id > ?) " +
+            "AND b.booking_date_time < ? AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.booking_id = b.id) " +
+            "ORDER BY b.booking_date_time, b.id LIMIT ? FOR UPDATE SKIP LOCKED";
+    // Columns are named, so a column added to a hot table but not to its archive table fails
+    // the move instead of shifting values into the wrong columns
+    private static final String BOOKING_COLUMNS =
+            "id, booking_date_time, cancellation_reason, checked_in_time, checked_out_time, created_at, " +
+            "notes, payment_method, payment_status, status, total_amount, updated_at, customer_id, " +
+            "specialist_id, version";
+    private static final String DETAIL_COLUMNS =
+            "id, created_at, end_time, price, recommended_followup, specialist_notes, start_time, status, " +
+            "updated_at, booking_id, service_id";
+    // Details first, for the foreign key; slot claims go with their booking
+    private static final String[] MOVE_SQL = {
+            "INSERT INTO bookings_archive (" + BOOKING_COLUMNS + ") " +
+                    "SELECT " + BOOKING_COLUMNS + " FROM bookings WHERE id IN (%s)",
+            "INSERT INTO booking_details_archive (" + DETAIL_COLUMNS + ") " +
+                    "SELECT " + DETAIL_COLUMNS + " FROM booking_details WHERE booking_id IN (%s)",
+            "DELETE FROM booking_details WHERE booking_id IN (%s)",
+            "DELETE FROM bookings WHERE id IN (%s)"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SchedulerLease schedulerLease;
+
+    @Autowired
+    private BookingArchive bookingArchive;
+
+    @Value("${booking.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.archive.lease:5m}")
+    private Duration lease;
+
+    private final LongAdder archived = new LongAdder();
+
+    private LeasedChunkRunner runner;
+
+    @PostConstruct
+    public void init() {
+        runner = new LeasedChunkRunner(LEASE, lease, chunkSize, schedulerLease, transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("booking.archive.moved", archived, LongAdder::sum)
+                .description("Closed bookings moved to the archive tables")
+                .register(registry);
+    }
+
+    // An archiving run can take minutes, so it gets a thread of its own instead of holding one of the
+    // scheduler's, which also run the sub-second invalidation poll and replica check
+    @Scheduled(fixedDelayString = "${booking.archive.interval:3600000}")
+    public void schedule() {
+        if (enabled) {
+            runner.submit(this::archiveAll);
+        }
+    }
+
+    public void archive() {
+        if (enabled) {
+            runner.run(this::archiveAll);
+        }
+    }
+
+    private void archiveAll() {
+        LocalDateTime before = bookingArchive.cutoff();
+        for (Booking.BookingStatus status : CLOSED) {
+            archive(status, before);
+        }
+    }
+
+    private void archive(Booking.BookingStatus status, LocalDateTime before) {
+        int moved = runner.walk((afterTime, afterId, limit) -> {
+            List<ArchivedBooking> rows = jdbcTemplate.query(SELECT_SQL,
+                    (rs, rowNum) -> new ArchivedBooking(
+                            rs.getLong("id"),
+                            rs.getTimestamp("booking_date_time").toLocalDateTime()),
+                    status.name(), Timestamp.valueOf(afterTime), Timestamp.valueOf(afterTime), afterId,
+                    Timestamp.valueOf(before), limit);
+            if (!rows.isEmpty()) {
+                String placeholders = String.join(", ", Collections.nCopies(rows.size(), "?"));
+                Object[] ids = rows.stream().map(row -> row.id).toArray();
+                for (String sql : MOVE_SQL) {
+                    jdbcTemplate.update(String.format(sql, placeholders), ids);
+                }
+            }
+            return rows;
+        }, archived);
+
+        if (moved > 0) {
+            logger.info("Archived {} {} bookings from before {}", moved, status, before);
+        }
+    }
+
+    private static final class ArchivedBooking implements LeasedChunkRunner.Row {
+        private final long id;
+        private final LocalDateTime bookingDateTime;
+
+        private ArchivedBooking(long id, LocalDateTime bookingDateTime) {
+            this.id = id;
+            this.bookingDateTime = bookingDateTime;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDateTime getBookingDateTime() {
+            return bookingDateTime;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.skincare.application.service.scheduling;
+
+import com.skincare.application.model.Booking;
+import com.skincare.application.service.board.BookingChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closes bookings staff left open: confirmed bookings whose time passed more than
+ * no-show-after ago become NO_SHOW, checked-in and in-progress ones more than
+ * complete-after ago COMPLETED. Runs on one node at a time, holding the
+ * booking-sweeper lease.
+ *
+ * Each status is walked in chunks along idx_bookings_status_time, one transaction
+ * per chunk: the chunk's rows are locked, skipping rows a user is editing right now,
+ * updated with one statement and announced as BookingChangedEvent like any other
+ * status change.
+ */
+@Component
+public class BookingSweeper implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(BookingSweeper.class);
+
+    private static final String LEASE = "booking-sweeper";
+
+    private static final String SELECT_SQL =
+            "SELECT id, specialist_id, booking_date_time, version FROM bookings " +
+            "WHERE status = ? AND booking_date_time >= ? AND (booking_date_time > ? OR id > ?) " +
+            "AND booking_date_time < ? ORDER BY booking_date_time, id LIMIT ? FOR UPDATE SKIP LOCKED";
+    // The rows are locked, so every one of them still has the status it was selected by
+    private static final String UPDATE_SQL =
+            "UPDATE bookings SET status = ?, version = version + 1, updated_at = NOW(6) WHERE id IN (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SchedulerLease schedulerLease;
+
+    @Value("${booking.sweep.no-show-after:2h}")
+    private Duration noShowAfter;
+
+    @Value("${booking.sweep.complete-after:12h}")
+    private Duration completeAfter;
+
+    @Value("${booking.sweep.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.sweep.lease:5m}")
+    private Duration lease;
+
+    private final LongAdder noShows = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    private LeasedChunkRunner runner;
+
+    @PostConstruct
+    public void init() {
+        runner = new LeasedChunkRunner(LEASE, lease, chunkSize, schedulerLease, transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("booking.sweep.closed", noShows, LongAdder::sum)
+                .description("Bookings closed by the sweeper")
+                .tag("status", Booking.BookingStatus.NO_SHOW.name())
+                .register(registry);
+        FunctionCounter.builder("booking.sweep.closed", completed, LongAdder::sum)
+                .description("Bookings closed by the sweeper")
+                .tag("status", Booking.BookingStatus.COMPLETED.name())
+                .register(registry);
+    }
+
+    // Sweeps run on the sweeper thread; the scheduler only starts them
+    @Scheduled(fixedDelayString = "${booking.sweep.interval:300000}")
+    public void schedule() {
+        runner.submit(this::sweepAll);
+    }
+
+    public void sweep() {
+        runner.run(this::sweepAll);
+    }
+
+    private void sweepAll() {
+        LocalDateTime now = LocalDateTime.now();
+        close(Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.NO_SHOW, now.minus(noShowAfter), noShows);
+        close(Booking.BookingStatus.CHECKED_IN, Booking.BookingStatus.COMPLETED, now.minus(completeAfter), completed);
+        close(Booking.BookingStatus.IN_PROGRESS, Booking.BookingStatus.COMPLETED, now.minus(completeAfter), completed);
+    }
+
+    private void close(Booking.BookingStatus from, Booking.BookingStatus to, LocalDateTime before, LongAdder counter) {
+        int closed = runner.walk((afterTime, afterId, limit) -> {
+            List<SweptBooking> rows = jdbcTemplate.query(SELECT_SQL,
+                    (rs, rowNum) -> new SweptBooking(
+                            rs.getLong("id"),
+                            (Long) rs.getObject("specialist_id"),
+                            rs.getTimestamp("booking_date_time").toLocalDateTime(),
+                            rs.getLong("version")),
+                    from.name(), Timestamp.valueOf(afterTime), Timestamp.valueOf(afterTime), afterId,
+                    Timestamp.valueOf(before), limit);
+            if (!rows.isEmpty()) {
+                Object[] args = new Object[rows.size() + 1];
+                args[0] = to.name();
+                for (int i = 0; i < rows.size(); i++) {
+                    args[i + 1] = rows.get(i).id;
+                }
+                jdbcTemplate.update(String.format(UPDATE_SQL, String.join(", ", Collections.nCopies(rows.size(), "?"))),
+                        args);
+                for (SweptBooking row : rows) {
+                    eventPublisher.publishEvent(new BookingChangedEvent(BookingChangedEvent.Change.STATUS_CHANGED,
+                            row.id, to, row.specialistId, row.bookingDateTime, row.version + 1));
+                }
+            }
+            return rows;
+        }, counter);
+
+        if (closed > 0) {
+            logger.info("Marked {} {} bookings from before {} as {}", closed, from, before, to);
+        }
+    }
+
+    private static final class SweptBooking implements LeasedChunkRunner.Row {
+        private final long id;
+        private final Long specialistId;
+        private final LocalDateTime bookingDateTime;
+        private final long version;
+
+        private SweptBooking(long id, Long specialistId, LocalDateTime bookingDateTime, long version) {
+            this.id = id;
+            this.specialistId = specialistId;
+            this.bookingDateTime = bookingDateTime;
+            this.version = version;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDateTime getBookingDateTime() {
+            return bookingDateTime;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.skincare.application.service.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a background job over bookings on one node at a time: the job gets a thread of its
+ * own, holds the SchedulerLease of the same name while it runs, and walks its rows in chunks
+ * along (booking_date_time, id), one transaction per chunk, extending the lease after each.
+ *
+ * A run that loses the lease on the way stops and leaves the rest to the new holder; one
+ * that fails keeps whatever it committed, and the next run starts from the beginning.
+ */
+public class LeasedChunkRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LeasedChunkRunner.class);
+
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final String name;
+    private final Duration lease;
+    private final int chunkSize;
+    private final SchedulerLease schedulerLease;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    public LeasedChunkRunner(String name, Duration lease, int chunkSize, SchedulerLease schedulerLease,
+                             PlatformTransactionManager transactionManager) {
+        this.name = name;
+        this.lease = lease;
+        this.chunkSize = chunkSize;
+        this.schedulerLease = schedulerLease;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // One run at a time; a tick while one is in progress is dropped
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Starts job on the runner's thread, unless a run is in progress already
+    public void submit(Runnable job) {
+        executor.execute(() -> run(job));
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Runs job on the calling thread, if this node gets the lease
+    public void run(Runnable job) {
+        try {
+            if (!schedulerLease.tryAcquire(name, lease)) {
+                return;
+            }
+            try {
+                job.run();
+            } catch (LeaseLostException e) {
+                logger.warn("Lost the {} lease, leaving the rest to its new holder", name);
+            } finally {
+                schedulerLease.release(name);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("{} run failed", name, e);
+        }
+    }
+
+    /**
+     * Hands chunk the key of the last row it returned until it returns fewer than
+     * getChunkSize() rows, adding each committed chunk's size to counter. Called from
+     * a job passed to run or submit.
+     *
+     * @return the number of rows of all chunks
+     */
+    public <T extends Row> int walk(Chunk<T> chunk, LongAdder counter) {
+        LocalDateTime afterTime = ORIGIN;
+        long afterId = 0;
+        int total = 0;
+        List<T> rows;
+        do {
+            LocalDateTime chunkAfterTime = afterTime;
+            long chunkAfterId = afterId;
+            rows = transactionTemplate.execute(tx -> chunk.process(chunkAfterTime, chunkAfterId, chunkSize));
+            if (!rows.isEmpty()) {
+                T last = rows.get(rows.size() - 1);
+                afterTime = last.getBookingDateTime();
+                afterId = last.getId();
+                total += rows.size();
+                counter.add(rows.size());
+            }
+            // Chunks are short, so the lease is extended after each
+            if (rows.size() == chunkSize && !schedulerLease.tryAcquire(name, lease)) {
+                throw new LeaseLostException();
+            }
+        } while (rows.size() == chunkSize);
+        return total;
+    }
+
+    /** The key a chunk's rows are ordered by */
+    public interface Row {
+        long getId();
+
+        LocalDateTime getBookingDateTime();
+    }
+
+    @FunctionalInterface
+    public interface Chunk<T extends Row> {
+        /**
+         * Selects, locks and processes up to limit rows after (afterTime, afterId) in key
+         * order, inside the chunk's transaction.
+         */
+        List<T> process(LocalDateTime afterTime, long afterId, int limit);
+    }
+
+    private static final class LeaseLostException extends RuntimeException {
+        private LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.skincare.application.service.scheduling;
+
+import com.skincare.application.cache.CacheInvalidationBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Lets one node at a time run a background job, through scheduler_leases. A node
+ * takes or extends the lease for a while and gives it up when done; if it dies
+ * instead, the lease runs out and another node takes over.
+ */
+@Component
+public class SchedulerLease {
+    private static final String CREATE_SQL =
+            "INSERT IGNORE INTO scheduler_leases (name, owner, expires_at) VALUES (?, '', NOW(6))";
+    private static final String ACQUIRE_SQL =
+            "UPDATE scheduler_leases SET owner = ?, expires_at = NOW(6) + INTERVAL ? SECOND " +
+            "WHERE name = ? AND (owner = ? OR expires_at < NOW(6))";
+    private static final String RELEASE_SQL =
+            "UPDATE scheduler_leases SET expires_at = NOW(6) WHERE name = ? AND owner = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    /**
+     * Takes the lease for duration, or extends it if this node holds it already.
+     * Extend well before it runs out: once it has, another node may hold it.
+     *
+     * @return false if another node holds it
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        jdbcTemplate.update(CREATE_SQL, name);
+        String owner = invalidationBus.getNodeId();
+        return jdbcTemplate.update(ACQUIRE_SQL, owner, duration.getSeconds(), name, owner) == 1;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE_SQL, name, invalidationBus.getNodeId());
+    }
+}
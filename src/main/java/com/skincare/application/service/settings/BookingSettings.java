@@ -0,0 +1,29 @@
+package com.skincare.application.service.settings;
+
+import lombok.Value;
+
+import java.time.LocalTime;
+
+@Value
+public class BookingSettings {
+    int allowFutureBookingsDays;
+    int minAdvanceBookingHours;
+    int maxServicesPerBooking;
+    boolean requiresPayment;
+    boolean requiresConfirmation;
+    int allowCancellationHours;
+    LocalTime workingHoursStart;
+    LocalTime workingHoursEnd;
+
+    static BookingSettings from(SettingsValues values) {
+        return new BookingSettings(
+                values.getInt("allowFutureBookingsDays"),
+                values.getInt("minAdvanceBookingHours"),
+                values.getInt("maxServicesPerBooking"),
+                values.getBoolean("requiresPayment"),
+                values.getBoolean("requiresConfirmation"),
+                values.getInt("allowCancellationHours"),
+                values.getTime("workingHoursStart"),
+                values.getTime("workingHoursEnd"));
+    }
+}
@@ -0,0 +1,21 @@
+package com.skincare.application.service.settings;
+
+import lombok.Value;
+
+@Value
+public class GeneralSettings {
+    String siteName;
+    String siteDescription;
+    String contactEmail;
+    String contactPhone;
+    String address;
+
+    static GeneralSettings from(SettingsValues values) {
+        return new GeneralSettings(
+                values.getString("siteName"),
+                values.getString("siteDescription"),
+                values.getString("contactEmail"),
+                values.getString("contactPhone"),
+                values.getString("address"));
+    }
+}
@@ -0,0 +1,23 @@
+package com.skincare.application.service.settings;
+
+import lombok.Value;
+
+@Value
+public class NotificationSettings {
+    boolean sendBookingConfirmations;
+    boolean sendBookingReminders;
+    int reminderHoursBefore;
+    boolean sendCancellationNotifications;
+    boolean sendAdminNotifications;
+    String adminNotificationEmail;
+
+    static NotificationSettings from(SettingsValues values) {
+        return new NotificationSettings(
+                values.getBoolean("sendBookingConfirmations"),
+                values.getBoolean("sendBookingReminders"),
+                values.getInt("reminderHoursBefore"),
+                values.getBoolean("sendCancellationNotifications"),
+                values.getBoolean("sendAdminNotifications"),
+                values.getString("adminNotificationEmail"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.skincare.application.service.settings;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public enum SettingsCategory {
+    GENERAL("general"),
+    BOOKING("booking"),
+    NOTIFICATION("notification");
+
+    private final String key;
+
+    SettingsCategory(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    // Values used when a key has never been saved
+    public Map<String, String> getDefaults() {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        switch (this) {
+            case GENERAL:
+                defaults.put("siteName", "BeautySkin");
+                defaults.put("siteDescription", "Premium skincare services tailored to your unique needs and goals.");
+                defaults.put("contactEmail", "contact@beautyskin.com");
+                defaults.put("contactPhone", "+84 123 456 789");
+                defaults.put("address", "123 Đường Làm Đẹp, Quận 1, TP. HCM");
+                break;
+            case BOOKING:
+                defaults.put("allowFutureBookingsDays", "30");
+                defaults.put("minAdvanceBookingHours", "24");
+                defaults.put("maxServicesPerBooking", "3");
+                defaults.put("requiresPayment", "true");
+                defaults.put("requiresConfirmation", "true");
+                defaults.put("allowCancellationHours", "48");
+                defaults.put("workingHoursStart", "09:00");
+                defaults.put("workingHoursEnd", "18:00");
+                break;
+            case NOTIFICATION:
+                defaults.put("sendBookingConfirmations", "true");
+                defaults.put("sendBookingReminders", "true");
+                defaults.put("reminderHoursBefore", "24");
+                defaults.put("sendCancellationNotifications", "true");
+                defaults.put("sendAdminNotifications", "true");
+                defaults.put("adminNotificationEmail", "admin@beautyskin.com");
+                break;
+        }
+        return Collections.unmodifiableMap(defaults);
+    }
+
+    public static SettingsCategory fromKey(String key) {
+        for (SettingsCategory category : values()) {
+            if (category.key.equals(key)) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,126 @@
+package com.skincare.application.service.settings;
+
+import com.skincare.application.cache.CacheInvalidationBus;
+import com.skincare.application.cache.InvalidationEvent;
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
+import com.skincare.application.model.Settings;
+import com.skincare.application.repository.SettingsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the settings table. Readers get an immutable snapshot through a volatile
+ * reference, so request paths never touch the database or take a lock; writers
+ * validate, upsert all keys in one batch and then swap the snapshot.
+ */
+@Service
+public class SettingsService {
+    private static final String UPSERT_SQL =
+            "INSERT INTO settings (`key`, `value`, category, created_at, updated_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE `value` = VALUES(`value`), category = VALUES(category), updated_at = VALUES(updated_at)";
+
+    @Autowired
+    private SettingsRepository settingsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    private volatile SettingsSnapshot snapshot;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public SettingsSnapshot getSnapshot() {
+        SettingsSnapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    public GeneralSettings getGeneralSettings() {
+        return getSnapshot().getGeneral();
+    }
+
+    public BookingSettings getBookingSettings() {
+        return getSnapshot().getBooking();
+    }
+
+    public NotificationSettings getNotificationSettings() {
+        return getSnapshot().getNotification();
+    }
+
+    // Re-reads every row from the primary; used on first access and when another writer changed the table
+    public synchronized SettingsSnapshot reload() {
+        Map<SettingsCategory, Map<String, String>> stored = new EnumMap<>(SettingsCategory.class);
+        for (Settings setting : ReplicaRoutingDataSource.onPrimary(settingsRepository::findAll)) {
+            SettingsCategory category = SettingsCategory.fromKey(setting.getCategory());
+            if (category != null) {
+                stored.computeIfAbsent(category, c -> new HashMap<>()).put(setting.getKey(), setting.getValue());
+            }
+        }
+
+        snapshot = SettingsSnapshot.of(stored);
+        return snapshot;
+    }
+
+    // Another node stored new values
+    @EventListener
+    public void onInvalidation(InvalidationEvent event) {
+        if (Settings.class.getName().equals(event.getEntityType())) {
+            reload();
+        }
+    }
+
+    /**
+     * Validates and stores the given values for one category.
+     *
+     * @throws IllegalArgumentException if a value is missing or does not parse as its setting's type
+     */
+    public synchronized SettingsSnapshot update(SettingsCategory category, Map<String, Object> updates) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Setting " + entry.getKey() + " must have a value");
+            }
+            values.put(entry.getKey(), entry.getValue().toString());
+        }
+
+        SettingsSnapshot next = getSnapshot().with(category, values);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(values.size());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            rows.add(new Object[] {entry.getKey(), entry.getValue(), category.getKey(), now, now});
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            invalidationBus.publish(Settings.class.getName(), null, null);
+        });
+
+        // Only publish once the rows are committed
+        snapshot = next;
+        return next;
+    }
+}
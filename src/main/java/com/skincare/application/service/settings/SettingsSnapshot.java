@@ -0,0 +1,69 @@
+package com.skincare.application.service.settings;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Immutable view of every settings category: raw values (defaults applied) plus typed records
+public final class SettingsSnapshot {
+    private final Map<SettingsCategory, Map<String, String>> values;
+    private final GeneralSettings general;
+    private final BookingSettings booking;
+    private final NotificationSettings notification;
+
+    private SettingsSnapshot(Map<SettingsCategory, Map<String, String>> values,
+                             SettingsCategory updated, Set<String> strictKeys) {
+        this.values = values;
+        this.general = GeneralSettings.from(valuesOf(SettingsCategory.GENERAL, updated, strictKeys));
+        this.booking = BookingSettings.from(valuesOf(SettingsCategory.BOOKING, updated, strictKeys));
+        this.notification = NotificationSettings.from(valuesOf(SettingsCategory.NOTIFICATION, updated, strictKeys));
+    }
+
+    // Builds a snapshot from stored rows, falling back to defaults for malformed values
+    static SettingsSnapshot of(Map<SettingsCategory, Map<String, String>> stored) {
+        return new SettingsSnapshot(withDefaults(stored), null, Collections.emptySet());
+    }
+
+    // Returns a new snapshot with the given values applied; rejects malformed typed values
+    SettingsSnapshot with(SettingsCategory category, Map<String, String> updates) {
+        Map<SettingsCategory, Map<String, String>> next = new EnumMap<>(values);
+        Map<String, String> merged = new LinkedHashMap<>(values.get(category));
+        merged.putAll(updates);
+        next.put(category, Collections.unmodifiableMap(merged));
+        return new SettingsSnapshot(Collections.unmodifiableMap(next), category, updates.keySet());
+    }
+
+    public Map<String, String> getValues(SettingsCategory category) {
+        return values.get(category);
+    }
+
+    public GeneralSettings getGeneral() {
+        return general;
+    }
+
+    public BookingSettings getBooking() {
+        return booking;
+    }
+
+    public NotificationSettings getNotification() {
+        return notification;
+    }
+
+    private SettingsValues valuesOf(SettingsCategory category, SettingsCategory updated, Set<String> strictKeys) {
+        return new SettingsValues(values.get(category), category.getDefaults(),
+                category == updated ? strictKeys : Collections.emptySet());
+    }
+
+    private static Map<SettingsCategory, Map<String, String>> withDefaults(
+            Map<SettingsCategory, Map<String, String>> stored) {
+        Map<SettingsCategory, Map<String, String>> merged = new EnumMap<>(SettingsCategory.class);
+        for (SettingsCategory category : SettingsCategory.values()) {
+            Map<String, String> categoryValues = new LinkedHashMap<>(category.getDefaults());
+            categoryValues.putAll(stored.getOrDefault(category, Collections.emptyMap()));
+            merged.put(category, Collections.unmodifiableMap(categoryValues));
+        }
+        return Collections.unmodifiableMap(merged);
+    }
+}
@@ -0,0 +1,67 @@
+package com.skincare.application.service.settings;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Typed reads over one category's raw values. A malformed value for one of the
+ * strict keys (the ones being written) is rejected; any other malformed value was
+ * already stored, so it falls back to the category default instead of breaking readers.
+ */
+final class SettingsValues {
+    private static final Logger logger = LoggerFactory.getLogger(SettingsValues.class);
+
+    private final Map<String, String> values;
+    private final Map<String, String> defaults;
+    private final Set<String> strictKeys;
+
+    SettingsValues(Map<String, String> values, Map<String, String> defaults, Set<String> strictKeys) {
+        this.values = values;
+        this.defaults = defaults;
+        this.strictKeys = strictKeys;
+    }
+
+    String getString(String key) {
+        return values.getOrDefault(key, defaults.get(key));
+    }
+
+    int getInt(String key) {
+        return parse(key, "a whole number", value -> Integer.parseInt(value.trim()));
+    }
+
+    boolean getBoolean(String key) {
+        return parse(key, "true or false", value -> {
+            String trimmed = value.trim();
+            if ("true".equalsIgnoreCase(trimmed)) {
+                return true;
+            }
+            if ("false".equalsIgnoreCase(trimmed)) {
+                return false;
+            }
+            throw new IllegalArgumentException(trimmed);
+        });
+    }
+
+    LocalTime getTime(String key) {
+        return parse(key, "a time (HH:mm)", value -> LocalTime.parse(value.trim()));
+    }
+
+    private <T> T parse(String key, String expected, Function<String, T> parser) {
+        String value = getString(key);
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException | DateTimeParseException | NullPointerException e) {
+            if (strictKeys.contains(key)) {
+                throw new IllegalArgumentException("Setting " + key + " must be " + expected + ": " + value);
+            }
+            logger.warn("Ignoring invalid setting {}={}, using default {}", key, value, defaults.get(key));
+            return parser.apply(defaults.get(key));
+        }
+    }
+}
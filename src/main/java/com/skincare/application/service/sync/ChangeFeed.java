@@ -0,0 +1,27 @@
+package com.skincare.application.service.sync;
+
+import com.skincare.application.model.Blog;
+import com.skincare.application.model.Category;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.Specialist;
+import lombok.Value;
+
+import java.util.List;
+
+// One page of the change feed: rows to add or replace, rows to remove, and where the next page starts
+@Value
+public class ChangeFeed {
+    List<Service> services;
+    List<Specialist> specialists;
+    List<Category> categories;
+    List<Blog> blogs;
+    List<Deletion> deletions;
+    SyncCursor next;
+    boolean hasMore;
+
+    @Value
+    public static class Deletion {
+        String type;
+        Long id;
+    }
+}
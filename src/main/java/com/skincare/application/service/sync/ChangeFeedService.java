@@ -0,0 +1,187 @@
+package com.skincare.application.service.sync;
+
+import com.skincare.application.exception.SyncCursorExpiredException;
+import com.skincare.application.model.Blog;
+import com.skincare.application.model.Category;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.Specialist;
+import com.skincare.application.repository.BlogRepository;
+import com.skincare.application.repository.CategoryRepository;
+import com.skincare.application.repository.ServiceRepository;
+import com.skincare.application.repository.SpecialistRepository;
+import com.skincare.application.service.sync.SyncCursor.Position;
+import com.skincare.application.service.sync.SyncCursor.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Change feed for clients that keep a copy of services, specialists, categories and
+ * blogs. Each table is read as a range scan on (updated_at, id) from the client's
+ * cursor, so a client that synced recently reads a few rows per table. Hard deletes
+ * come from sync_tombstones; inactive services and unpublished blogs are reported as
+ * deletions too, as clients only show the others.
+ *
+ * updated_at is set by the writing node before its commit, so a row can become
+ * visible with a time the feed has already passed. The feed therefore stops at the
+ * settle time before now; anything older than that is assumed committed and, with a
+ * replica, replicated.
+ */
+@org.springframework.stereotype.Service
+public class ChangeFeedService {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    public static final String SERVICES = "services";
+    public static final String SPECIALISTS = "specialists";
+    public static final String CATEGORIES = "categories";
+    public static final String BLOGS = "blogs";
+
+    private static final String TOMBSTONES_SQL =
+            "SELECT id, entity_type, entity_id, deleted_at FROM sync_tombstones " +
+            "WHERE deleted_at >= ? AND (deleted_at > ? OR id > ?) AND deleted_at < ? " +
+            "ORDER BY deleted_at, id LIMIT ?";
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private SpecialistRepository specialistRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${sync.settle-time:10s}")
+    private Duration settleTime;
+
+    @Value("${sync.tombstone-retention:90d}")
+    private Duration tombstoneRetention;
+
+    @Value("${sync.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Returns up to limit changed rows per table after the cursor, or everything
+     * from the start without one.
+     *
+     * @throws SyncCursorExpiredException if tombstones the client has not seen were purged
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeed changesSince(SyncCursor cursor, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime before = now.minus(settleTime);
+        Position settled = new Position(before, 0L);
+        if (cursor == null) {
+            cursor = SyncCursor.initial(settled);
+        } else if (cursor.get(Stream.TOMBSTONES).getTime().isBefore(now.minus(tombstoneRetention))) {
+            throw new SyncCursorExpiredException("Sync cursor is older than " + tombstoneRetention.toDays()
+                    + " days, sync again without one");
+        }
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, maxPageSize)));
+        SyncCursor next = cursor;
+        boolean hasMore = false;
+        List<ChangeFeed.Deletion> deletions = new ArrayList<>();
+
+        Position from = cursor.get(Stream.SERVICES);
+        List<Service> services = new ArrayList<>();
+        List<Service> changedServices = serviceRepository.findChangedSince(from.getTime(), from.getId(), before, page);
+        for (Service service : changedServices) {
+            if (Boolean.TRUE.equals(service.getIsActive())) {
+                services.add(service);
+            } else {
+                deletions.add(new ChangeFeed.Deletion(SERVICES, service.getId()));
+            }
+        }
+        next = advance(next, Stream.SERVICES, changedServices, page, settled,
+                service -> new Position(service.getUpdatedAt(), service.getId()));
+        hasMore |= changedServices.size() == page.getPageSize();
+
+        from = cursor.get(Stream.SPECIALISTS);
+        List<Specialist> specialists = specialistRepository.findChangedSince(from.getTime(), from.getId(), before, page);
+        next = advance(next, Stream.SPECIALISTS, specialists, page, settled,
+                specialist -> new Position(specialist.getUpdatedAt(), specialist.getId()));
+        hasMore |= specialists.size() == page.getPageSize();
+
+        from = cursor.get(Stream.CATEGORIES);
+        List<Category> categories = categoryRepository.findChangedSince(from.getTime(), from.getId(), before, page);
+        next = advance(next, Stream.CATEGORIES, categories, page, settled,
+                category -> new Position(category.getUpdatedAt(), category.getId()));
+        hasMore |= categories.size() == page.getPageSize();
+
+        from = cursor.get(Stream.BLOGS);
+        List<Blog> blogs = new ArrayList<>();
+        List<Blog> changedBlogs = blogRepository.findChangedSince(from.getTime(), from.getId(), before, page);
+        for (Blog blog : changedBlogs) {
+            if (Boolean.TRUE.equals(blog.getIsPublished())) {
+                blogs.add(blog);
+            } else {
+                deletions.add(new ChangeFeed.Deletion(BLOGS, blog.getId()));
+            }
+        }
+        next = advance(next, Stream.BLOGS, changedBlogs, page, settled,
+                blog -> new Position(blog.getUpdatedAt(), blog.getId()));
+        hasMore |= changedBlogs.size() == page.getPageSize();
+
+        from = cursor.get(Stream.TOMBSTONES);
+        List<Tombstone> tombstones = jdbcTemplate.query(TOMBSTONES_SQL,
+                (rs, rowNum) -> new Tombstone(
+                        new Position(rs.getTimestamp("deleted_at").toLocalDateTime(), rs.getLong("id")),
+                        new ChangeFeed.Deletion(rs.getString("entity_type"), rs.getLong("entity_id"))),
+                Timestamp.valueOf(from.getTime()), Timestamp.valueOf(from.getTime()), from.getId(),
+                Timestamp.valueOf(before), page.getPageSize());
+        for (Tombstone tombstone : tombstones) {
+            deletions.add(tombstone.deletion);
+        }
+        next = advance(next, Stream.TOMBSTONES, tombstones, page, settled, tombstone -> tombstone.position);
+        hasMore |= tombstones.size() == page.getPageSize();
+
+        return new ChangeFeed(services, specialists, categories, blogs, deletions, next, hasMore);
+    }
+
+    // Tombstones are only needed until every client has synced past them
+    @Scheduled(fixedDelayString = "${sync.purge-interval:3600000}")
+    public void purgeTombstones() {
+        int purged = jdbcTemplate.update("DELETE FROM sync_tombstones WHERE deleted_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(tombstoneRetention)));
+        if (purged > 0) {
+            logger.debug("Purged {} sync tombstones older than {}", purged, tombstoneRetention);
+        }
+    }
+
+    // A full page continues after its last row; otherwise the stream is read up to the settle bound,
+    // which also keeps idle streams, tombstones in particular, from ageing out
+    private static <T> SyncCursor advance(SyncCursor cursor, Stream stream, List<T> rows, Pageable page,
+                                          Position settled, Function<T, Position> positionOf) {
+        Position position = rows.size() == page.getPageSize()
+                ? positionOf.apply(rows.get(rows.size() - 1)) : settled;
+        return position.isAfter(cursor.get(stream)) ? cursor.with(stream, position) : cursor;
+    }
+
+    private static final class Tombstone {
+        private final Position position;
+        private final ChangeFeed.Deletion deletion;
+
+        private Tombstone(Position position, ChangeFeed.Deletion deletion) {
+            this.position = position;
+            this.deletion = deletion;
+        }
+    }
+}
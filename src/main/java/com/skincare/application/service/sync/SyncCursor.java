@@ -0,0 +1,112 @@
+package com.skincare.application.service.sync;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * How far a client has synced: for each table of the feed and for the tombstones,
+ * the (updated_at, id) of the last row it was sent. Clients get it as an opaque
+ * string and send it back unchanged.
+ */
+public final class SyncCursor {
+    public enum Stream {
+        SERVICES,
+        SPECIALISTS,
+        CATEGORIES,
+        BLOGS,
+        TOMBSTONES
+    }
+
+    private static final Position ORIGIN = new Position(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private final Map<Stream, Position> positions;
+
+    private SyncCursor(Map<Stream, Position> positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * Cursor of a client that has nothing yet: every table from the start.
+     * Deletions only matter from the first page on, so tombstones start at
+     * the given position.
+     */
+    static SyncCursor initial(Position tombstones) {
+        Map<Stream, Position> positions = new EnumMap<>(Stream.class);
+        for (Stream stream : Stream.values()) {
+            positions.put(stream, ORIGIN);
+        }
+        positions.put(Stream.TOMBSTONES, tombstones);
+        return new SyncCursor(positions);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not a cursor this server handed out
+     */
+    public static SyncCursor parse(String value) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.US_ASCII).split(",");
+            if (parts.length != Stream.values().length) {
+                throw new IllegalArgumentException("Invalid sync cursor: " + value);
+            }
+            Map<Stream, Position> positions = new EnumMap<>(Stream.class);
+            for (Stream stream : Stream.values()) {
+                String[] position = parts[stream.ordinal()].split("-");
+                if (position.length != 2) {
+                    throw new IllegalArgumentException("Invalid sync cursor: " + value);
+                }
+                positions.put(stream, new Position(fromMicros(Long.parseLong(position[0])), Long.parseLong(position[1])));
+            }
+            return new SyncCursor(positions);
+        } catch (IllegalArgumentException e) {
+            // Also catches bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid sync cursor: " + value, e);
+        }
+    }
+
+    public String encode() {
+        StringJoiner joiner = new StringJoiner(",");
+        for (Stream stream : Stream.values()) {
+            Position position = positions.get(stream);
+            joiner.add(toMicros(position.getTime()) + "-" + position.getId());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public Position get(Stream stream) {
+        return positions.get(stream);
+    }
+
+    SyncCursor with(Stream stream, Position position) {
+        Map<Stream, Position> next = new EnumMap<>(positions);
+        next.put(stream, position);
+        return new SyncCursor(next);
+    }
+
+    // updated_at is datetime(6), so microseconds lose nothing
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    @Value
+    public static class Position {
+        LocalDateTime time;
+        Long id;
+
+        boolean isAfter(Position other) {
+            int byTime = time.compareTo(other.time);
+            return byTime > 0 || (byTime == 0 && id > other.id);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.skincare.application.service.sync;
+
+import com.skincare.application.model.Blog;
+import com.skincare.application.model.Category;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.Specialist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.PostRemove;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Leaves a tombstone when a synced entity is deleted, in the deleting transaction,
+ * so the change feed can tell clients about a row that is gone. Created by Spring
+ * while the EntityManagerFactory is being built, so it must not depend on anything
+ * that needs JPA.
+ */
+public class SyncTombstoneListener {
+    private static final String INSERT_SQL =
+            "INSERT INTO sync_tombstones (entity_type, entity_id, deleted_at) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostRemove
+    public void recordDeletion(Object entity) {
+        String type;
+        Long id;
+        if (entity instanceof Service) {
+            type = ChangeFeedService.SERVICES;
+            id = ((Service) entity).getId();
+        } else if (entity instanceof Specialist) {
+            type = ChangeFeedService.SPECIALISTS;
+            id = ((Specialist) entity).getId();
+        } else if (entity instanceof Category) {
+            type = ChangeFeedService.CATEGORIES;
+            id = ((Category) entity).getId();
+        } else if (entity instanceof Blog) {
+            type = ChangeFeedService.BLOGS;
+            id = ((Blog) entity).getId();
+        } else {
+            return;
+        }
+        // Same clock as @UpdateTimestamp, which the feed's settle time allows for
+        jdbcTemplate.update(INSERT_SQL, type, id, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,340 @@
+package com.skincare.application.service.waitlist;
+
+import com.skincare.application.cache.CacheInvalidationBus;
+import com.skincare.application.cache.InvalidationEvent;
+import com.skincare.application.datasource.ReplicaRoutingDataSource;
+import com.skincare.application.exception.BookingNotAllowedException;
+import com.skincare.application.exception.SlotUnavailableException;
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.WaitlistEntry;
+import com.skincare.application.repository.BookingDetailRepository;
+import com.skincare.application.repository.BookingRepository;
+import com.skincare.application.repository.WaitlistEntryRepository;
+import com.skincare.application.service.BookingRulesService;
+import com.skincare.application.service.BookingSlotService;
+import com.skincare.application.service.board.BookingChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Waitlists per specialist and day. The waiting entries of each list are kept in
+ * memory, first come first served, and follow changes on other nodes through the
+ * cache invalidation bus.
+ *
+ * When a booking is cancelled, the first entry of its specialist and day that
+ * accepts its start time is turned into a PENDING booking at that time, with the
+ * entry's services. Each try is one transaction: the entry is locked, so of two
+ * nodes hearing of cancellations only one promotes it, and the booking claims its
+ * slots like any other, so an entry whose services do not fit the gap is passed
+ * over. The customer hears of it through the booking confirmation instead of
+ * polling for openings.
+ *
+ * A promotion is a new booking, so it has to pass BookingRulesService like one: an
+ * opening too soon or too far ahead goes to no one, and an entry with more services
+ * than a booking may now have is expired.
+ */
+@org.springframework.stereotype.Service
+public class WaitlistService implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private static final String WAITING_SQL =
+            "SELECT id, specialist_id, day FROM waitlist_entries WHERE status = 'WAITING' AND day >= ?";
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Autowired
+    private BookingSlotService bookingSlotService;
+
+    @Autowired
+    private BookingRulesService bookingRulesService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @org.springframework.beans.factory.annotation.Value("${waitlist.max-attempts:5}")
+    private int maxAttempts;
+
+    // Entry ids of each list in the order they joined
+    private final Map<QueueKey, NavigableSet<Long>> queues = new ConcurrentHashMap<>();
+
+    private final LongAdder promoted = new LongAdder();
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService promoter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        promoter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-promoter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        jdbcTemplate.query(WAITING_SQL,
+                rs -> {
+                    queue(new QueueKey(rs.getLong("specialist_id"), rs.getDate("day").toLocalDate())).add(rs.getLong("id"));
+                },
+                Date.valueOf(LocalDate.now()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        promoter.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("waitlist.waiting", queues, WaitlistService::waiting)
+                .description("Waitlist entries waiting for an opening")
+                .register(registry);
+        FunctionCounter.builder("waitlist.promoted", promoted, LongAdder::sum)
+                .description("Waitlist entries turned into bookings")
+                .register(registry);
+    }
+
+    @Transactional
+    public WaitlistEntry join(WaitlistEntry entry) {
+        entry.setStatus(WaitlistEntry.Status.WAITING);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+        announce(saved);
+        return saved;
+    }
+
+    @Transactional
+    public WaitlistEntry withdraw(WaitlistEntry entry) {
+        entry.setStatus(WaitlistEntry.Status.WITHDRAWN);
+        WaitlistEntry saved = waitlistEntryRepository.saveAndFlush(entry);
+        announce(saved);
+        return saved;
+    }
+
+    // Entries ahead of this one, or null if it is not waiting
+    public Integer positionOf(WaitlistEntry entry) {
+        if (entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            return null;
+        }
+        NavigableSet<Long> queue = queues.get(new QueueKey(entry.getSpecialist().getId(), entry.getDay()));
+        return queue != null ? queue.headSet(entry.getId(), false).size() : 0;
+    }
+
+    // A cancelled booking frees its time for the first entry that takes it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        if (change.getStatus() == Booking.BookingStatus.CANCELLED && change.getSpecialistId() != null
+                && change.getBookingDateTime() != null && change.getBookingDateTime().isAfter(LocalDateTime.now())) {
+            QueueKey key = new QueueKey(change.getSpecialistId(), change.getBookingDateTime().toLocalDate());
+            if (queues.containsKey(key)) {
+                promoter.execute(() -> promote(key, change.getBookingDateTime()));
+            }
+        }
+    }
+
+    // An entry changed on another node
+    @EventListener
+    public void onInvalidation(InvalidationEvent event) {
+        if (WaitlistEntry.class.getName().equals(event.getEntityType()) && event.getEntityId() != null) {
+            ReplicaRoutingDataSource.onPrimary(() -> waitlistEntryRepository.findById(event.getEntityId()))
+                    .ifPresent(this::track);
+        }
+    }
+
+    // Days that have passed are of no use to anyone waiting for them
+    @Scheduled(fixedDelayString = "${waitlist.expire-interval:3600000}")
+    public void expire() {
+        LocalDate today = LocalDate.now();
+        int expired = waitlistEntryRepository.expire(WaitlistEntry.Status.WAITING, WaitlistEntry.Status.EXPIRED, today);
+        queues.keySet().removeIf(key -> key.getDay().isBefore(today));
+        if (expired > 0) {
+            logger.debug("Expired {} waitlist entries before {}", expired, today);
+        }
+    }
+
+    private void promote(QueueKey key, LocalDateTime start) {
+        NavigableSet<Long> queue = queues.get(key);
+        if (queue == null) {
+            return;
+        }
+        try {
+            bookingRulesService.checkNewBooking(start, 0);
+        } catch (BookingNotAllowedException e) {
+            logger.debug("Not offering the opening at {} to the waitlist: {}", start, e.getMessage());
+            return;
+        }
+        int attempts = 0;
+        for (Long entryId : queue) {
+            if (attempts == maxAttempts) {
+                return;
+            }
+            try {
+                Outcome outcome = transactionTemplate.execute(status -> promote(entryId, start));
+                if (outcome == Outcome.PROMOTED) {
+                    return;
+                }
+                if (outcome != Outcome.NOT_SUITABLE && outcome != Outcome.NOT_ALLOWED) {
+                    attempts++;
+                }
+            } catch (SlotUnavailableException e) {
+                // The entry's services need more than the gap; the next one may fit
+                attempts++;
+            } catch (RuntimeException e) {
+                logger.warn("Promoting waitlist entry {} failed", entryId, e);
+                attempts++;
+            }
+        }
+    }
+
+    private Outcome promote(Long entryId, LocalDateTime start) {
+        WaitlistEntry entry = waitlistEntryRepository.findForUpdate(entryId).orElse(null);
+        if (entry == null || entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            // Promoted or withdrawn elsewhere
+            if (entry != null) {
+                track(entry);
+            }
+            return Outcome.GONE;
+        }
+        LocalTime time = start.toLocalTime();
+        if ((entry.getEarliestTime() != null && time.isBefore(entry.getEarliestTime()))
+                || (entry.getLatestTime() != null && time.isAfter(entry.getLatestTime()))) {
+            return Outcome.NOT_SUITABLE;
+        }
+        try {
+            bookingRulesService.checkNewBooking(start, entry.getServices().size());
+        } catch (BookingNotAllowedException e) {
+            // The opening passed the time rules, so the entry's services break them, for any opening
+            logger.info("Expiring waitlist entry {}: {}", entryId, e.getMessage());
+            entry.setStatus(WaitlistEntry.Status.EXPIRED);
+            waitlistEntryRepository.save(entry);
+            announce(entry);
+            return Outcome.NOT_ALLOWED;
+        }
+
+        Booking booking = new Booking();
+        booking.setCustomer(entry.getCustomer());
+        booking.setSpecialist(entry.getSpecialist());
+        booking.setBookingDateTime(start);
+        booking.setStatus(Booking.BookingStatus.PENDING);
+        booking.setNotes(entry.getNotes());
+        Booking savedBooking = bookingRepository.save(booking);
+
+        int durationMinutes = 0;
+        for (Service service : entry.getServices()) {
+            BookingDetail detail = new BookingDetail();
+            detail.setBooking(savedBooking);
+            detail.setService(service);
+            detail.setPrice(service.getPrice());
+            bookingDetailRepository.save(detail);
+            durationMinutes += service.getDurationMinutes() != null ? service.getDurationMinutes() : 0;
+        }
+
+        entry.setStatus(WaitlistEntry.Status.PROMOTED);
+        entry.setBooking(savedBooking);
+        waitlistEntryRepository.save(entry);
+        announce(entry);
+
+        // Last write, as in BookingController: rolls the promotion back if the gap is too short
+        bookingSlotService.claim(savedBooking, durationMinutes);
+        eventPublisher.publishEvent(BookingChangedEvent.of(BookingChangedEvent.Change.CREATED, savedBooking));
+        promoted.increment();
+        logger.info("Promoted waitlist entry {} to booking {} at {}", entryId, savedBooking.getId(), start);
+        return Outcome.PROMOTED;
+    }
+
+    // Tells the other nodes and, once committed, this node's queue
+    private void announce(WaitlistEntry entry) {
+        invalidationBus.publish(WaitlistEntry.class.getName(), entry.getId(), entry.getVersion());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                track(entry);
+            }
+        });
+    }
+
+    private void track(WaitlistEntry entry) {
+        QueueKey key = new QueueKey(entry.getSpecialist().getId(), entry.getDay());
+        if (entry.getStatus() == WaitlistEntry.Status.WAITING && !entry.getDay().isBefore(LocalDate.now())) {
+            queue(key).add(entry.getId());
+        } else {
+            // Empty queues are left for expire(): removing one here could drop a concurrent add
+            NavigableSet<Long> queue = queues.get(key);
+            if (queue != null) {
+                queue.remove(entry.getId());
+            }
+        }
+    }
+
+    private NavigableSet<Long> queue(QueueKey key) {
+        return queues.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>());
+    }
+
+    private static int waiting(Map<QueueKey, NavigableSet<Long>> queues) {
+        int waiting = 0;
+        for (NavigableSet<Long> queue : queues.values()) {
+            waiting += queue.size();
+        }
+        return waiting;
+    }
+
+    private enum Outcome {
+        PROMOTED,
+        // Withdrawn, promoted or expired meanwhile
+        GONE,
+        // Does not accept the time
+        NOT_SUITABLE,
+        // Breaks the booking rules, expired
+        NOT_ALLOWED
+    }
+
+    @Value
+    private static class QueueKey {
+        Long specialistId;
+        LocalDate day;
+    }
+}
@@ -0,0 +1,32 @@
+-- Customers waiting for a specialist's day to free up. WaitlistService keeps the waiting entries
+-- in memory, ordered by id, and promotes the first that fits when a booking of that specialist
+-- and day is cancelled; the index serves loading a queue and customers' own lists.
+
+create table waitlist_entries (
+    id bigint not null auto_increment,
+    customer_id bigint not null,
+    specialist_id bigint not null,
+    day date not null,
+    earliest_time time,
+    latest_time time,
+    status varchar(16) not null,
+    booking_id bigint,
+    notes varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    version bigint not null default 0,
+    primary key (id),
+    index idx_waitlist_entries_queue (specialist_id, day, status),
+    index idx_waitlist_entries_customer (customer_id, status),
+    constraint fk_waitlist_entries_customer foreign key (customer_id) references customers (id),
+    constraint fk_waitlist_entries_specialist foreign key (specialist_id) references specialists (id),
+    constraint fk_waitlist_entries_booking foreign key (booking_id) references bookings (id) on delete set null
+) engine=InnoDB;
+
+create table waitlist_entry_services (
+    waitlist_entry_id bigint not null,
+    service_id bigint not null,
+    primary key (waitlist_entry_id, service_id),
+    constraint fk_waitlist_entry_services_entry foreign key (waitlist_entry_id) references waitlist_entries (id) on delete cascade,
+    constraint fk_waitlist_entry_services_service foreign key (service_id) references services (id)
+) engine=InnoDB;
@@ -0,0 +1,8 @@
+-- Cold storage for closed bookings past booking.archive.horizon (see BookingArchiver). The
+-- tables start with the columns of the hot ones; rows move with named column lists, so a
+-- column added to bookings or booking_details has to be added here and to BookingArchiver.
+-- Archived rows are only read, so they keep the indexes but not the foreign keys.
+
+create table bookings_archive like bookings;
+
+create table booking_details_archive like booking_details;
@@ -0,0 +1,33 @@
+-- V5 claimed only the first slot of each upcoming booking. A booking holds every 15-minute slot
+-- from its start until its services end (at least one minute), as BookingSlotService.claim
+-- does, so the remaining slots are claimed here. Slots already held, by the booking itself or
+-- by an earlier one double-booked with it, stay with their holder.
+
+insert ignore into booking_slot_claims (specialist_id, slot_start, booking_id)
+select b.specialist_id,
+       timestampadd(minute, slots.n * 15, b.first_slot),
+       b.id
+from (
+    select b.id,
+           b.specialist_id,
+           timestampadd(minute, (timestampdiff(minute, '2000-01-01', b.booking_date_time) div 15) * 15,
+                        '2000-01-01') as first_slot,
+           timestampadd(minute, greatest(coalesce(sum(s.duration_minutes), 0), 1), b.booking_date_time) as ends_at
+    from bookings b
+    left join booking_details bd on bd.booking_id = b.id
+    left join services s on s.id = bd.service_id
+    where b.specialist_id is not null
+      and b.booking_date_time >= now()
+      and b.status in ('PENDING', 'CONFIRMED', 'CHECKED_IN', 'IN_PROGRESS')
+    group by b.id, b.specialist_id, b.booking_date_time
+) b
+join (
+    -- Slot offsets 0 to 95: up to a day of services per booking
+    with recursive offsets (n) as (
+        select 0
+        union all
+        select n + 1 from offsets where n < 95
+    )
+    select n from offsets
+) slots on timestampadd(minute, slots.n * 15, b.first_slot) < b.ends_at
+order by b.id, slots.n;
@@ -0,0 +1,19 @@
+-- Indexes for the lookups QueryPlanTest found scanning their whole table: the outbox purge,
+-- role names, specialist ratings, and the dashboard's review and active service counts.
+
+alter table notification_outbox
+    add index idx_notification_outbox_sent (status, sent_at);
+
+alter table roles
+    add constraint uk_roles_name unique (name);
+
+alter table specialists
+    add index idx_specialists_rating (rating_average),
+    add index idx_specialists_rating_count (rating_count);
+
+-- Covers the dashboard's count and average over a window
+alter table reviews
+    add index idx_reviews_created_at (created_at, rating);
+
+alter table services
+    add index idx_services_active (is_active);
@@ -0,0 +1,7 @@
+-- A waitlist entry keeps the id of the booking it was promoted to. BookingArchiver moves closed
+-- bookings to bookings_archive by deleting them from bookings, which the foreign key answered by
+-- setting booking_id to null. Without it the id stays and names the archived booking; the
+-- index the key created stays as well.
+
+alter table waitlist_entries
+    drop foreign key fk_waitlist_entries_booking;
@@ -0,0 +1,296 @@
+-- Baseline schema, equivalent to what hibernate.ddl-auto=update produced. Constraint names
+-- are Hibernate's, so databases created by ddl-auto are baselined at this version as-is.
+
+create table blog_tags (
+    blog_id bigint not null,
+    tag_id bigint not null,
+    primary key (blog_id, tag_id)
+) engine=InnoDB;
+
+create table blogs (
+    id bigint not null auto_increment,
+    content TEXT not null,
+    created_at datetime(6),
+    featured_image varchar(255),
+    is_published bit,
+    published_at datetime(6),
+    title varchar(255) not null,
+    updated_at datetime(6),
+    view_count integer,
+    author_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table booking_details (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    end_time datetime(6),
+    price decimal(19,2),
+    recommended_followup TEXT,
+    specialist_notes TEXT,
+    start_time datetime(6),
+    status varchar(255),
+    updated_at datetime(6),
+    booking_id bigint,
+    service_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table bookings (
+    id bigint not null auto_increment,
+    booking_date_time datetime(6),
+    cancellation_reason varchar(255),
+    checked_in_time datetime(6),
+    checked_out_time datetime(6),
+    created_at datetime(6),
+    notes varchar(255),
+    payment_method varchar(255),
+    payment_status varchar(255),
+    status varchar(255),
+    total_amount decimal(19,2),
+    updated_at datetime(6),
+    customer_id bigint,
+    specialist_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table categories (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    description varchar(255),
+    name varchar(255) not null,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table customer_quiz_results (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    text_answer varchar(255),
+    updated_at datetime(6),
+    customer_id bigint,
+    question_id bigint,
+    option_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table customers (
+    id bigint not null auto_increment,
+    allergies varchar(255),
+    created_at datetime(6),
+    medical_history varchar(255),
+    skin_concerns varchar(255),
+    skin_type varchar(255),
+    updated_at datetime(6),
+    user_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table option_service_recommendations (
+    option_id bigint not null,
+    service_id bigint not null,
+    primary key (option_id, service_id)
+) engine=InnoDB;
+
+create table option_service_weights (
+    option_id bigint not null,
+    weight integer not null,
+    service_id bigint not null,
+    primary key (option_id, service_id)
+) engine=InnoDB;
+
+create table question_service_recommendations (
+    question_id bigint not null,
+    service_id bigint not null,
+    primary key (question_id, service_id)
+) engine=InnoDB;
+
+create table quiz_options (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    option_text varchar(255) not null,
+    updated_at datetime(6),
+    question_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table quiz_questions (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    is_active bit,
+    question varchar(255) not null,
+    question_type varchar(255),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table reviews (
+    id bigint not null auto_increment,
+    admin_response TEXT,
+    comment TEXT,
+    created_at datetime(6),
+    is_approved bit,
+    rating integer not null,
+    updated_at datetime(6),
+    booking_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table roles (
+    id bigint not null auto_increment,
+    name varchar(20),
+    primary key (id)
+) engine=InnoDB;
+
+create table service_categories (
+    service_id bigint not null,
+    category_id bigint not null,
+    primary key (service_id, category_id)
+) engine=InnoDB;
+
+create table services (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    description TEXT,
+    duration_minutes integer,
+    image_url varchar(255),
+    is_active bit,
+    name varchar(255) not null,
+    price decimal(19,2) not null,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table settings (
+    `key` varchar(255) not null,
+    category varchar(255),
+    created_at datetime(6),
+    description varchar(255),
+    updated_at datetime(6),
+    `value` TEXT,
+    primary key (`key`)
+) engine=InnoDB;
+
+create table specialist_schedules (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    day_of_week varchar(255),
+    end_time time,
+    is_available bit,
+    start_time time,
+    updated_at datetime(6),
+    specialist_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table specialist_services (
+    specialist_id bigint not null,
+    service_id bigint not null,
+    primary key (specialist_id, service_id)
+) engine=InnoDB;
+
+create table specialists (
+    id bigint not null auto_increment,
+    bio varchar(255),
+    certifications varchar(255),
+    created_at datetime(6),
+    experience varchar(255),
+    rating_average double precision,
+    rating_count integer,
+    specialization varchar(255),
+    updated_at datetime(6),
+    user_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table tags (
+    id bigint not null auto_increment,
+    created_at datetime(6),
+    name varchar(255) not null,
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table user_roles (
+    user_id bigint not null,
+    role_id bigint not null,
+    primary key (user_id, role_id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    address varchar(255),
+    avatar varchar(255),
+    created_at datetime(6),
+    date_of_birth datetime(6),
+    email varchar(255) not null,
+    full_name varchar(255),
+    is_active bit,
+    password varchar(255) not null,
+    phone_number varchar(255),
+    updated_at datetime(6),
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table categories add constraint UK_t8o6pivur7nn124jehx7cygw5 unique (name);
+
+alter table reviews add constraint UK_3p9j9vyr1qofbcxju65es206r unique (booking_id);
+
+alter table tags add constraint UK_t48xdq560gs3gap9g7jg36kgc unique (name);
+
+alter table users add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table users add constraint UK_r43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table blog_tags add constraint FK40ssjxev6664mjrw1mrjduxns foreign key (tag_id) references tags (id);
+
+alter table blog_tags add constraint FKknhfjqf24lyrdbfobo3qm09e6 foreign key (blog_id) references blogs (id);
+
+alter table blogs add constraint FKt8g0udj2fq40771g38t2t011n foreign key (author_id) references users (id);
+
+alter table booking_details add constraint FKkbcan6ybv86uappnh0qtdmvas foreign key (booking_id) references bookings (id);
+
+alter table booking_details add constraint FKi61h9unx7dsc9woog2e0jdp4d foreign key (service_id) references services (id);
+
+alter table bookings add constraint FKbvfibgflhsb0g2hnjauiv5khs foreign key (customer_id) references customers (id);
+
+alter table bookings add constraint FK1g3w54kff26fpjgm4gkrf87f3 foreign key (specialist_id) references specialists (id);
+
+alter table customer_quiz_results add constraint FKnhdp468tvppr2pxy82m59enoi foreign key (customer_id) references customers (id);
+
+alter table customer_quiz_results add constraint FK848it026lnyxdytlretpxwex8 foreign key (question_id) references quiz_questions (id);
+
+alter table customer_quiz_results add constraint FK8txc3hw4iimoxd75f0hl9xvjx foreign key (option_id) references quiz_options (id);
+
+alter table customers add constraint FKrh1g1a20omjmn6kurd35o3eit foreign key (user_id) references users (id);
+
+alter table option_service_recommendations add constraint FKns79itsvrhupm0clh9376r58d foreign key (service_id) references services (id);
+
+alter table option_service_recommendations add constraint FKtosra52cv1yfyjegrjohnmmq4 foreign key (option_id) references quiz_options (id);
+
+alter table option_service_weights add constraint FK96lsb8op913567hhh8ra3quxv foreign key (option_id) references quiz_options (id);
+
+alter table question_service_recommendations add constraint FKig7m9slue8e9onvgb26u7w0lv foreign key (service_id) references services (id);
+
+alter table question_service_recommendations add constraint FKrmkslvbywem2c1kji2fw841yg foreign key (question_id) references quiz_questions (id);
+
+alter table quiz_options add constraint FKhkuvmd7qk1lmtq3hy9htpinkr foreign key (question_id) references quiz_questions (id);
+
+alter table reviews add constraint FK28an517hrxtt2bsg93uefugrm foreign key (booking_id) references bookings (id);
+
+alter table service_categories add constraint FKdintkgyfldnnvvy9q23a1dm8o foreign key (category_id) references categories (id);
+
+alter table service_categories add constraint FKii4wflnajg4b0gy29v48nvtmb foreign key (service_id) references services (id);
+
+alter table specialist_schedules add constraint FKtovfjyfmfyw20cak0iai57tx5 foreign key (specialist_id) references specialists (id);
+
+alter table specialist_services add constraint FKdpuhhlfdfj5ya6ae2f99fv5o0 foreign key (service_id) references services (id);
+
+alter table specialist_services add constraint FK8fcpm5rf3pog3m68mqfuscho2 foreign key (specialist_id) references specialists (id);
+
+alter table specialists add constraint FK2p3bygt16asbjqaidkqckbq6q foreign key (user_id) references users (id);
+
+alter table user_roles add constraint FKh8ciramu9cc9q3qcqiv4ue8a6 foreign key (role_id) references roles (id);
+
+alter table user_roles add constraint FKhfh9dx7w3ubf1co1vdev94g3f foreign key (user_id) references users (id);
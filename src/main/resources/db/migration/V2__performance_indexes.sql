@@ -0,0 +1,38 @@
+-- Indexes for the booking, review, blog, settings and quiz lookups. Where a new composite
+-- index starts with a foreign key column, InnoDB drops the index it created implicitly for
+-- that key; single-column foreign key indexes are renamed instead of duplicated.
+
+-- ddl-auto never managed to create settings (`key` is a reserved word), so databases
+-- baselined at V1 do not have it yet.
+create table if not exists settings (
+    `key` varchar(255) not null,
+    category varchar(255),
+    created_at datetime(6),
+    description varchar(255),
+    updated_at datetime(6),
+    `value` TEXT,
+    primary key (`key`)
+) engine=InnoDB;
+
+alter table bookings
+    add index idx_bookings_specialist_time (specialist_id, booking_date_time),
+    add index idx_bookings_status_time (status, booking_date_time),
+    add index idx_bookings_date_time (booking_date_time),
+    add index idx_bookings_payment_status (payment_status),
+    rename index FKbvfibgflhsb0g2hnjauiv5khs to idx_bookings_customer;
+
+alter table booking_details
+    add index idx_booking_details_status (status),
+    rename index FKkbcan6ybv86uappnh0qtdmvas to idx_booking_details_booking;
+
+alter table reviews
+    add index idx_reviews_approved (is_approved);
+
+alter table blogs
+    add index idx_blogs_published (is_published, published_at);
+
+alter table settings
+    add index idx_settings_category (category);
+
+alter table customer_quiz_results
+    add index idx_quiz_results_customer_question (customer_id, question_id);
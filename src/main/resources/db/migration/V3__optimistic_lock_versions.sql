@@ -0,0 +1,14 @@
+-- Version columns for optimistic locking (@Version). Existing rows start at 0; rows
+-- inserted outside JPA (bulk loads) get the same default.
+
+alter table bookings
+    add column version bigint not null default 0;
+
+alter table specialists
+    add column version bigint not null default 0;
+
+alter table reviews
+    add column version bigint not null default 0;
+
+alter table blogs
+    add column version bigint not null default 0;
@@ -0,0 +1,14 @@
+-- Outbox for cross-node cache invalidation (cache.invalidation.transport=jdbc). Rows are
+-- written in the same transaction as the change they describe, polled by every node and
+-- purged after cache.invalidation.retention.
+
+create table cache_invalidations (
+    id bigint not null auto_increment,
+    entity_type varchar(64) not null,
+    entity_id bigint,
+    entity_version bigint,
+    origin varchar(64) not null,
+    created_at datetime(3) not null default current_timestamp(3),
+    primary key (id),
+    index idx_cache_invalidations_created_at (created_at)
+) engine=InnoDB;
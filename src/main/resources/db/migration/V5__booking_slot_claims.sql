@@ -0,0 +1,26 @@
+-- One row per slot a booking holds on its specialist's calendar. The primary key is the
+-- cross-node lock: a second claim on the same slot fails with a duplicate key, whichever
+-- node it comes from. Claims go with their booking when it is deleted.
+
+create table booking_slot_claims (
+    specialist_id bigint not null,
+    slot_start datetime(6) not null,
+    booking_id bigint not null,
+    created_at datetime(6) not null default current_timestamp(6),
+    primary key (specialist_id, slot_start),
+    index idx_booking_slot_claims_booking (booking_id),
+    constraint fk_booking_slot_claims_booking foreign key (booking_id) references bookings (id) on delete cascade,
+    constraint fk_booking_slot_claims_specialist foreign key (specialist_id) references specialists (id)
+) engine=InnoDB;
+
+-- Upcoming bookings claim their first 15-minute slot (booking.slot-minutes default). Where
+-- existing data already double-books a slot, the earliest booking keeps the claim.
+insert ignore into booking_slot_claims (specialist_id, slot_start, booking_id)
+select specialist_id,
+       timestampadd(minute, (timestampdiff(minute, '2000-01-01', booking_date_time) div 15) * 15, '2000-01-01'),
+       id
+from bookings
+where specialist_id is not null
+  and booking_date_time >= now()
+  and status in ('PENDING', 'CONFIRMED', 'CHECKED_IN', 'IN_PROGRESS')
+order by id;
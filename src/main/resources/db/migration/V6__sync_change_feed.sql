@@ -0,0 +1,29 @@
+-- Change feed for client sync (GET /api/sync). Each synced table is read in
+-- (updated_at, id) order from the client's cursor; hard deletes leave a tombstone, as
+-- the row itself is gone. Tombstones are purged after sync.tombstone-retention.
+
+update services set updated_at = coalesce(created_at, now(6)) where updated_at is null;
+update specialists set updated_at = coalesce(created_at, now(6)) where updated_at is null;
+update categories set updated_at = coalesce(created_at, now(6)) where updated_at is null;
+update blogs set updated_at = coalesce(created_at, now(6)) where updated_at is null;
+
+alter table services
+    add index idx_services_updated_at (updated_at, id);
+
+alter table specialists
+    add index idx_specialists_updated_at (updated_at, id);
+
+alter table categories
+    add index idx_categories_updated_at (updated_at, id);
+
+alter table blogs
+    add index idx_blogs_updated_at (updated_at, id);
+
+create table sync_tombstones (
+    id bigint not null auto_increment,
+    entity_type varchar(32) not null,
+    entity_id bigint not null,
+    deleted_at datetime(6) not null,
+    primary key (id),
+    index idx_sync_tombstones_deleted_at (deleted_at, id)
+) engine=InnoDB;
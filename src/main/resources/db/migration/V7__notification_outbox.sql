@@ -0,0 +1,22 @@
+-- Outbox for customer and admin notifications. Rows are written in the transaction of the
+-- booking change they announce and sent afterwards by NotificationDispatcher. A node claims
+-- due rows with SKIP LOCKED and moves next_attempt_at past its lease, so other nodes pass
+-- them over, and take them back if the node dies before reporting the outcome.
+
+create table notification_outbox (
+    id bigint not null auto_increment,
+    type varchar(64) not null,
+    recipient varchar(255) not null,
+    model text not null,
+    dedup_key varchar(191),
+    booking_id bigint,
+    status varchar(16) not null,
+    attempts int not null default 0,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(500),
+    created_at datetime(6) not null default current_timestamp(6),
+    sent_at datetime(6),
+    primary key (id),
+    unique key uk_notification_outbox_dedup_key (dedup_key),
+    index idx_notification_outbox_due (status, next_attempt_at)
+) engine=InnoDB;
@@ -0,0 +1,9 @@
+-- How far a background scheduler has got, shared by all nodes. BookingReminderScheduler records
+-- the time up to which reminders were queued, so a restarted node catches up from there instead
+-- of skipping reminders or queueing them again.
+
+create table scheduler_cursors (
+    name varchar(64) not null,
+    position datetime(6) not null,
+    primary key (name)
+) engine=InnoDB;
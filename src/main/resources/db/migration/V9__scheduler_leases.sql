@@ -0,0 +1,10 @@
+-- Leases for background jobs that must run on one node at a time. A node holds a job while
+-- owner is its id and expires_at lies ahead; an expired lease is free for any node, so a job
+-- moves on when its node dies. Times are the database's, so node clocks do not matter.
+
+create table scheduler_leases (
+    name varchar(64) not null,
+    owner varchar(64) not null,
+    expires_at datetime(6) not null,
+    primary key (name)
+) engine=InnoDB;
@@ -0,0 +1,173 @@
+package com.skincare.application.perf;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Runs the application against an embedded MariaDB instead of the local MySQL.
+ * The data directory lives under target/, so generated data survives restarts
+ * and is thrown away by mvn clean.
+ *
+ * With db.replica.enabled=true a second instance runs as a binlog replica of the
+ * first and the application routes read-only transactions to it (see
+ * ReplicaRoutingConfig). Replication starts from an empty primary, so a data
+ * directory populated without the replica cannot be reused for a replica run.
+ */
+@Configuration
+@Profile("perf")
+public class EmbeddedDatabaseConfig {
+    @Value("${perf.db.port:0}")
+    private int port;
+
+    @Value("${perf.db.data-dir:target/perf-db}")
+    private String dataDir;
+
+    @Value("${perf.db.name:skincare_service}")
+    private String databaseName;
+
+    @Value("${perf.db.buffer-pool-size:512M}")
+    private String bufferPoolSize;
+
+    @Value("${db.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    @Bean(destroyMethod = "stop")
+    public DB embeddedDatabase() throws ManagedProcessException {
+        File root = new File(dataDir).getAbsoluteFile();
+        DBConfigurationBuilder config = configure(port, new File(root, "base"), new File(root, "data"));
+        if (replicaEnabled) {
+            config.addArg("--server-id=1")
+                    .addArg("--log-bin=primary-bin")
+                    .addArg("--binlog-format=ROW");
+        }
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        return db;
+    }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+    public DB embeddedReplica(@Qualifier("embeddedDatabase") DB embeddedDatabase)
+            throws ManagedProcessException, SQLException {
+        File root = new File(dataDir).getAbsoluteFile();
+        File replicaData = new File(root, "replica-data");
+        int primaryPort = embeddedDatabase.getConfiguration().getPort();
+        if (!replicaData.exists() && schemaExists(primaryPort)) {
+            throw new IllegalStateException(root + " holds a primary created without a replica;"
+                    + " point perf.db.data-dir at a fresh directory for replica runs");
+        }
+
+        DBConfigurationBuilder config = configure(0, new File(root, "replica-base"), replicaData)
+                .addArg("--server-id=2")
+                .addArg("--read-only")
+                .addArg("--skip-slave-start");
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+
+        // The primary port can change between runs, so replication is re-pointed before it starts;
+        // the GTID position the replica has reached survives in its data directory
+        try (Connection connection = connect(db.getConfiguration().getPort());
+             Statement statement = connection.createStatement()) {
+            statement.execute("STOP SLAVE");
+            statement.execute("CHANGE MASTER TO MASTER_HOST='127.0.0.1', MASTER_PORT=" + primaryPort
+                    + ", MASTER_USER='root', MASTER_PASSWORD='', MASTER_USE_GTID=slave_pos");
+            statement.execute("START SLAVE");
+        }
+        return db;
+    }
+
+    // The database is created by the driver: mariaDB4j's createDB shells out to the mariadb client
+    @Bean
+    @ConditionalOnProperty(name = "db.replica.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(@Qualifier("embeddedDatabase") DB embeddedDatabase,
+                                       DataSourceProperties properties) {
+        return primaryPool(embeddedDatabase, properties);
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@Qualifier("embeddedDatabase") DB embeddedDatabase,
+                                              DataSourceProperties properties) {
+        HikariDataSource dataSource = primaryPool(embeddedDatabase, properties);
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // No createDatabaseIfNotExist here: the schema has to arrive through replication
+    @Bean
+    @ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("db.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("embeddedReplica") DB embeddedReplica) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:mysql://localhost:" + embeddedReplica.getConfiguration().getPort() + "/"
+                + databaseName + "?useSSL=false&serverTimezone=UTC");
+        dataSource.setUsername("root");
+        dataSource.setPassword("");
+        dataSource.setPoolName("replica");
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    private DBConfigurationBuilder configure(int dbPort, File baseDir, File dbDataDir) {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder()
+                .setPort(dbPort)
+                .setBaseDir(baseDir.getPath())
+                .setDataDir(dbDataDir.getPath())
+                .setDeletingTemporaryBaseAndDataDirsOnShutdown(false)
+                .addArg("--innodb-buffer-pool-size=" + bufferPoolSize)
+                // Durability is irrelevant for a throwaway load-test database; bulk load speed is not
+                .addArg("--innodb-flush-log-at-trx-commit=2");
+        // mariadbd refuses to run as root (CI containers) unless told to
+        if ("root".equals(System.getProperty("user.name"))) {
+            config.addArg("--user=root");
+        }
+        return config;
+    }
+
+    private HikariDataSource primaryPool(DB embeddedDatabase, DataSourceProperties properties) {
+        properties.setUrl("jdbc:mysql://localhost:" + embeddedDatabase.getConfiguration().getPort() + "/"
+                + databaseName + "?createDatabaseIfNotExist=true&useSSL=false&serverTimezone=UTC"
+                + "&rewriteBatchedStatements=true");
+        properties.setUsername("root");
+        properties.setPassword("");
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    private boolean schemaExists(int dbPort) throws SQLException {
+        try (Connection connection = connect(dbPort);
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM information_schema.schemata WHERE schema_name = ?")) {
+            statement.setString(1, databaseName);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static Connection connect(int dbPort) throws SQLException {
+        return DriverManager.getConnection("jdbc:mysql://localhost:" + dbPort + "/?useSSL=false&serverTimezone=UTC",
+                "root", "");
+    }
+}
@@ -0,0 +1,315 @@
+package com.skincare.application.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a mixed workload against a running instance (normally the perf profile)
+ * and prints throughput and latency percentiles per endpoint. Each thread is one
+ * virtual customer with its own seeded random stream, so runs are repeatable.
+ *
+ * Arguments are key=value pairs: baseUrl, threads, duration and warmup (seconds),
+ * users (must match perf.data.users) and seed.
+ */
+public class LoadDriver {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Relative weights of the scenarios in the mix
+    private static final List<Scenario> MIX = List.of(
+            new Scenario("login", 10),
+            new Scenario("browse", 45),
+            new Scenario("my-bookings", 10),
+            new Scenario("book", 15),
+            new Scenario("cancel", 8),
+            new Scenario("admin-dashboard", 12));
+
+    private static final String[] DASHBOARD_WINDOWS = {"TODAY", "WEEK", "MONTH", "YEAR"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int threads;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int customers;
+    private final long seed;
+    private volatile boolean recording;
+    private String adminToken;
+
+    public LoadDriver(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("baseUrl", "http://localhost:8080");
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        this.customers = PerfDataset.customers(Integer.parseInt(options.getOrDefault("users", "100000")));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        new LoadDriver(options).run();
+    }
+
+    public void run() throws Exception {
+        adminToken = login(PerfDataset.admin(1));
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + durationSeconds * 1_000_000_000L;
+
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(seed + t);
+            Thread worker = new Thread(() -> {
+                try {
+                    new VirtualCustomer(random).run(end);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        while (System.nanoTime() < warmupEnd) {
+            Thread.sleep(100);
+        }
+        recording = true;
+        long measuredFrom = System.nanoTime();
+        done.await();
+        report((System.nanoTime() - measuredFrom) / 1e9);
+    }
+
+    private class VirtualCustomer {
+        private final Random random;
+        private final Deque<Long> openBookings = new ArrayDeque<>();
+        private String token;
+
+        VirtualCustomer(Random random) {
+            this.random = random;
+        }
+
+        void run(long end) {
+            String username = PerfDataset.customer(1 + random.nextInt(customers));
+            try {
+                token = login(username);
+            } catch (Exception e) {
+                System.err.println("Login failed for " + username + ": " + e.getMessage());
+                return;
+            }
+            while (System.nanoTime() < end) {
+                try {
+                    execute(pick(), username);
+                } catch (IOException e) {
+                    errors.computeIfAbsent("io", k -> new LongAdder()).increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private String pick() {
+            int total = MIX.stream().mapToInt(Scenario::getWeight).sum();
+            int roll = random.nextInt(total);
+            for (Scenario scenario : MIX) {
+                roll -= scenario.getWeight();
+                if (roll < 0) {
+                    return scenario.getName();
+                }
+            }
+            return MIX.get(0).getName();
+        }
+
+        private void execute(String scenario, String username) throws IOException, InterruptedException {
+            switch (scenario) {
+                case "login":
+                    token = login(username);
+                    break;
+                case "browse":
+                    browse();
+                    break;
+                case "my-bookings":
+                    call("GET /api/bookings/my-bookings", get("/api/bookings/my-bookings", token));
+                    break;
+                case "book":
+                    book();
+                    break;
+                case "cancel":
+                    if (openBookings.isEmpty()) {
+                        book();
+                    } else {
+                        long id = openBookings.poll();
+                        call("PUT /api/bookings/{id}/cancel", put("/api/bookings/" + id + "/cancel", token));
+                    }
+                    break;
+                default:
+                    adminDashboard();
+                    break;
+            }
+        }
+
+        private void browse() throws IOException, InterruptedException {
+            switch (random.nextInt(5)) {
+                case 0:
+                    call("GET /api/services", get("/api/services?active=true", token));
+                    break;
+                case 1:
+                    call("GET /api/specialists", get("/api/specialists", token));
+                    break;
+                case 2:
+                    long specialistId = 1 + random.nextInt(PerfDataset.SPECIALISTS);
+                    call("GET /api/specialists/{id}", get("/api/specialists/" + specialistId, token));
+                    break;
+                case 3:
+                    call("GET /api/blogs/latest", get("/api/blogs/latest", token));
+                    break;
+                default:
+                    call("GET /api/quiz/questions", get("/api/quiz/questions", token));
+                    break;
+            }
+        }
+
+        private void book() throws IOException, InterruptedException {
+            LocalDateTime slot = LocalDateTime.now().plusDays(1 + random.nextInt(30))
+                    .withHour(9 + random.nextInt(8)).withMinute(random.nextBoolean() ? 0 : 30)
+                    .withSecond(0).withNano(0);
+            String body = "{\"specialist\":{\"id\":" + (1 + random.nextInt(PerfDataset.SPECIALISTS)) + "},"
+                    + "\"bookingDateTime\":\"" + DATE_TIME.format(slot) + "\","
+                    + "\"bookingDetails\":[{\"service\":{\"id\":" + (1 + random.nextInt(60)) + "}}]}";
+            HttpResponse<String> response = call("POST /api/bookings", post("/api/bookings", token, body));
+            if (response.statusCode() == 200) {
+                JsonNode id = objectMapper.readTree(response.body()).get("id");
+                if (id != null) {
+                    openBookings.add(id.asLong());
+                }
+            }
+        }
+
+        // What the admin overview loads: the figures of one window, and the reviews awaiting approval
+        private void adminDashboard() throws IOException, InterruptedException {
+            String window = DASHBOARD_WINDOWS[random.nextInt(DASHBOARD_WINDOWS.length)];
+            call("GET /api/dashboard", get("/api/dashboard?window=" + window, adminToken));
+            call("GET /api/reviews", get("/api/reviews?approved=false", adminToken));
+        }
+    }
+
+    private String login(String username) throws IOException, InterruptedException {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + PerfDataset.PASSWORD + "\"}";
+        HttpResponse<String> response = call("POST /api/auth/signin", post("/api/auth/signin", null, body));
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed for " + username + " with status " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private HttpResponse<String> call(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        long micros = (System.nanoTime() - start) / 1_000;
+        if (recording) {
+            latencies.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(3)).recordValue(micros);
+            if (response.statusCode() >= 400) {
+                errors.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+            }
+        }
+        return response;
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest put(String path, String token) {
+        return request(path, token).PUT(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private void report(double seconds) {
+        System.out.printf(Locale.ROOT, "%n%d threads, %.0f s measured after %d s warmup%n%n",
+                threads, seconds, warmupSeconds);
+        System.out.printf(Locale.ROOT, "%-32s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        long totalRequests = 0;
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(latencies).entrySet()) {
+            Histogram histogram = entry.getValue();
+            LongAdder failed = errors.get(entry.getKey());
+            totalRequests += histogram.getTotalCount();
+            System.out.printf(Locale.ROOT, "%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), histogram.getTotalCount(), failed != null ? failed.sum() : 0,
+                    histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+        LongAdder ioErrors = errors.get("io");
+        System.out.printf(Locale.ROOT, "%ntotal %d requests, %.1f req/s, %d connection errors%n",
+                totalRequests, totalRequests / seconds, ioErrors != null ? ioErrors.sum() : 0);
+    }
+
+    private static class Scenario {
+        private final String name;
+        private final int weight;
+
+        Scenario(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+    }
+}
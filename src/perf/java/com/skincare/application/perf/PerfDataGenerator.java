@@ -0,0 +1,419 @@
+package com.skincare.application.perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Random;
+
+/**
+ * Fills an empty perf database with a deterministic, production-sized data set:
+ * the same seed and volumes always produce the same rows, dated relative to the
+ * day they are generated on. Customers are skewed
+ * so a few of them own many bookings, like real regulars. Runs once; a populated
+ * database is left alone.
+ */
+@Component
+@Profile("perf")
+@Order(1)
+public class PerfDataGenerator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PerfDataGenerator.class);
+
+    private static final int CATEGORIES = 8;
+    private static final int SERVICES = 60;
+    private static final int QUESTIONS = 10;
+    private static final int OPTIONS_PER_QUESTION = 4;
+    private static final int TAGS = 20;
+    private static final int BLOGS = 200;
+    private static final String[] SKIN_TYPES = {"Oily", "Dry", "Combination", "Normal", "Sensitive"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${perf.data.enabled:true}")
+    private boolean enabled;
+
+    @Value("${perf.data.seed:42}")
+    private long seed;
+
+    @Value("${perf.data.users:100000}")
+    private int users;
+
+    @Value("${perf.data.bookings:2000000}")
+    private int bookings;
+
+    @Value("${perf.data.reviews:50000}")
+    private int reviews;
+
+    @Value("${perf.data.quiz-response-rate:0.3}")
+    private double quizResponseRate;
+
+    @Value("${perf.data.batch-size:5000}")
+    private int batchSize;
+
+    // Bookings are spread over [now - history, now + horizon], so the upcoming ones the
+    // reminder, assignment and board queries read exist; midnight keeps times on the same minutes
+    private final LocalDateTime now = LocalDate.now().atStartOfDay();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+        if (existing != null && existing > 0) {
+            logger.info("Perf database already has {} users, skipping data generation", existing);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute((Connection connection) -> {
+            generate(connection);
+            return null;
+        });
+        logger.info("Generated perf data set in {} s", (System.currentTimeMillis() - start) / 1000);
+    }
+
+    private void generate(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET foreign_key_checks = 0");
+            statement.execute("SET unique_checks = 0");
+        }
+        try {
+            String passwordHash = passwordEncoder.encode(PerfDataset.PASSWORD);
+            generateRoles(connection);
+            generateUsers(connection, passwordHash);
+            generateCatalog(connection);
+            generateSpecialists(connection);
+            generateBookings(connection);
+            generateQuiz(connection);
+            generateBlogs(connection);
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET foreign_key_checks = 1");
+                statement.execute("SET unique_checks = 1");
+            }
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void generateRoles(Connection connection) throws SQLException {
+        try (Batch batch = new Batch(connection, "INSERT IGNORE INTO roles (id, name) VALUES (?, ?)")) {
+            String[] roles = {"ROLE_CUSTOMER", "ROLE_STAFF", "ROLE_SPECIALIST", "ROLE_ADMIN"};
+            for (int i = 0; i < roles.length; i++) {
+                batch.add(i + 1L, roles[i]);
+            }
+        }
+    }
+
+    private void generateUsers(Connection connection, String passwordHash) throws SQLException {
+        Random random = new Random(seed);
+        int customers = PerfDataset.customers(users);
+        try (Batch userBatch = new Batch(connection, "INSERT INTO users (id, username, password, email, full_name, "
+                + "phone_number, address, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch roleBatch = new Batch(connection, "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)");
+             Batch customerBatch = new Batch(connection, "INSERT INTO customers (id, user_id, skin_type, "
+                     + "skin_concerns, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+            long id = 0;
+            for (int n = 1; n <= PerfDataset.ADMINS; n++) {
+                addUser(userBatch, roleBatch, ++id, PerfDataset.admin(n), passwordHash, 4, random);
+            }
+            for (int n = 1; n <= PerfDataset.STAFF; n++) {
+                addUser(userBatch, roleBatch, ++id, PerfDataset.staff(n), passwordHash, 2, random);
+            }
+            for (int n = 1; n <= PerfDataset.SPECIALISTS; n++) {
+                addUser(userBatch, roleBatch, ++id, PerfDataset.specialist(n), passwordHash, 3, random);
+            }
+            for (int n = 1; n <= customers; n++) {
+                Timestamp created = addUser(userBatch, roleBatch, ++id, PerfDataset.customer(n), passwordHash, 1, random);
+                customerBatch.add((long) n, id, SKIN_TYPES[random.nextInt(SKIN_TYPES.length)],
+                        "Acne, dark spots", created, created);
+            }
+        }
+        logger.info("Generated {} users ({} customers)", users, customers);
+    }
+
+    private Timestamp addUser(Batch userBatch, Batch roleBatch, long id, String username, String passwordHash,
+                              long roleId, Random random) throws SQLException {
+        Timestamp created = timestamp(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+        userBatch.add(id, username, passwordHash, username + "@perf.local", "Perf User " + id,
+                "09" + (10000000 + id), id + " Le Loi, District 1, Ho Chi Minh City", true, created, created);
+        roleBatch.add(id, roleId);
+        return created;
+    }
+
+    private void generateCatalog(Connection connection) throws SQLException {
+        Random random = new Random(seed + 1);
+        Timestamp created = timestamp(now.minusYears(2));
+        try (Batch categoryBatch = new Batch(connection, "INSERT INTO categories (id, name, description, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?)");
+             Batch serviceBatch = new Batch(connection, "INSERT INTO services (id, name, description, price, "
+                     + "duration_minutes, is_active, image_url, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch linkBatch = new Batch(connection, "INSERT INTO service_categories (service_id, category_id) VALUES (?, ?)")) {
+            for (long c = 1; c <= CATEGORIES; c++) {
+                categoryBatch.add(c, "Category " + c, "Treatments of kind " + c, created, created);
+            }
+            for (long s = 1; s <= SERVICES; s++) {
+                serviceBatch.add(s, "Service " + s, "Facial treatment " + s + " with cleansing, exfoliation and a mask.",
+                        servicePrice(s), serviceDuration(s), s % 12 != 0, "/uploads/services/" + s + ".jpg",
+                        created, created);
+                linkBatch.add(s, 1 + (s % CATEGORIES));
+                if (random.nextBoolean()) {
+                    linkBatch.add(s, 1 + ((s + 3) % CATEGORIES));
+                }
+            }
+        }
+    }
+
+    private void generateSpecialists(Connection connection) throws SQLException {
+        Random random = new Random(seed + 2);
+        Timestamp created = timestamp(now.minusYears(2));
+        long firstUserId = PerfDataset.ADMINS + PerfDataset.STAFF + 1;
+        try (Batch specialistBatch = new Batch(connection, "INSERT INTO specialists (id, user_id, specialization, "
+                + "bio, experience, certifications, rating_average, rating_count, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch serviceBatch = new Batch(connection, "INSERT INTO specialist_services (specialist_id, service_id) "
+                     + "VALUES (?, ?)");
+             Batch scheduleBatch = new Batch(connection, "INSERT INTO specialist_schedules (specialist_id, "
+                     + "day_of_week, start_time, end_time, is_available, created_at, updated_at) "
+                     + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (long s = 1; s <= PerfDataset.SPECIALISTS; s++) {
+                specialistBatch.add(s, firstUserId + s - 1, "Dermatology",
+                        "Certified skin therapist with a focus on acne and sensitive skin.",
+                        (2 + random.nextInt(15)) + " years", "CIDESCO", 3.5 + random.nextInt(16) / 10.0,
+                        random.nextInt(400), created, created);
+                int offered = 5 + random.nextInt(6);
+                long first = 1 + random.nextInt(SERVICES);
+                for (int i = 0; i < offered; i++) {
+                    serviceBatch.add(s, 1 + (first + i * 7L) % SERVICES);
+                }
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if (day != DayOfWeek.SUNDAY) {
+                        scheduleBatch.add(s, day.name(), LocalTime.of(9, 0), LocalTime.of(18, 0), true, created, created);
+                    }
+                }
+            }
+        }
+    }
+
+    private void generateBookings(Connection connection) throws SQLException {
+        Random random = new Random(seed + 3);
+        int customers = PerfDataset.customers(users);
+        int historyMinutes = 2 * 365 * 24 * 60;
+        int horizonMinutes = 60 * 24 * 60;
+        // Roughly 70% of bookings end up completed; sample enough of them to reach the review target
+        double reviewProbability = Math.min(1.0, reviews / (bookings * 0.7) * 1.1);
+        long detailId = 0;
+        int reviewCount = 0;
+
+        try (Batch bookingBatch = new Batch(connection, "INSERT INTO bookings (id, customer_id, specialist_id, "
+                + "booking_date_time, status, total_amount, payment_status, payment_method, notes, created_at, "
+                + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch detailBatch = new Batch(connection, "INSERT INTO booking_details (id, booking_id, service_id, "
+                     + "price, status, start_time, end_time, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch reviewBatch = new Batch(connection, "INSERT INTO reviews (booking_id, rating, comment, "
+                     + "is_approved, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long b = 1; b <= bookings; b++) {
+                // Squaring a uniform draw skews bookings towards low customer ids
+                double u = random.nextDouble();
+                long customerId = 1 + (long) (u * u * customers);
+                long specialistId = 1 + random.nextInt(PerfDataset.SPECIALISTS);
+                LocalDateTime start = now.minusMinutes(historyMinutes)
+                        .plusMinutes(random.nextInt(historyMinutes + horizonMinutes))
+                        .withMinute(random.nextBoolean() ? 0 : 30).withSecond(0);
+                String status = bookingStatus(start, random);
+                Timestamp created = timestamp(start.minusDays(1 + random.nextInt(14)));
+
+                int details = 1 + random.nextInt(3);
+                BigDecimal total = BigDecimal.ZERO;
+                LocalDateTime slot = start;
+                for (int d = 0; d < details; d++) {
+                    long serviceId = 1 + random.nextInt(SERVICES);
+                    BigDecimal price = servicePrice(serviceId);
+                    LocalDateTime end = slot.plusMinutes(serviceDuration(serviceId));
+                    detailBatch.add(++detailId, b, serviceId, price, detailStatus(status), timestamp(slot),
+                            timestamp(end), created, created);
+                    total = total.add(price);
+                    slot = end;
+                }
+                bookingBatch.add(b, customerId, specialistId, timestamp(start), status, total,
+                        "COMPLETED".equals(status) ? "PAID" : "PENDING", random.nextBoolean() ? "CASH" : "CARD",
+                        null, created, created);
+
+                if ("COMPLETED".equals(status) && reviewCount < reviews && random.nextDouble() < reviewProbability) {
+                    reviewBatch.add(b, 3 + random.nextInt(3), "Great service, my skin feels much better.",
+                            random.nextInt(10) < 8, timestamp(slot.plusDays(1)), timestamp(slot.plusDays(1)));
+                    reviewCount++;
+                }
+                if (b % 200_000 == 0) {
+                    logger.info("Generated {} / {} bookings", b, bookings);
+                }
+            }
+        }
+        logger.info("Generated {} bookings, {} booking details, {} reviews", bookings, detailId, reviewCount);
+    }
+
+    private void generateQuiz(Connection connection) throws SQLException {
+        Random random = new Random(seed + 4);
+        Timestamp created = timestamp(now.minusYears(1));
+        int customers = PerfDataset.customers(users);
+        long results = 0;
+        try (Batch questionBatch = new Batch(connection, "INSERT INTO quiz_questions (id, question, question_type, "
+                + "is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)");
+             Batch questionServiceBatch = new Batch(connection, "INSERT INTO question_service_recommendations "
+                     + "(question_id, service_id) VALUES (?, ?)");
+             Batch optionBatch = new Batch(connection, "INSERT INTO quiz_options (id, question_id, option_text, "
+                     + "created_at, updated_at) VALUES (?, ?, ?, ?, ?)");
+             Batch optionServiceBatch = new Batch(connection, "INSERT INTO option_service_recommendations "
+                     + "(option_id, service_id) VALUES (?, ?)");
+             Batch weightBatch = new Batch(connection, "INSERT INTO option_service_weights (option_id, service_id, "
+                     + "weight) VALUES (?, ?, ?)")) {
+            for (long q = 1; q <= QUESTIONS; q++) {
+                questionBatch.add(q, "Question " + q + ": how does your skin feel?", "SINGLE_CHOICE", true,
+                        created, created);
+                questionServiceBatch.add(q, 1 + random.nextInt(SERVICES));
+                for (int o = 0; o < OPTIONS_PER_QUESTION; o++) {
+                    long optionId = (q - 1) * OPTIONS_PER_QUESTION + o + 1;
+                    optionBatch.add(optionId, q, "Option " + (o + 1), created, created);
+                    long first = 1 + random.nextInt(SERVICES);
+                    for (int i = 0; i < 3; i++) {
+                        long serviceId = 1 + (first + i * 11L) % SERVICES;
+                        optionServiceBatch.add(optionId, serviceId);
+                        weightBatch.add(optionId, serviceId, 1 + random.nextInt(5));
+                    }
+                }
+            }
+        }
+        try (Batch resultBatch = new Batch(connection, "INSERT INTO customer_quiz_results (customer_id, "
+                + "question_id, option_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (long c = 1; c <= customers; c++) {
+                if (random.nextDouble() >= quizResponseRate) {
+                    continue;
+                }
+                Timestamp answered = timestamp(now.minusMinutes(random.nextInt(365 * 24 * 60)));
+                for (long q = 1; q <= QUESTIONS; q++) {
+                    long optionId = (q - 1) * OPTIONS_PER_QUESTION + 1 + random.nextInt(OPTIONS_PER_QUESTION);
+                    resultBatch.add(c, q, optionId, answered, answered);
+                    results++;
+                }
+            }
+        }
+        logger.info("Generated {} quiz results", results);
+    }
+
+    private void generateBlogs(Connection connection) throws SQLException {
+        Random random = new Random(seed + 5);
+        try (Batch tagBatch = new Batch(connection, "INSERT INTO tags (id, name, created_at, updated_at) VALUES (?, ?, ?, ?)");
+             Batch blogBatch = new Batch(connection, "INSERT INTO blogs (id, title, content, featured_image, "
+                     + "is_published, view_count, author_id, created_at, updated_at, published_at) "
+                     + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch blogTagBatch = new Batch(connection, "INSERT INTO blog_tags (blog_id, tag_id) VALUES (?, ?)")) {
+            Timestamp created = timestamp(now.minusYears(2));
+            for (long t = 1; t <= TAGS; t++) {
+                tagBatch.add(t, "tag-" + t, created, created);
+            }
+            String content = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(60);
+            for (long b = 1; b <= BLOGS; b++) {
+                Timestamp published = timestamp(now.minusDays(random.nextInt(700)));
+                blogBatch.add(b, "Skin care guide " + b, content, "/uploads/blogs/" + b + ".jpg", b % 10 != 0,
+                        random.nextInt(5000), 1 + random.nextInt(PerfDataset.ADMINS + PerfDataset.STAFF),
+                        published, published, published);
+                blogTagBatch.add(b, 1 + (b % TAGS));
+                blogTagBatch.add(b, 1 + ((b + 7) % TAGS));
+            }
+        }
+    }
+
+    private String bookingStatus(LocalDateTime start, Random random) {
+        int roll = random.nextInt(100);
+        if (start.isAfter(now)) {
+            return roll < 15 ? "CANCELLED" : roll < 55 ? "PENDING" : "CONFIRMED";
+        }
+        return roll < 80 ? "COMPLETED" : roll < 92 ? "CANCELLED" : "NO_SHOW";
+    }
+
+    private String detailStatus(String bookingStatus) {
+        switch (bookingStatus) {
+            case "COMPLETED":
+                return "COMPLETED";
+            case "CANCELLED":
+            case "NO_SHOW":
+                return "CANCELLED";
+            default:
+                return "PENDING";
+        }
+    }
+
+    private static BigDecimal servicePrice(long serviceId) {
+        return BigDecimal.valueOf(200_000 + serviceId * 15_000);
+    }
+
+    private static int serviceDuration(long serviceId) {
+        return 30 + (int) (serviceId % 4) * 15;
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return Timestamp.valueOf(time);
+    }
+
+    // Prepared statement that flushes and commits every batchSize rows
+    private class Batch implements AutoCloseable {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private int pending;
+
+        Batch(Connection connection, String sql) throws SQLException {
+            this.connection = connection;
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.commit();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.skincare.application.perf;
+
+/**
+ * Account layout shared by the data generator and the load driver. User ids are
+ * assigned in this order, so the driver can log in as any generated account
+ * without reading the database.
+ */
+public final class PerfDataset {
+    public static final String PASSWORD = "password";
+    public static final int ADMINS = 2;
+    public static final int STAFF = 20;
+    public static final int SPECIALISTS = 200;
+
+    private PerfDataset() {
+    }
+
+    public static int customers(int users) {
+        return users - ADMINS - STAFF - SPECIALISTS;
+    }
+
+    public static String admin(int n) {
+        return "admin" + n;
+    }
+
+    public static String staff(int n) {
+        return "staff" + n;
+    }
+
+    public static String specialist(int n) {
+        return "specialist" + n;
+    }
+
+    public static String customer(int n) {
+        return "customer" + n;
+    }
+}
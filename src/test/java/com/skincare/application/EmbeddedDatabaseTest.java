@@ -0,0 +1,46 @@
+package com.skincare.application;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base for tests that need the real database: one embedded MariaDB is started per
+ * test run and migrated by Flyway with the first application context, so tests see
+ * the production schema, its keys and InnoDB's locking. Test classes share it and
+ * each works on rows of its own.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class EmbeddedDatabaseTest {
+    private static final DB DATABASE = start();
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:mysql://localhost:" + DATABASE.getConfiguration().getPort()
+                + "/skincare_service?createDatabaseIfNotExist=true&useSSL=false&serverTimezone=UTC"
+                + "&rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    // Stopped by mariaDB4j's shutdown hook when the test JVM exits
+    private static DB start() {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder().setPort(0);
+        // mariadbd refuses to run as root (CI containers) unless told to
+        if ("root".equals(System.getProperty("user.name"))) {
+            config.addArg("--user=root");
+        }
+        try {
+            DB db = DB.newEmbeddedDB(config.build());
+            db.start();
+            return db;
+        } catch (ManagedProcessException e) {
+            throw new IllegalStateException("Cannot start the embedded MariaDB for tests", e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.skincare.application.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skincare.application.EmbeddedDatabaseTest;
+import com.skincare.application.dto.BookingDetailDto;
+import com.skincare.application.dto.BookingDto;
+import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.dto.SpecialistDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Many customers book one specialist's slot at the same moment through POST /api/bookings: one booking
+// is made, every other request is answered 409
+@AutoConfigureMockMvc
+class BookingRaceTest extends EmbeddedDatabaseTest {
+    private static final int REQUESTS = 1000;
+    private static final int CUSTOMERS = 50;
+    // Requests in flight at once; the rest queue behind them, all released together
+    private static final int THREADS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exactlyOneOfManyParallelBookingsWinsTheSlot() throws Exception {
+        long specialistId = insert("specialists", Map.of("user_id", insertUser()));
+        long serviceId = insert("services", Map.of("name", "race-" + UUID.randomUUID(), "price", BigDecimal.TEN,
+                "duration_minutes", 45, "is_active", true));
+        List<String> customers = insertCustomers();
+        LocalDateTime slot = LocalDateTime.now().plusDays(3).withHour(11).withMinute(0).withSecond(0).withNano(0);
+
+        Map<Integer, Integer> statuses = race(customers, i -> booking(specialistId, serviceId, slot));
+
+        assertThat(statuses).containsOnlyKeys(200, 409);
+        assertThat(statuses.get(200)).isEqualTo(1);
+        assertThat(statuses.get(409)).isEqualTo(REQUESTS - 1);
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM bookings WHERE specialist_id = ?", String.class,
+                specialistId)).containsExactly("PENDING");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT booking_id) FROM booking_slot_claims "
+                + "WHERE specialist_id = ? AND slot_start = ?", Integer.class, specialistId, Timestamp.valueOf(slot)))
+                .isEqualTo(1);
+    }
+
+    // Starts 15 minutes apart, each booking 45 minutes: every one covers 11:30, none the same first slot
+    @Test
+    void exactlyOneOfManyParallelOverlappingBookingsWins() throws Exception {
+        long specialistId = insert("specialists", Map.of("user_id", insertUser()));
+        long serviceId = insert("services", Map.of("name", "race-" + UUID.randomUUID(), "price", BigDecimal.TEN,
+                "duration_minutes", 45, "is_active", true));
+        List<String> customers = insertCustomers();
+        LocalDateTime day = LocalDateTime.now().plusDays(4).withHour(11).withMinute(0).withSecond(0).withNano(0);
+
+        Map<Integer, Integer> statuses = race(customers,
+                i -> booking(specialistId, serviceId, day.plusMinutes(i % 3 * 15)));
+
+        assertThat(statuses).containsOnlyKeys(200, 409);
+        assertThat(statuses.get(200)).isEqualTo(1);
+        assertThat(statuses.get(409)).isEqualTo(REQUESTS - 1);
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM bookings WHERE specialist_id = ?", String.class,
+                specialistId)).containsExactly("PENDING");
+    }
+
+    // Response statuses by count; request i books what bookings gives for it
+    private Map<Integer, Integer> race(List<String> customers, IntFunction<BookingDto> bookings) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                String customer = customers.get(i % customers.size());
+                String body = objectMapper.writeValueAsString(bookings.apply(i));
+                Callable<Integer> request = () -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/bookings").with(user(customer).roles("CUSTOMER"))
+                                    .contentType(MediaType.APPLICATION_JSON).content(body))
+                            .andReturn().getResponse().getStatus();
+                };
+                results.add(executor.submit(request));
+            }
+            start.countDown();
+
+            Map<Integer, Integer> statuses = new TreeMap<>();
+            for (Future<Integer> result : results) {
+                statuses.merge(result.get(), 1, Integer::sum);
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BookingDto booking(long specialistId, long serviceId, LocalDateTime slot) {
+        SpecialistDto specialist = new SpecialistDto();
+        specialist.setId(specialistId);
+        ServiceDto service = new ServiceDto();
+        service.setId(serviceId);
+        BookingDetailDto detail = new BookingDetailDto();
+        detail.setService(service);
+        BookingDto booking = new BookingDto();
+        booking.setSpecialist(specialist);
+        booking.setBookingDateTime(slot);
+        booking.setBookingDetails(List.of(detail));
+        return booking;
+    }
+
+    // Usernames of new customers
+    private List<String> insertCustomers() {
+        List<String> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            long userId = insertUser();
+            insert("customers", Map.of("user_id", userId));
+            customers.add(jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, userId));
+        }
+        return customers;
+    }
+
+    private long insertUser() {
+        String username = "race-" + UUID.randomUUID();
+        return insert("users", Map.of("username", username, "email", username + "@example.com", "password", "-",
+                "full_name", "Race User", "is_active", true));
+    }
+
+    private long insert(String table, Map<String, Object> values) {
+        return new SimpleJdbcInsert(jdbcTemplate).withTableName(table)
+                .usingColumns(values.keySet().toArray(new String[0])).usingGeneratedKeyColumns("id")
+                .executeAndReturnKey(values)
+                .longValue();
+    }
+}
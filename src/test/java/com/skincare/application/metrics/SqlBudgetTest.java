@@ -0,0 +1,176 @@
+package com.skincare.application.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skincare.application.EmbeddedDatabaseTest;
+import com.skincare.application.dto.BookingDetailDto;
+import com.skincare.application.dto.BookingDto;
+import com.skincare.application.dto.ServiceDto;
+import com.skincare.application.dto.SpecialistDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The endpoints with a statement budget, served in strict mode (see application-test.properties):
+// a request over its budget, or repeating one statement as often as the N+1 threshold, fails.
+// Lists are longer than the threshold, so a query per row cannot pass.
+@AutoConfigureMockMvc
+class SqlBudgetTest extends EmbeddedDatabaseTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SqlTracingInspector sqlTracingInspector;
+
+    @Test
+    void servicesAreServedWithinBudget() throws Exception {
+        List<Long> serviceIds = insertServices(rows());
+        RequestPostProcessor customer = user("budget-customer").roles("CUSTOMER");
+
+        mockMvc.perform(get("/api/services").with(customer))
+                .andExpect(status().isOk()).andExpect(header().exists("Server-Timing"));
+        mockMvc.perform(get("/api/services").with(customer).param("active", "true")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/services/{id}", serviceIds.get(0)).with(customer)).andExpect(status().isOk());
+    }
+
+    @Test
+    void quizQuestionsAreServedWithinBudget() throws Exception {
+        List<Long> serviceIds = insertServices(2);
+        // Inactive, so not in the catalogue snapshot: served from the database
+        long questionId = insert("quiz_questions", Map.of("question", "Budget question", "question_type", "SINGLE_CHOICE",
+                "is_active", false));
+        for (int i = 0; i < rows(); i++) {
+            insert("quiz_options", Map.of("question_id", questionId, "option_text", "Budget option " + i));
+        }
+        for (Long serviceId : serviceIds) {
+            jdbcTemplate.update("INSERT INTO question_service_recommendations (question_id, service_id) VALUES (?, ?)",
+                    questionId, serviceId);
+        }
+
+        RequestPostProcessor customer = user("budget-customer").roles("CUSTOMER");
+        mockMvc.perform(get("/api/quiz/questions").with(customer)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/quiz/questions/{id}", questionId).with(customer)).andExpect(status().isOk());
+    }
+
+    @Test
+    void bookingsAreServedWithinBudget() throws Exception {
+        String customer = insertUser();
+        long customerId = insert("customers", Map.of("user_id", userId(customer)));
+        long specialistId = insert("specialists", Map.of("user_id", userId(insertUser())));
+        List<Long> serviceIds = insertServices(2);
+        // A day of their own, far enough ahead that no other test books it
+        LocalDateTime day = LocalDateTime.now().plusDays(500 + (customerId % 300)).withHour(9).withMinute(0)
+                .withSecond(0).withNano(0);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < rows(); i++) {
+            LocalDateTime start = day.plusMinutes(30L * i);
+            long bookingId = insert("bookings", Map.of("customer_id", customerId, "specialist_id", specialistId,
+                    "booking_date_time", Timestamp.valueOf(start), "status", "PENDING", "payment_status", "PENDING"));
+            for (Long serviceId : serviceIds) {
+                insert("booking_details", Map.of("booking_id", bookingId, "service_id", serviceId,
+                        "price", BigDecimal.TEN, "status", "PENDING"));
+            }
+            bookingIds.add(bookingId);
+        }
+        RequestPostProcessor staff = user("budget-staff").roles("STAFF");
+
+        mockMvc.perform(get("/api/bookings/my-bookings").with(user(customer).roles("CUSTOMER")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/bookings/{id}", bookingIds.get(0)).with(staff)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/bookings").with(staff)
+                        .param("startDate", day.toString()).param("endDate", day.plusDays(1).toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/bookings").with(staff).param("status", "PENDING")
+                        .param("startDate", day.toString()).param("endDate", day.plusDays(1).toString()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void bookingIsCreatedWithinBudget() throws Exception {
+        String customer = insertUser();
+        insert("customers", Map.of("user_id", userId(customer)));
+        long specialistId = insert("specialists", Map.of("user_id", userId(insertUser())));
+        BookingDto booking = new BookingDto();
+        SpecialistDto specialist = new SpecialistDto();
+        specialist.setId(specialistId);
+        booking.setSpecialist(specialist);
+        booking.setBookingDateTime(LocalDateTime.now().plusDays(3).withHour(10).withMinute(0).withSecond(0).withNano(0));
+        List<BookingDetailDto> details = new ArrayList<>();
+        for (Long serviceId : insertServices(2)) {
+            ServiceDto service = new ServiceDto();
+            service.setId(serviceId);
+            BookingDetailDto detail = new BookingDetailDto();
+            detail.setService(service);
+            details.add(detail);
+        }
+        booking.setBookingDetails(details);
+
+        mockMvc.perform(post("/api/bookings").with(user(customer).roles("CUSTOMER"))
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(booking)))
+                .andExpect(status().isOk());
+    }
+
+    // Longer than the N+1 threshold
+    private int rows() {
+        assertThat(sqlTracingInspector.isStrict()).as("sql.tracing.strict in the test profile").isTrue();
+        return sqlTracingInspector.getRepeatThreshold() + 2;
+    }
+
+    // Active services in a category each
+    private List<Long> insertServices(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = "budget-" + UUID.randomUUID();
+            long categoryId = insert("categories", Map.of("name", name));
+            long serviceId = insert("services", Map.of("name", name, "price", BigDecimal.TEN, "duration_minutes", 30,
+                    "is_active", true));
+            jdbcTemplate.update("INSERT INTO service_categories (service_id, category_id) VALUES (?, ?)",
+                    serviceId, categoryId);
+            ids.add(serviceId);
+        }
+        return ids;
+    }
+
+    private String insertUser() {
+        String username = "budget-" + UUID.randomUUID();
+        insert("users", Map.of("username", username, "email", username + "@example.com", "password", "-",
+                "full_name", "Budget User", "is_active", true));
+        return username;
+    }
+
+    private long userId(String username) {
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    private long insert(String table, Map<String, Object> values) {
+        return new SimpleJdbcInsert(jdbcTemplate).withTableName(table)
+                .usingColumns(values.keySet().toArray(new String[0])).usingGeneratedKeyColumns("id")
+                .executeAndReturnKey(values)
+                .longValue();
+    }
+}
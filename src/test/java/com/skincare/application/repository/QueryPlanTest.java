@@ -0,0 +1,515 @@
+package com.skincare.application.repository;
+
+import com.skincare.application.EmbeddedDatabaseTest;
+import com.skincare.application.cache.JdbcInvalidationTransport;
+import com.skincare.application.model.Blog;
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.BookingDetail;
+import com.skincare.application.model.Category;
+import com.skincare.application.model.Customer;
+import com.skincare.application.model.QuizQuestion;
+import com.skincare.application.model.Role;
+import com.skincare.application.model.Service;
+import com.skincare.application.model.Specialist;
+import com.skincare.application.model.Tag;
+import com.skincare.application.model.User;
+import com.skincare.application.model.WaitlistEntry;
+import com.skincare.application.service.BookingSlotService;
+import com.skincare.application.service.SpecialistAssignmentService;
+import com.skincare.application.service.dashboard.DashboardService;
+import com.skincare.application.service.notification.BookingReminderScheduler;
+import com.skincare.application.service.notification.NotificationDispatcher;
+import com.skincare.application.service.notification.NotificationOutbox;
+import com.skincare.application.service.notification.NotificationType;
+import com.skincare.application.service.scheduling.BookingArchiver;
+import com.skincare.application.service.scheduling.BookingSweeper;
+import com.skincare.application.service.settings.SettingsService;
+import com.skincare.application.service.sync.ChangeFeed;
+import com.skincare.application.service.sync.ChangeFeedService;
+import com.skincare.application.service.sync.SyncCursor;
+import com.skincare.application.service.waitlist.WaitlistService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs every statement the application sends while each repository query and each
+ * background job runs once on a production-shaped data set, and fails on any full table
+ * scan. Statements are recorded as they go to the driver, so the SQL is Hibernate's and
+ * JdbcTemplate's own; startup loads and other threads' statements are checked too.
+ */
+@Import(QueryPlanTest.Recording.class)
+@TestPropertySource(properties = "cache.invalidation.transport=jdbc")
+class QueryPlanTest extends EmbeddedDatabaseTest {
+    // Reads that return every row, or every active or published one (nearly all of them), by
+    // contract, and substring searches no B-tree index can serve
+    private static final Set<String> WHOLE_TABLE_READS = Set.of(
+            "BlogRepository.findAll",
+            "BlogRepository.findByIsPublishedTrue",
+            "BookingArchiveQueries.findAll",
+            "CategoryRepository.findAll",
+            "CustomerRepository.findAll",
+            "QuizOptionRepository.findActiveWithRecommendedServices",
+            "QuizOptionRepository.findActiveServiceWeights",
+            "QuizQuestionRepository.findByIsActiveTrue",
+            "QuizQuestionRepository.findActiveWithRecommendedServices",
+            "ReviewRepository.findAll",
+            "ServiceRepository.findByIsActiveTrue",
+            "SettingsService.reload",
+            "SpecialistAssignmentService.refresh",
+            "SpecialistRepository.findAll",
+            "SpecialistRepository.findAllActiveSpecialists",
+            "SpecialistRepository.findAllOrderByRatingDesc",
+            "SpecialistRepository.findMostVersatileSpecialists",
+            "SpecialistRepository.findBySpecializationContaining",
+            "SpecialistRepository.findByNameContaining",
+            "SpecialistRepository.searchByKeyword",
+            "SpecialistRepository.findByExperienceContaining",
+            "SpecialistRepository.findByCertificationsContaining");
+
+    @TestConfiguration
+    static class Recording {
+        // Records from the end of the migrations on, so startup loads are checked but Flyway is not
+        @Bean
+        static BeanPostProcessor statementRecording() {
+            return new BeanPostProcessor() {
+                private StatementRecorder recorder;
+
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+                        recorder = new StatementRecorder((DataSource) bean);
+                        return recorder;
+                    }
+                    if (bean instanceof FlywayMigrationInitializer && recorder != null) {
+                        recorder.doing("startup");
+                        recorder.start();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingDetailRepository bookingDetailRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CustomerQuizResultRepository customerQuizResultRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private QuizOptionRepository quizOptionRepository;
+
+    @Autowired
+    private QuizQuestionRepository quizQuestionRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private SettingsRepository settingsRepository;
+
+    @Autowired
+    private SpecialistRepository specialistRepository;
+
+    @Autowired
+    private SpecialistScheduleRepository specialistScheduleRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingSweeper bookingSweeper;
+
+    @Autowired
+    private BookingSlotService bookingSlotService;
+
+    @Autowired
+    private SpecialistAssignmentService specialistAssignmentService;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private BookingReminderScheduler bookingReminderScheduler;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private SettingsService settingsService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private JdbcInvalidationTransport invalidationTransport;
+
+    private StatementRecorder recorder;
+    private TransactionTemplate transactionTemplate;
+    private final Set<String> called = new HashSet<>();
+
+    @Test
+    void noStatementScansAWholeTable() throws Exception {
+        recorder = (StatementRecorder) dataSource;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        recorder.doing(null);
+        new ResourceDatabasePopulator(new ClassPathResource("db/query-plan-data.sql")).execute(dataSource);
+
+        // Background jobs first: the archive queries need archived bookings
+        runBackgroundJobs();
+        runRepositoryQueries();
+        recorder.stop();
+
+        assertThat(missingRepositoryQueries()).as("Repository queries this test does not run").isEmpty();
+        List<String> fullScans = new ArrayList<>();
+        for (StatementRecorder.Recorded statement : recorder.recorded()) {
+            if (explainable(statement.sql) && statement.labels.stream().noneMatch(WHOLE_TABLE_READS::contains)) {
+                for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + statement.sql,
+                        statement.parameters.toArray())) {
+                    String table = String.valueOf(row.get("table"));
+                    // Derived tables and subquery results are temporary tables, read whole by nature
+                    if ("ALL".equals(row.get("type")) && !table.startsWith("<")) {
+                        fullScans.add(String.format("%s: full scan of %s (~%s rows)%n    %s",
+                                new TreeSet<>(statement.labels), table, row.get("rows"), statement.sql));
+                    }
+                }
+            }
+        }
+        assertThat(fullScans).as("Statements scanning a whole table").isEmpty();
+    }
+
+    private void runBackgroundJobs() throws InterruptedException {
+        // Also run at startup and by the reminder thread, which would label them startup and thread:...
+        call("SettingsService.reload", settingsService::reload);
+        call("SpecialistAssignmentService.refresh", specialistAssignmentService::refresh);
+        call("BookingArchiver.archive", bookingArchiver::archive);
+        call("BookingSweeper.sweep", bookingSweeper::sweep);
+        call("BookingReminderScheduler.advance", () -> {
+            // Loads the upcoming bookings, then moves the wheel and the cursor
+            ReflectionTestUtils.invokeMethod(bookingReminderScheduler, "advance");
+            ReflectionTestUtils.invokeMethod(bookingReminderScheduler, "advance");
+        });
+        call("NotificationOutbox.enqueue", () -> transactionTemplate.executeWithoutResult(status ->
+                notificationOutbox.enqueue(NotificationType.ADMIN_NEW_BOOKING, "plan-admin@example.com",
+                        Map.of("bookingId", 1, "bookingTime", "-", "customerName", "-", "services", "-",
+                                "specialistName", "-"),
+                        null, null)));
+        // Sent on the dispatcher thread
+        for (int waited = 0; waited < 100 && jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_outbox WHERE status = 'PENDING'", Integer.class) > 0; waited++) {
+            Thread.sleep(100);
+        }
+        call("NotificationDispatcher.purge", () -> ReflectionTestUtils.invokeMethod(notificationDispatcher, "purge"));
+        // A first sync pages through every row by contract; the one checked is a client catching up
+        recorder.doing(null);
+        ChangeFeed feed = changeFeedService.changesSince(null, 100);
+        while (feed.isHasMore()) {
+            feed = changeFeedService.changesSince(feed.getNext(), 100);
+        }
+        SyncCursor cursor = feed.getNext();
+        call("ChangeFeedService.changesSince", () -> changeFeedService.changesSince(cursor, 100));
+        call("ChangeFeedService.purgeTombstones", changeFeedService::purgeTombstones);
+        // Its queries run on the dashboard threads
+        call("DashboardService.getSummary", () -> dashboardService.getSummary(DashboardService.Window.YEAR));
+        call("WaitlistService.expire", waitlistService::expire);
+        call("JdbcInvalidationTransport.poll", invalidationTransport::poll);
+        call("JdbcInvalidationTransport.purge", invalidationTransport::purge);
+        call("SpecialistAssignmentService.assign", () -> transactionTemplate.executeWithoutResult(status -> {
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .customer(customerRepository.getReferenceById(id("SELECT MAX(id) FROM customers")))
+                    .bookingDateTime(LocalDate.now().plusDays(3).atTime(10, 0))
+                    .status(Booking.BookingStatus.PENDING)
+                    .build());
+            specialistAssignmentService.assign(booking, List.of(id("SELECT MIN(service_id) FROM specialist_services")), 45);
+            status.setRollbackOnly();
+        }));
+        call("BookingSlotService.release", () -> bookingSlotService.release(id("SELECT MAX(id) FROM bookings")));
+    }
+
+    private void runRepositoryQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        // A day of the calendar, old enough to reach the archive
+        LocalDateTime from = now.minusMonths(14).minusDays(1);
+        LocalDateTime to = now.minusMonths(14);
+        PageRequest page = PageRequest.of(0, 20);
+
+        recorder.doing("fixtures");
+        Long blogId = id("SELECT MAX(id) FROM blogs");
+        Long bookingId = id("SELECT MAX(id) FROM bookings WHERE status = 'COMPLETED'");
+        Long archivedId = id("SELECT MAX(id) FROM bookings_archive");
+        Long customerId = id("SELECT MAX(id) FROM customers");
+        Long specialistId = id("SELECT MAX(id) FROM specialists");
+        Long serviceId = id("SELECT MAX(id) FROM services");
+        Long questionId = id("SELECT MAX(id) FROM quiz_questions");
+        Long userId = id("SELECT user_id FROM customers WHERE id = ?", customerId);
+        Long authorId = id("SELECT author_id FROM blogs WHERE id = ?", blogId);
+        Long specialistUserId = id("SELECT user_id FROM specialists WHERE id = ?", specialistId);
+        Long waitlistEntryId = id("SELECT MAX(id) FROM waitlist_entries");
+
+        Customer customer = customerRepository.findById(customerId).orElseThrow();
+        Specialist specialist = specialistRepository.findById(specialistId).orElseThrow();
+        Service service = serviceRepository.findById(serviceId).orElseThrow();
+        QuizQuestion question = quizQuestionRepository.findById(questionId).orElseThrow();
+        User user = userRepository.findById(userId).orElseThrow();
+        User author = userRepository.findById(authorId).orElseThrow();
+        User specialistUser = userRepository.findById(specialistUserId).orElseThrow();
+        Booking booking = bookingRepository.findWithSummaryById(bookingId).orElseThrow();
+        Booking archived = bookingRepository.findSummaryById(archivedId).orElseThrow();
+        Category category = categoryRepository.findById(id("SELECT MAX(category_id) FROM service_categories")).orElseThrow();
+        Tag tag = tagRepository.findById(id("SELECT MAX(tag_id) FROM blog_tags")).orElseThrow();
+        String username = jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, userId);
+        String email = jdbcTemplate.queryForObject("SELECT email FROM users WHERE id = ?", String.class, userId);
+        String categoryName = jdbcTemplate.queryForObject("SELECT name FROM categories WHERE id = ?", String.class,
+                category.getId());
+        Map<String, Object> setting = jdbcTemplate.queryForMap("SELECT `key`, category FROM settings LIMIT 1");
+
+        call("BlogRepository.findAll", blogRepository::findAll);
+        call("BlogRepository.findById", () -> blogRepository.findById(blogId));
+        call("BlogRepository.findByIsPublishedTrue", blogRepository::findByIsPublishedTrue);
+        call("BlogRepository.findLatestPublished", () -> blogRepository.findLatestPublished(PageRequest.of(0, 5)));
+        call("BlogRepository.findByTagsContaining", () -> blogRepository.findByTagsContaining(tag));
+        call("BlogRepository.incrementViewCount", () -> blogRepository.incrementViewCount(blogId));
+        call("BlogRepository.findChangedSince", () -> blogRepository.findChangedSince(now.minusDays(3), 0L, now, page));
+        call("BlogRepository.touchByAuthor", () -> blogRepository.touchByAuthor(author, now));
+
+        call("BookingRepository.findWithSummaryById", () -> bookingRepository.findWithSummaryById(bookingId));
+        call("BookingArchiveQueries.findSummaryById", () -> bookingRepository.findSummaryById(archivedId));
+        call("BookingArchiveQueries.isArchived", () -> bookingRepository.isArchived(bookingId));
+        call("BookingArchiveQueries.findAll", bookingRepository::findAll);
+        call("BookingArchiveQueries.findByCustomer", () -> bookingRepository.findByCustomer(customer));
+        call("BookingArchiveQueries.findBySpecialist", () -> bookingRepository.findBySpecialist(specialist));
+        call("BookingArchiveQueries.findByStatus", () -> bookingRepository.findByStatus(Booking.BookingStatus.PENDING));
+        call("BookingArchiveQueries.findByPaymentStatus",
+                () -> bookingRepository.findByPaymentStatus(Booking.PaymentStatus.REFUNDED));
+        call("BookingArchiveQueries.findBookingsBetweenDates", () -> bookingRepository.findBookingsBetweenDates(from, to));
+        call("BookingArchiveQueries.findBookingsByStatusAndDateRange",
+                () -> bookingRepository.findBookingsByStatusAndDateRange(Booking.BookingStatus.COMPLETED, from, to));
+        call("BookingArchiveQueries.findBookingsBySpecialistIdAndDateRange",
+                () -> bookingRepository.findBookingsBySpecialistIdAndDateRange(specialistId, from, to));
+        call("BookingArchiveQueries.countBookingsByStatusAndDateRange",
+                () -> bookingRepository.countBookingsByStatusAndDateRange(Booking.BookingStatus.COMPLETED, from, to));
+
+        call("BookingDetailArchiveQueries.findByBooking", () -> {
+            bookingDetailRepository.findByBooking(booking);
+            bookingDetailRepository.findByBooking(archived);
+        });
+        call("BookingDetailArchiveQueries.findByBookingIn",
+                () -> bookingDetailRepository.findByBookingIn(List.of(booking, archived)));
+        call("BookingDetailArchiveQueries.countBookingDetailsByServiceIdAndDateRange",
+                () -> bookingDetailRepository.countBookingDetailsByServiceIdAndDateRange(serviceId, from, to));
+        call("BookingDetailRepository.findByService", () -> bookingDetailRepository.findByService(service));
+        call("BookingDetailRepository.findByStatus",
+                () -> bookingDetailRepository.findByStatus(BookingDetail.Status.PENDING));
+        call("BookingDetailRepository.findBySpecialistIdAndStatus",
+                () -> bookingDetailRepository.findBySpecialistIdAndStatus(specialistId, BookingDetail.Status.PENDING));
+
+        call("CategoryRepository.findByName", () -> categoryRepository.findByName(categoryName));
+        call("CategoryRepository.existsByName", () -> categoryRepository.existsByName(categoryName));
+        call("CategoryRepository.findAll", categoryRepository::findAll);
+        call("CategoryRepository.findChangedSince",
+                () -> categoryRepository.findChangedSince(now.minusDays(3), 0L, now, page));
+
+        call("CustomerQuizResultRepository.findByCustomer", () -> customerQuizResultRepository.findByCustomer(customer));
+        call("CustomerQuizResultRepository.findByCustomerAndQuestion",
+                () -> customerQuizResultRepository.findByCustomerAndQuestion(customer, question));
+
+        call("CustomerRepository.findAll", customerRepository::findAll);
+        call("CustomerRepository.findById", () -> customerRepository.findById(customerId));
+        call("CustomerRepository.findByUser", () -> customerRepository.findByUser(user));
+
+        call("QuizOptionRepository.findByQuestion", () -> quizOptionRepository.findByQuestion(question));
+        call("QuizOptionRepository.findActiveWithRecommendedServices", quizOptionRepository::findActiveWithRecommendedServices);
+        call("QuizOptionRepository.findActiveServiceWeights", quizOptionRepository::findActiveServiceWeights);
+
+        call("QuizQuestionRepository.findByIsActiveTrue", quizQuestionRepository::findByIsActiveTrue);
+        call("QuizQuestionRepository.findWithRecommendedServicesById",
+                () -> quizQuestionRepository.findWithRecommendedServicesById(questionId));
+        call("QuizQuestionRepository.findActiveWithRecommendedServices",
+                quizQuestionRepository::findActiveWithRecommendedServices);
+
+        call("ReviewRepository.findAll", reviewRepository::findAll);
+        call("ReviewRepository.findById", () -> reviewRepository.findById(id("SELECT MAX(id) FROM reviews")));
+        call("ReviewRepository.findByBooking", () -> reviewRepository.findByBooking(booking));
+        call("ReviewRepository.findByIsApproved", () -> reviewRepository.findByIsApproved(false));
+        call("ReviewRepository.findBySpecialistId", () -> reviewRepository.findBySpecialistId(specialistId));
+        call("ReviewRepository.calculateAverageRatingForSpecialist",
+                () -> reviewRepository.calculateAverageRatingForSpecialist(specialistId));
+        call("ReviewRepository.countReviewsForSpecialist", () -> reviewRepository.countReviewsForSpecialist(specialistId));
+
+        call("RoleRepository.findByName", () -> roleRepository.findByName(Role.ERole.ROLE_ADMIN));
+
+        call("ServiceRepository.findByIsActiveTrue", serviceRepository::findByIsActiveTrue);
+        call("ServiceRepository.findByCategoriesContaining", () -> serviceRepository.findByCategoriesContaining(category));
+        call("ServiceRepository.findAllBySpecialistId", () -> serviceRepository.findAllBySpecialistId(specialistId));
+        call("ServiceRepository.findByQuizQuestionId", () -> serviceRepository.findByQuizQuestionId(questionId));
+        call("ServiceRepository.findChangedSince",
+                () -> serviceRepository.findChangedSince(now.minusDays(3), 0L, now, page));
+
+        call("SettingsRepository.findByCategory",
+                () -> settingsRepository.findByCategory((String) setting.get("category")));
+        call("SettingsRepository.findByKeyAndCategory",
+                () -> settingsRepository.findByKeyAndCategory((String) setting.get("key"), (String) setting.get("category")));
+
+        call("SpecialistRepository.findAll", specialistRepository::findAll);
+        call("SpecialistRepository.findProfileById", () -> specialistRepository.findProfileById(specialistId));
+        call("SpecialistRepository.findAllByServiceId", () -> specialistRepository.findAllByServiceId(serviceId));
+        call("SpecialistRepository.findAllWithMinimumRating", () -> specialistRepository.findAllWithMinimumRating(4.9));
+        call("SpecialistRepository.findBySpecializationContaining",
+                () -> specialistRepository.findBySpecializationContaining("acne"));
+        call("SpecialistRepository.findByNameContaining", () -> specialistRepository.findByNameContaining("User 48"));
+        call("SpecialistRepository.findByUser", () -> specialistRepository.findByUser(specialistUser));
+        call("SpecialistRepository.countSpecialists", specialistRepository::countSpecialists);
+        call("SpecialistRepository.findAllOrderByRatingDesc", specialistRepository::findAllOrderByRatingDesc);
+        call("SpecialistRepository.findTopRatedSpecialists", () -> specialistRepository.findTopRatedSpecialists(55));
+        call("SpecialistRepository.findAllActiveSpecialists", specialistRepository::findAllActiveSpecialists);
+        call("SpecialistRepository.searchByKeyword", () -> specialistRepository.searchByKeyword("acne"));
+        call("SpecialistRepository.findMostVersatileSpecialists", specialistRepository::findMostVersatileSpecialists);
+        call("SpecialistRepository.findByExperienceContaining", () -> specialistRepository.findByExperienceContaining("12"));
+        call("SpecialistRepository.findByCertificationsContaining",
+                () -> specialistRepository.findByCertificationsContaining("ITEC"));
+        call("SpecialistRepository.findChangedSince",
+                () -> specialistRepository.findChangedSince(now.minusDays(3), 0L, now, page));
+        call("SpecialistRepository.touchByUser", () -> specialistRepository.touchByUser(specialistUser, now));
+
+        call("SpecialistScheduleRepository.findBySpecialist", () -> specialistScheduleRepository.findBySpecialist(specialist));
+        call("SpecialistScheduleRepository.findBySpecialistAndDayOfWeek",
+                () -> specialistScheduleRepository.findBySpecialistAndDayOfWeek(specialist, DayOfWeek.MONDAY));
+        call("SpecialistScheduleRepository.findBySpecialistAndIsAvailableTrue",
+                () -> specialistScheduleRepository.findBySpecialistAndIsAvailableTrue(specialist));
+
+        call("TagRepository.findByName", () -> tagRepository.findByName("plan-tag-1"));
+
+        call("UserRepository.findByUsername", () -> userRepository.findByUsername(username));
+        call("UserRepository.findWithRolesByUsername", () -> userRepository.findWithRolesByUsername(username));
+        call("UserRepository.findWithRolesById", () -> userRepository.findWithRolesById(userId));
+        call("UserRepository.findByEmail", () -> userRepository.findByEmail(email));
+        call("UserRepository.existsByUsername", () -> userRepository.existsByUsername(username));
+        call("UserRepository.existsByEmail", () -> userRepository.existsByEmail(email));
+
+        call("WaitlistEntryRepository.findDetailById", () -> waitlistEntryRepository.findDetailById(waitlistEntryId));
+        call("WaitlistEntryRepository.findByCustomerOrderByDayAscIdAsc",
+                () -> waitlistEntryRepository.findByCustomerOrderByDayAscIdAsc(customer));
+        call("WaitlistEntryRepository.findBySpecialistIdAndDay",
+                () -> waitlistEntryRepository.findBySpecialistIdAndDay(specialistId, LocalDate.now().plusDays(10)));
+        call("WaitlistEntryRepository.findForUpdate", () -> transactionTemplate.executeWithoutResult(
+                status -> waitlistEntryRepository.findForUpdate(waitlistEntryId)));
+        call("WaitlistEntryRepository.expire", () -> waitlistEntryRepository.expire(
+                WaitlistEntry.Status.WAITING, WaitlistEntry.Status.EXPIRED, LocalDate.now()));
+    }
+
+    private void call(String label, Runnable work) {
+        recorder.doing(label);
+        work.run();
+        called.add(label);
+    }
+
+    private Long id(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    // Query methods declared on the repositories and their query fragments, by Interface.method
+    private Set<String> missingRepositoryQueries() {
+        Set<String> missing = new TreeSet<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            Class<?> repository = repositories.getRequiredRepositoryInformation(domainType).getRepositoryInterface();
+            List<Class<?>> declaring = new ArrayList<>(List.of(repository));
+            for (Class<?> fragment : repository.getInterfaces()) {
+                if (fragment.getPackage().equals(repository.getPackage())) {
+                    declaring.add(fragment);
+                }
+            }
+            for (Class<?> type : declaring) {
+                for (Method method : type.getDeclaredMethods()) {
+                    String label = type.getSimpleName() + "." + method.getName();
+                    if (!method.isSynthetic() && !called.contains(label)) {
+                        missing.add(label);
+                    }
+                }
+            }
+        }
+        return missing;
+    }
+
+    // Reads and writes that locate rows; plain inserts and session statements have no plan to check
+    private static boolean explainable(String sql) {
+        String statement = sql.trim().toLowerCase();
+        return (statement.startsWith("select") && statement.contains(" from "))
+                || statement.startsWith("update") || statement.startsWith("delete")
+                || (statement.startsWith("insert") && statement.contains(" select "));
+    }
+}
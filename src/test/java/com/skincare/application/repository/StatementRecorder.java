@@ -0,0 +1,143 @@
+package com.skincare.application.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the statements sent through its connections, as Hibernate and JdbcTemplate send
+ * them and with the parameters of their first execution, while recording is on. Statements
+ * run by the recording thread are labelled with what it is doing (see {@link #doing}), those
+ * of other threads with the thread's name, e.g. thread:notification-dispatcher.
+ */
+class StatementRecorder extends DelegatingDataSource {
+    static final class Recorded {
+        final String sql;
+        final List<Object> parameters;
+        final Set<String> labels = ConcurrentHashMap.newKeySet();
+
+        private Recorded(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    // By SQL text
+    private final Map<String, Recorded> recorded = new ConcurrentHashMap<>();
+    private volatile Thread recordingThread;
+    private volatile String label;
+
+    StatementRecorder(DataSource target) {
+        super(target);
+    }
+
+    void start() {
+        recorded.clear();
+        recordingThread = Thread.currentThread();
+    }
+
+    void stop() {
+        recordingThread = null;
+    }
+
+    // Labels the statements the recording thread runs from now on; null leaves them out
+    void doing(String label) {
+        this.label = label;
+    }
+
+    Collection<Recorded> recorded() {
+        return recorded.values();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recording(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recording(super.getConnection(username, password));
+    }
+
+    private void record(String sql, Map<Integer, Object> parameters) {
+        Thread thread = recordingThread;
+        if (thread == null) {
+            return;
+        }
+        String by = Thread.currentThread() == thread
+                ? label : "thread:" + Thread.currentThread().getName().replaceAll("-\\d+$", "");
+        if (by == null) {
+            return;
+        }
+        recorded.computeIfAbsent(sql, key -> new Recorded(sql, new ArrayList<>(parameters.values()))).labels.add(by);
+    }
+
+    private Connection recording(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if ("prepareStatement".equals(method.getName())) {
+                return prepared((PreparedStatement) result, (String) args[0]);
+            }
+            if ("createStatement".equals(method.getName())) {
+                return plain((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement prepared(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if ((name.startsWith("execute") || name.equals("addBatch")) && (args == null || args.length == 0)) {
+                record(sql, parameters);
+            }
+            return result;
+        });
+    }
+
+    private Statement plain(Statement statement) {
+        return proxy(Statement.class, statement, (method, args, result) -> {
+            if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                    && args != null && args.length > 0 && args[0] instanceof String) {
+                record((String) args[0], Map.of());
+            }
+            return result;
+        });
+    }
+
+    private interface AfterCall {
+        Object after(Method method, Object[] args, Object result) throws SQLException;
+    }
+
+    // Calls through to the target, then lets after see or replace the result
+    private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+        return type.cast(Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return after.after(method, args, result);
+                }));
+    }
+}
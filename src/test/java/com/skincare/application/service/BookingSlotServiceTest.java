@@ -0,0 +1,150 @@
+package com.skincare.application.service;
+
+import com.skincare.application.EmbeddedDatabaseTest;
+import com.skincare.application.exception.SlotUnavailableException;
+import com.skincare.application.model.Booking;
+import com.skincare.application.model.Specialist;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Bookings racing for a specialist's time, each claiming in a transaction of its own as the booking endpoints do
+class BookingSlotServiceTest extends EmbeddedDatabaseTest {
+    private static final int REQUESTS = 32;
+    private static final int DURATION_MINUTES = 45;
+
+    @Autowired
+    private BookingSlotService bookingSlotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentClaimsOfOneSlotHaveExactlyOneWinner() throws Exception {
+        long specialistId = insertSpecialist();
+        LocalDateTime start = LocalDateTime.now().plusDays(30).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            bookings.add(insertBooking(specialistId, start));
+        }
+
+        List<Booking> winners = race(bookings);
+
+        assertThat(winners).hasSize(1);
+        assertThat(claimedSlots(specialistId)).containsOnlyKeys(winners.get(0).getId());
+        assertThat(claimedSlots(specialistId).get(winners.get(0).getId())).isEqualTo(3);
+    }
+
+    // Every booking covers 10:30, each from a different first slot; ascending claims must not deadlock
+    @Test
+    void overlappingClaimsHaveExactlyOneWinner() throws Exception {
+        long specialistId = insertSpecialist();
+        LocalDateTime day = LocalDateTime.now().plusDays(31).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            bookings.add(insertBooking(specialistId, day.withHour(10).withMinute(i % 3 * 15)));
+        }
+
+        List<Booking> winners = race(bookings);
+
+        assertThat(winners).hasSize(1);
+        assertThat(claimedSlots(specialistId)).containsOnlyKeys(winners.get(0).getId());
+    }
+
+    // Starts all claims at once; a claim failing other than with SlotUnavailableException or a deadlock
+    // fails the test
+    private List<Booking> race(List<Booking> bookings) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(bookings.size());
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Booking booking : bookings) {
+                Callable<Boolean> claim = () -> {
+                    start.await();
+                    // A deadlock loser is rolled back without a verdict and tries again, as createBooking does
+                    while (true) {
+                        try {
+                            transactionTemplate.executeWithoutResult(
+                                    status -> bookingSlotService.claim(booking, DURATION_MINUTES));
+                            return true;
+                        } catch (SlotUnavailableException e) {
+                            return false;
+                        } catch (PessimisticLockingFailureException e) {
+                            // retry
+                        }
+                    }
+                };
+                results.add(executor.submit(claim));
+            }
+            start.countDown();
+
+            List<Booking> winners = new ArrayList<>();
+            for (int i = 0; i < bookings.size(); i++) {
+                if (results.get(i).get()) {
+                    winners.add(bookings.get(i));
+                }
+            }
+            return winners;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Claimed slots by booking id
+    private Map<Long, Integer> claimedSlots(long specialistId) {
+        Map<Long, Integer> slots = new HashMap<>();
+        jdbcTemplate.query("SELECT booking_id, COUNT(*) AS slots FROM booking_slot_claims WHERE specialist_id = ? GROUP BY booking_id",
+                (RowCallbackHandler) rs -> slots.put(rs.getLong("booking_id"), rs.getInt("slots")),
+                specialistId);
+        return slots;
+    }
+
+    private long insertSpecialist() {
+        String username = "slot-test-" + UUID.randomUUID();
+        Number userId = new SimpleJdbcInsert(jdbcTemplate).withTableName("users")
+                .usingColumns("username", "email", "password", "is_active").usingGeneratedKeyColumns("id")
+                .executeAndReturnKey(Map.of("username", username, "email", username + "@example.com",
+                        "password", "-", "is_active", true));
+        return new SimpleJdbcInsert(jdbcTemplate).withTableName("specialists")
+                .usingColumns("user_id").usingGeneratedKeyColumns("id")
+                .executeAndReturnKey(Map.of("user_id", userId))
+                .longValue();
+    }
+
+    private Booking insertBooking(long specialistId, LocalDateTime start) {
+        long id = new SimpleJdbcInsert(jdbcTemplate).withTableName("bookings")
+                .usingColumns("specialist_id", "booking_date_time", "status").usingGeneratedKeyColumns("id")
+                .executeAndReturnKey(Map.of("specialist_id", specialistId, "booking_date_time", Timestamp.valueOf(start),
+                        "status", Booking.BookingStatus.PENDING.name()))
+                .longValue();
+        return Booking.builder()
+                .id(id)
+                .specialist(Specialist.builder().id(specialistId).build())
+                .bookingDateTime(start)
+                .build();
+    }
+}
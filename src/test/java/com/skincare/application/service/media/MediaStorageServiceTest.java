@@ -0,0 +1,95 @@
+package com.skincare.application.service.media;
+
+import com.skincare.application.exception.UnsupportedMediaException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Uploads are kept by the type their bytes show, never by the name or type the client claims
+class MediaStorageServiceTest {
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+
+    @TempDir
+    Path uploadDir;
+
+    private MediaStorageService mediaStorageService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mediaStorageService = new MediaStorageService();
+        ReflectionTestUtils.setField(mediaStorageService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(mediaStorageService, "thumbnailSizes", List.of());
+        ReflectionTestUtils.setField(mediaStorageService, "thumbnailThreads", 1);
+        ReflectionTestUtils.setField(mediaStorageService, "thumbnailQueueCapacity", 1);
+        mediaStorageService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mediaStorageService.shutdown();
+    }
+
+    @Test
+    void htmlIsRejectedWhateverItIsCalled() throws Exception {
+        byte[] html = "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.UTF_8);
+
+        for (String name : List.of("evil.html", "evil.svg", "avatar.png")) {
+            MockMultipartFile file = new MockMultipartFile("avatar", name, "image/png", html);
+            assertThatThrownBy(() -> mediaStorageService.store(file)).isInstanceOf(UnsupportedMediaException.class);
+        }
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    void svgIsRejected() {
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" onload=\"alert(1)\"/>".getBytes(StandardCharsets.UTF_8);
+        MockMultipartFile file = new MockMultipartFile("avatar", "logo.svg", "image/svg+xml", svg);
+
+        assertThatThrownBy(() -> mediaStorageService.store(file)).isInstanceOf(UnsupportedMediaException.class);
+    }
+
+    @Test
+    void imageIsStoredUnderItsDetectedType() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("avatar", "evil.html", "text/html", PNG);
+
+        StoredMedia media = mediaStorageService.store(file);
+
+        assertThat(media.getUrl()).endsWith(".png");
+        assertThat(media.getContentType()).isEqualTo("image/png");
+        Path stored = mediaStorageService.resolve(media.getUrl().substring(MediaStorageService.URL_PREFIX.length()));
+        assertThat(mediaStorageService.imageTypeOf(stored)).isEqualTo(ImageType.PNG);
+    }
+
+    @Test
+    void imageTypesAreDetectedByTheirLeadingBytes() {
+        assertThat(detect(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0})).isEqualTo(ImageType.JPEG);
+        assertThat(detect(PNG)).isEqualTo(ImageType.PNG);
+        assertThat(detect("GIF89a....".getBytes(StandardCharsets.US_ASCII))).isEqualTo(ImageType.GIF);
+        assertThat(detect("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII))).isEqualTo(ImageType.WEBP);
+        assertThat(detect("RIFF\0\0\0\0WAVEfmt ".getBytes(StandardCharsets.US_ASCII))).isNull();
+        assertThat(detect(new byte[] {(byte) 0xFF, (byte) 0xD8})).isNull();
+    }
+
+    private static ImageType detect(byte[] bytes) {
+        return ImageType.detect(bytes, bytes.length);
+    }
+
+    private List<Path> storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.skincare.application.service.notification;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Notifications are mailed unless memory is asked for; without a mail host the application does not start
+class NotificationConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(MailSenderAutoConfiguration.class))
+            .withUserConfiguration(NotificationConfig.class)
+            .withPropertyValues("notification.mail.from=no-reply@example.com");
+
+    @Test
+    void smtpIsTheDefaultSender() {
+        contextRunner.withPropertyValues("spring.mail.host=smtp.example.com")
+                .run(context -> assertThat(context).hasSingleBean(NotificationSender.class)
+                        .hasSingleBean(SmtpNotificationSender.class));
+    }
+
+    @Test
+    void startupFailsWithoutAMailHost() {
+        contextRunner.run(context -> assertThat(context).hasFailed());
+        contextRunner.withPropertyValues("notification.sender=smtp")
+                .run(context -> assertThat(context).hasFailed());
+    }
+
+    @Test
+    void memoryIsUsedOnlyWhenSelected() {
+        contextRunner.withPropertyValues("notification.sender=memory")
+                .run(context -> assertThat(context).hasSingleBean(NotificationSender.class)
+                        .hasSingleBean(InMemoryNotificationSender.class));
+    }
+}
@@ -0,0 +1,129 @@
+package com.skincare.application.service.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The wheel is driven tick by tick, so every timer is checked to expire on exactly its deadline
+class TimingWheelTest {
+    // Ticks one bucket of level 1 spans (SLOTS)
+    private static final long LEVEL_1 = 64;
+
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void deadlinesAroundTheFirstCascadeExpireOnTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule(LEVEL_1 - 1, "last of level 0");
+        wheel.schedule(LEVEL_1, "first of level 1");
+        wheel.schedule(LEVEL_1 + 1, "after the cascade");
+
+        advance(wheel, LEVEL_1 - 2);
+        assertThat(expired).isEmpty();
+        advance(wheel, LEVEL_1 + 1);
+
+        assertThat(expired).containsExactly("last of level 0@63", "first of level 1@64", "after the cascade@65");
+        assertThat(wheel.size()).isZero();
+    }
+
+    // Started mid-bucket, a level-1 timer lands in level 0 at the cascade and still waits for its own tick
+    @Test
+    void deadlinesAcrossTheBoundaryFromAnUnalignedStartExpireOnTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(10);
+        wheel.schedule(10 + LEVEL_1 - 1, "level 0");
+        wheel.schedule(10 + LEVEL_1, "level 1");
+        wheel.schedule(2 * LEVEL_1, "next level-1 bucket");
+
+        advance(wheel, 3 * LEVEL_1);
+
+        assertThat(expired).containsExactly("level 0@73", "level 1@74", "next level-1 bucket@128");
+    }
+
+    @Test
+    void deadlineAtTheTopOfTheWheelCascadesThroughEveryLevel() {
+        long start = 5;
+        TimingWheel<String> wheel = new TimingWheel<>(start);
+        long furthest = start + TimingWheel.SPAN - 1;
+        wheel.schedule(furthest, "furthest");
+
+        advance(wheel, furthest - 1);
+        assertThat(expired).isEmpty();
+        advance(wheel, furthest);
+
+        assertThat(expired).containsExactly("furthest@" + furthest);
+    }
+
+    @Test
+    void deadlineBeyondTheTopLevelIsRejected() {
+        TimingWheel<String> wheel = new TimingWheel<>(5);
+
+        assertThatThrownBy(() -> wheel.schedule(5 + TimingWheel.SPAN, "too far"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timerCancelledBeforeItsCascadeNeverExpires() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timeout<String> timeout = wheel.schedule(LEVEL_1 + 5, "cancelled");
+        wheel.schedule(LEVEL_1 + 6, "kept");
+
+        advance(wheel, 10);
+        wheel.cancel(timeout);
+        assertThat(wheel.size()).isEqualTo(1);
+        advance(wheel, 3 * LEVEL_1);
+
+        assertThat(expired).containsExactly("kept@70");
+    }
+
+    @Test
+    void timerCancelledAfterItsCascadeNeverExpires() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timeout<String> timeout = wheel.schedule(LEVEL_1 + 5, "cancelled");
+        wheel.schedule(LEVEL_1 + 6, "kept");
+
+        advance(wheel, LEVEL_1);
+        wheel.cancel(timeout);
+        assertThat(wheel.size()).isEqualTo(1);
+        advance(wheel, 3 * LEVEL_1);
+
+        assertThat(expired).containsExactly("kept@70");
+    }
+
+    @Test
+    void cancellingAnExpiredTimerChangesNothing() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timeout<String> timeout = wheel.schedule(3, "expired");
+        wheel.schedule(LEVEL_1, "pending");
+
+        advance(wheel, 3);
+        wheel.cancel(timeout);
+        wheel.cancel(timeout);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        advance(wheel, LEVEL_1);
+        assertThat(expired).containsExactly("expired@3", "pending@64");
+    }
+
+    @Test
+    void deadlineAlreadyPassedExpiresOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        TimingWheel.Timeout<String> past = wheel.schedule(40, "past");
+        TimingWheel.Timeout<String> now = wheel.schedule(100, "now");
+
+        assertThat(past.getDeadline()).isEqualTo(101);
+        assertThat(now.getDeadline()).isEqualTo(101);
+        advance(wheel, 101);
+
+        assertThat(expired).containsExactly("past@101", "now@101");
+    }
+
+    // Records each expired value with the tick it expired on
+    private void advance(TimingWheel<String> wheel, long tick) {
+        wheel.advanceTo(tick, value -> expired.add(value + "@" + wheel.getCurrentTick()));
+    }
+}
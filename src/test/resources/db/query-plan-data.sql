@@ -0,0 +1,159 @@
+-- A data set shaped like production for QueryPlanTest: large booking, detail, review, outbox
+-- and quiz result tables, most bookings in the past and closed, a year and more of history
+-- for the archive. Catalogue tables are sized for a large salon chain, past the few dozen
+-- rows below which MariaDB scans a table rather than use its indexes. Ids continue after
+-- whatever other tests left.
+
+insert ignore into roles (name)
+select name from (select 'ROLE_CUSTOMER' as name union all select 'ROLE_STAFF'
+                  union all select 'ROLE_SPECIALIST' union all select 'ROLE_ADMIN') r
+where not exists (select 1 from roles existing where existing.name = r.name);
+
+-- Users 1-4800 are customers, 4801-5800 specialists, 5801-5900 staff
+set @user0 = (select coalesce(max(id), 0) from users);
+insert into users (id, username, email, password, full_name, is_active, created_at, updated_at)
+select @user0 + seq, concat('plan-user-', @user0 + seq), concat('plan-user-', @user0 + seq, '@example.com'), '-',
+       concat('Plan User ', seq), seq % 25 <> 0, now(6) - interval seq hour, now(6) - interval seq hour
+from seq_1_to_5900;
+
+insert into user_roles (user_id, role_id)
+select u.id, r.id from users u join roles r
+    on r.name = case when u.id - @user0 <= 4800 then 'ROLE_CUSTOMER'
+                     when u.id - @user0 <= 5800 then 'ROLE_SPECIALIST' else 'ROLE_STAFF' end
+where u.id > @user0;
+
+set @customer0 = (select coalesce(max(id), 0) from customers);
+insert into customers (id, user_id, skin_type, created_at, updated_at)
+select @customer0 + seq, @user0 + seq, elt(1 + seq % 4, 'DRY', 'OILY', 'NORMAL', 'COMBINATION'), now(6), now(6)
+from seq_1_to_4800;
+
+set @specialist0 = (select coalesce(max(id), 0) from specialists);
+insert into specialists (id, user_id, specialization, experience, certifications, bio, rating_average, rating_count,
+                         created_at, updated_at)
+select @specialist0 + seq, @user0 + 4800 + seq, elt(1 + seq % 3, 'Facials', 'Acne care', 'Anti-aging'),
+       concat(seq % 15, ' years'), elt(1 + seq % 2, 'CIDESCO', 'ITEC'), 'Plan specialist',
+       3 + (seq % 21) / 10, seq % 60, now(6) - interval seq day, now(6) - interval seq day
+from seq_1_to_1000;
+
+set @category0 = (select coalesce(max(id), 0) from categories);
+insert into categories (id, name, description, created_at, updated_at)
+select @category0 + seq, concat('Plan category ', @category0 + seq), 'Plan', now(6), now(6) - interval seq day
+from seq_1_to_100;
+
+set @service0 = (select coalesce(max(id), 0) from services);
+insert into services (id, name, description, price, duration_minutes, is_active, created_at, updated_at)
+select @service0 + seq, concat('Plan service ', seq), 'Plan', 40 + seq * 5, 30 + 15 * (seq % 5), seq % 10 <> 0,
+       now(6), now(6) - interval seq day
+from seq_1_to_400;
+
+insert into service_categories (service_id, category_id)
+select @service0 + seq, @category0 + 1 + seq % 100 from seq_1_to_400;
+
+-- Every specialist offers 8 of the 400 services
+insert into specialist_services (specialist_id, service_id)
+select @specialist0 + s.seq, @service0 + 1 + (s.seq * 7 + o.seq * 5) % 400
+from seq_1_to_1000 s join seq_0_to_7 o;
+
+insert into specialist_schedules (specialist_id, day_of_week, start_time, end_time, is_available, created_at, updated_at)
+select @specialist0 + s.seq, elt(d.seq, 'MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY'),
+       '09:00', '18:00', d.seq < 7, now(6), now(6)
+from seq_1_to_1000 s join seq_1_to_7 d;
+
+-- Two years of history and two months ahead; past bookings are closed, upcoming ones open
+set @booking0 = (select coalesce(max(id), 0) from bookings);
+insert into bookings (id, customer_id, specialist_id, booking_date_time, status, payment_status, payment_method,
+                      total_amount, created_at, updated_at)
+select @booking0 + seq, @customer0 + 1 + seq % 4800, @specialist0 + 1 + seq % 1000, at,
+       case when at >= now() then if(seq % 3 = 0, 'CONFIRMED', 'PENDING')
+            when seq % 20 = 0 then 'CANCELLED' when seq % 50 = 1 then 'NO_SHOW' else 'COMPLETED' end,
+       case when at >= now() then 'PENDING' when seq % 20 = 0 then 'REFUNDED' else 'PAID' end,
+       'CARD', 90, at - interval 7 day, at
+from (select seq, timestamp(curdate() - interval 730 day) + interval (seq * 37) % 790 day
+                  + interval 9 * 60 + (seq * 15) % 540 minute as at
+      from seq_1_to_40000) b;
+
+insert into booking_details (booking_id, service_id, price, status, start_time, end_time, created_at, updated_at)
+select b.id, @service0 + 1 + (b.id + n.seq * 11) % 400, 45,
+       case b.status when 'COMPLETED' then 'COMPLETED' when 'CANCELLED' then 'CANCELLED'
+                     when 'NO_SHOW' then 'CANCELLED' else 'PENDING' end,
+       b.booking_date_time, b.booking_date_time + interval 45 minute, b.created_at, b.updated_at
+from bookings b join seq_0_to_1 n on n.seq = 0 or b.id % 2 = 0
+where b.id > @booking0;
+
+insert ignore into booking_slot_claims (specialist_id, slot_start, booking_id)
+select specialist_id, booking_date_time - interval minute(booking_date_time) % 15 minute, id
+from bookings where id > @booking0 and status in ('PENDING', 'CONFIRMED');
+
+-- One in ten completed bookings is reviewed
+insert into reviews (booking_id, rating, comment, is_approved, created_at, updated_at)
+select id, 1 + id % 5, 'Plan review', id % 7 <> 0, booking_date_time + interval 1 day, booking_date_time + interval 1 day
+from bookings where id > @booking0 and status = 'COMPLETED' and id % 10 = 0;
+
+set @tag0 = (select coalesce(max(id), 0) from tags);
+insert into tags (id, name, created_at, updated_at)
+select @tag0 + seq, concat('plan-tag-', @tag0 + seq), now(6), now(6) from seq_1_to_30;
+
+set @blog0 = (select coalesce(max(id), 0) from blogs);
+insert into blogs (id, title, content, author_id, is_published, published_at, view_count, created_at, updated_at)
+select @blog0 + seq, concat('Plan blog ', seq), 'Plan', @user0 + 5800 + 1 + seq % 100, seq % 10 <> 0,
+       if(seq % 10 <> 0, now(6) - interval seq day, null), seq, now(6) - interval seq day, now(6) - interval seq day
+from seq_1_to_2000;
+
+insert into blog_tags (blog_id, tag_id)
+select @blog0 + b.seq, @tag0 + 1 + (b.seq + t.seq * 7) % 30 from seq_1_to_2000 b join seq_0_to_2 t;
+
+set @question0 = (select coalesce(max(id), 0) from quiz_questions);
+insert into quiz_questions (id, question, question_type, is_active, created_at, updated_at)
+select @question0 + seq, concat('Plan question ', seq), elt(1 + seq % 3, 'SINGLE_CHOICE', 'MULTIPLE_CHOICE', 'TEXT'),
+       seq % 5 <> 0, now(6), now(6)
+from seq_1_to_300;
+
+set @option0 = (select coalesce(max(id), 0) from quiz_options);
+insert into quiz_options (id, question_id, option_text, created_at, updated_at)
+select @option0 + q.seq * 4 + o.seq, @question0 + q.seq, concat('Plan option ', o.seq), now(6), now(6)
+from seq_1_to_300 q join seq_0_to_3 o;
+
+insert into option_service_recommendations (option_id, service_id)
+select o.id, @service0 + 1 + (o.id + n.seq * 13) % 400 from quiz_options o join seq_0_to_1 n where o.id > @option0;
+
+insert into option_service_weights (option_id, service_id, weight)
+select o.id, @service0 + 1 + (o.id + n.seq * 17) % 400, 1 + n.seq from quiz_options o join seq_0_to_2 n
+where o.id > @option0;
+
+insert into question_service_recommendations (question_id, service_id)
+select @question0 + q.seq, @service0 + 1 + (q.seq + n.seq * 19) % 400 from seq_1_to_300 q join seq_0_to_1 n;
+
+insert into customer_quiz_results (customer_id, question_id, option_id, created_at, updated_at)
+select @customer0 + 1 + seq % 4800, @question0 + 1 + seq % 300, @option0 + (1 + seq % 300) * 4 + seq % 4, now(6), now(6)
+from seq_1_to_20000;
+
+insert into settings (`key`, category, `value`, description, created_at, updated_at)
+select concat('plan.setting.', seq), concat('plan-', seq % 10), seq, 'Plan', now(6), now(6) from seq_1_to_200;
+
+insert into waitlist_entries (customer_id, specialist_id, day, status, created_at, updated_at)
+select @customer0 + 1 + seq % 4800, @specialist0 + 1 + seq % 1000, curdate() - interval 60 day + interval seq % 120 day,
+       case when seq % 120 < 60 then 'EXPIRED' when seq % 4 = 0 then 'WAITING' when seq % 4 = 1 then 'PROMOTED'
+            else 'WITHDRAWN' end,
+       now(6), now(6)
+from seq_1_to_4000;
+
+insert into waitlist_entry_services (waitlist_entry_id, service_id)
+select w.id, @service0 + 1 + w.id % 400 from waitlist_entries w where w.customer_id > @customer0;
+
+-- Nearly everything already sent; a few due or failed
+insert into notification_outbox (type, recipient, model, dedup_key, status, attempts, next_attempt_at, created_at,
+                                 sent_at)
+select 'BOOKING_CONFIRMATION', concat('plan-user-', seq, '@example.com'), '{}', concat('plan-', seq),
+       case when seq % 500 = 0 then 'FAILED' else 'SENT' end, 1, now(6) - interval seq minute,
+       now(6) - interval seq minute, if(seq % 500 = 0, null, now(6) - interval seq minute)
+from seq_1_to_20000;
+
+insert into sync_tombstones (entity_type, entity_id, deleted_at)
+select elt(1 + seq % 4, 'services', 'specialists', 'categories', 'blogs'), 100000 + seq, now(6) - interval seq hour
+from seq_1_to_2000;
+
+analyze table users, user_roles, customers, specialists, categories, services, service_categories, specialist_services,
+    specialist_schedules, bookings, booking_details, booking_slot_claims, reviews, tags, blogs, blog_tags,
+    quiz_questions, quiz_options, option_service_recommendations, option_service_weights,
+    question_service_recommendations, customer_quiz_results, settings, waitlist_entries, waitlist_entry_services,
+    notification_outbox, sync_tombstones;